@@ -10,6 +10,7 @@ import com.revature.controllers.ReimbursementController;
 import com.revature.controllers.ReimbursementControllerImpl;
 import com.revature.controllers.UserController;
 import com.revature.controllers.UserControllerImpl;
+import com.revature.exceptions.ConcurrentUpdateException;
 import com.revature.factory.BeanFactory;
 import com.revature.services.ReimbursementService;
 import com.revature.services.ReimbursementServiceImpl;
@@ -29,13 +30,13 @@ public class Driver {
 	}
 
 	private static void startThread() {
-		// Create a runnable that will check the database for expired, active requests
+		// Create a runnable that will sweep the database for expired, active requests
 		// every 30 seconds.
 		Runnable approvalRunnable = () -> {
 			ReimbursementService reqService = (ReimbursementService) BeanFactory.getFactory().getObject(ReimbursementService.class,
 					ReimbursementServiceImpl.class);
 			while (true) {
-				reqService.autoApprove();
+				reqService.sweepExpiredRequests();
 				try {
 					Thread.sleep(30000);
 				} catch (InterruptedException e) {
@@ -74,6 +75,12 @@ public class Driver {
 		// Start Javalin to process HTTP requests
 		Javalin app = Javalin.create().start(8080);
 
+		// Someone else changed the same request or user and the retries ran out
+		app.exception(ConcurrentUpdateException.class, (e, ctx) -> {
+			ctx.status(409);
+			ctx.html("This was changed by someone else. Please try again.");
+		});
+
 		// The controllers for users and requests.
 		UserController userControl = (UserController) BeanFactory.getFactory().getObject(UserController.class,
 				UserControllerImpl.class);
@@ -89,6 +96,12 @@ public class Driver {
 		// Create user, mostly for testing purposes
 		app.put("/users/:username", userControl::createUser);
 
+		// Get the logged in user's requests a page at a time
+		app.get("/users/:username/requests", reqControl::getUserReimbursements);
+
+		// Get the requests waiting on the logged in user's approval a page at a time
+		app.get("/users/:username/pending", reqControl::getPendingReimbursements);
+
 		// Get Request
 		app.get("/requests/:requestId", reqControl::getReimbursement);
 
@@ -99,6 +112,11 @@ public class Driver {
 		app.post("/requests/:requestId/fileURIs", reqControl::uploadExtraFile);
 		app.post("/requests/:requestId/approvalMsgsURIs", reqControl::uploadMessageFile);
 
+		// Record files the client uploaded to S3 itself through a pre-signed URL
+		app.post("/requests/:requestId/fileURIs/complete", reqControl::completeExtraFile);
+		app.post("/requests/:requestId/approvalMsgsURIs/complete", reqControl::completeMessageFile);
+		app.put("/requests/:requestId/presFileName/complete", reqControl::completePresentation);
+
 		// Get the files
 		app.get("/requests/:requestId/fileURIs/:index", reqControl::getFile);
 		app.get("requests/:requestId/approvalMsgsURIs/:index", reqControl::getMessage);
@@ -122,6 +140,13 @@ public class Driver {
 				reqControl::changeReimbursementAmount);
 		app.put("/requests/:requestId/employeeAgrees", reqControl::finalReimbursementCheck);
 		
+		// Get the logged in user's notifications a page at a time, newest first
+		app.get("/users/:username/notifications", userControl::getNotifications);
+
+		// Stream the logged in user's new notifications as they are written
+		app.before("/users/:username/notifications/stream", userControl::authorizeNotificationStream);
+		app.sse("/users/:username/notifications/stream", userControl::streamNotifications);
+
 		//Clear notifications from the user
 		app.delete("/users/:username/notifications", userControl::deleteNotifications);
 
@@ -0,0 +1,125 @@
+package com.revature.beans;
+
+import java.util.Objects;
+
+public class AutoApprovalReport {
+	/**
+	 * The number of expired requests the sweep found
+	 */
+	private Integer backlog;
+	/**
+	 * The number of requests that were auto approved or escalated
+	 */
+	private Integer processed;
+	/**
+	 * The number of requests another approval got to first
+	 */
+	private Integer skipped;
+	/**
+	 * The number of requests that threw an exception
+	 */
+	private Integer failed;
+	/**
+	 * The number of pages the sweep read
+	 */
+	private Integer batches;
+	/**
+	 * How long the sweep took in milliseconds
+	 */
+	private Long elapsedMillis;
+
+	public AutoApprovalReport() {
+		super();
+		backlog = 0;
+		processed = 0;
+		skipped = 0;
+		failed = 0;
+		batches = 0;
+		elapsedMillis = 0L;
+	}
+
+	public Integer getBacklog() {
+		return backlog;
+	}
+
+	public void setBacklog(Integer backlog) {
+		this.backlog = backlog;
+	}
+
+	public Integer getProcessed() {
+		return processed;
+	}
+
+	public void setProcessed(Integer processed) {
+		this.processed = processed;
+	}
+
+	public Integer getSkipped() {
+		return skipped;
+	}
+
+	public void setSkipped(Integer skipped) {
+		this.skipped = skipped;
+	}
+
+	public Integer getFailed() {
+		return failed;
+	}
+
+	public void setFailed(Integer failed) {
+		this.failed = failed;
+	}
+
+	public Integer getBatches() {
+		return batches;
+	}
+
+	public void setBatches(Integer batches) {
+		this.batches = batches;
+	}
+
+	public Long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(Long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * @return The number of requests processed per second
+	 */
+	public Double getThroughput() {
+		if (elapsedMillis <= 0) {
+			return 0.0;
+		}
+		return processed * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(backlog, batches, elapsedMillis, failed, processed, skipped);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AutoApprovalReport other = (AutoApprovalReport) obj;
+		return Objects.equals(backlog, other.backlog) && Objects.equals(batches, other.batches)
+				&& Objects.equals(elapsedMillis, other.elapsedMillis) && Objects.equals(failed, other.failed)
+				&& Objects.equals(processed, other.processed) && Objects.equals(skipped, other.skipped);
+	}
+
+	@Override
+	public String toString() {
+		return "AutoApprovalReport [backlog=" + backlog + ", processed=" + processed + ", skipped=" + skipped
+				+ ", failed=" + failed + ", batches=" + batches + ", elapsedMillis=" + elapsedMillis
+				+ ", throughput=" + getThroughput() + "]";
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.revature.beans;
+
+import java.util.Objects;
+
+/**
+ * A user's balances, summed from their ledger entries. Amounts are kept in
+ * whole cents so adding up many entries never drifts.
+ */
+public class Balance {
+	private Long pendingCents;
+	private Long awardedCents;
+
+	public Balance() {
+		super();
+		this.pendingCents = 0L;
+		this.awardedCents = 0L;
+	}
+
+	public Balance(Long pendingCents, Long awardedCents) {
+		super();
+		this.pendingCents = pendingCents;
+		this.awardedCents = awardedCents;
+	}
+
+	/**
+	 * @return The amount in whole cents, rounded to the nearest cent
+	 */
+	public static Long toCents(Double amount) {
+		return (amount == null) ? 0L : Math.round(amount * 100);
+	}
+
+	/**
+	 * @return The amount in dollars
+	 */
+	public static Double fromCents(Long cents) {
+		return (cents == null) ? 0.00 : cents / 100.0;
+	}
+
+	public Long getPendingCents() {
+		return pendingCents;
+	}
+
+	public void setPendingCents(Long pendingCents) {
+		this.pendingCents = pendingCents;
+	}
+
+	public Long getAwardedCents() {
+		return awardedCents;
+	}
+
+	public void setAwardedCents(Long awardedCents) {
+		this.awardedCents = awardedCents;
+	}
+
+	public Double getPending() {
+		return fromCents(pendingCents);
+	}
+
+	public Double getAwarded() {
+		return fromCents(awardedCents);
+	}
+
+	@Override
+	public String toString() {
+		return "Balance [pendingCents=" + pendingCents + ", awardedCents=" + awardedCents + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(awardedCents, pendingCents);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Balance other = (Balance) obj;
+		return Objects.equals(awardedCents, other.awardedCents) && Objects.equals(pendingCents, other.pendingCents);
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.revature.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class Page<T> {
+	/**
+	 * The items on this page
+	 */
+	private List<T> items;
+	/**
+	 * Opaque token used to get the next page. Null on the last page
+	 */
+	private String pagingState;
+
+	public Page() {
+		super();
+		items = new ArrayList<>();
+	}
+
+	public Page(List<T> items, String pagingState) {
+		super();
+		this.items = items;
+		this.pagingState = pagingState;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getPagingState() {
+		return pagingState;
+	}
+
+	public void setPagingState(String pagingState) {
+		this.pagingState = pagingState;
+	}
+
+	public Boolean hasMore() {
+		return pagingState != null;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(items, pagingState);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Page<?> other = (Page<?>) obj;
+		return Objects.equals(items, other.items) && Objects.equals(pagingState, other.pagingState);
+	}
+
+	@Override
+	public String toString() {
+		return "Page [items=" + items + ", pagingState=" + pagingState + "]";
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.revature.beans;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class PresignedUrl {
+	/**
+	 * The S3 key the URL is for
+	 */
+	private String key;
+	/**
+	 * The URL to send the file to or get it from
+	 */
+	private String url;
+	/**
+	 * The HTTP method the URL has to be used with
+	 */
+	private String method;
+	/**
+	 * When the URL stops working, in UTC
+	 */
+	private LocalDateTime expiration;
+
+	public PresignedUrl() {
+		super();
+	}
+
+	public PresignedUrl(String key, String url, String method, LocalDateTime expiration) {
+		super();
+		this.key = key;
+		this.url = url;
+		this.method = method;
+		this.expiration = expiration;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public LocalDateTime getExpiration() {
+		return expiration;
+	}
+
+	public void setExpiration(LocalDateTime expiration) {
+		this.expiration = expiration;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(expiration, key, method, url);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PresignedUrl other = (PresignedUrl) obj;
+		return Objects.equals(expiration, other.expiration) && Objects.equals(key, other.key)
+				&& Objects.equals(method, other.method) && Objects.equals(url, other.url);
+	}
+
+	@Override
+	public String toString() {
+		return "PresignedUrl [key=" + key + ", url=" + url + ", method=" + method + ", expiration=" + expiration
+				+ "]";
+	}
+
+}
@@ -7,6 +7,7 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAmount;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface Reimbursement {
@@ -114,6 +115,9 @@ public interface Reimbursement {
 	LocalDateTime getDeadline();
 	void setDeadline(LocalDateTime deadline);
 	void startDeadline();
+
+	Long getVersion();
+	void setVersion(Long version);
 	
 	String getReason();
 	void setReason(String reason);
@@ -152,4 +156,22 @@ public interface Reimbursement {
 	
 	Boolean getFinalReimburseChanged();
 
+	/**
+	 * @return The fields changed since the request was last read or saved, or
+	 *         every field if it has been neither
+	 */
+	Set<RequestField> changedFields();
+
+	/**
+	 * @return The files added to the end of the list since the request was last
+	 *         read or saved, or null if the list changed in some other way
+	 */
+	List<String> addedFileURIs();
+
+	/**
+	 * Start tracking changes from the request as it is now. Called once it has
+	 * been read or saved.
+	 */
+	void clearChanges();
+
 }
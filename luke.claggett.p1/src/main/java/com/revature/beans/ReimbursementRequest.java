@@ -4,8 +4,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 public class ReimbursementRequest implements Reimbursement {
@@ -48,6 +50,19 @@ public class ReimbursementRequest implements Reimbursement {
 	private Boolean needsEmployeeReview;
 	private Boolean employeeAgrees;
 
+	// Bumped on every update so concurrent writers can tell they lost a race
+	private Long version;
+
+	private static final RequestField[] APPROVAL_FIELDS = { RequestField.SUPERVISOR_APPROVAL,
+			RequestField.DEPT_HEAD_APPROVAL, RequestField.BENCO_APPROVAL, RequestField.FINAL_APPROVAL };
+
+	// Fields set since the last read or save, null until the request has been read or saved
+	private Set<RequestField> changed;
+	// The approvals, grading format and files are changed in place, so they are compared to a copy instead
+	private Approval[] savedApprovals;
+	private GradingFormat savedGradingFormat;
+	private List<String> savedFileURIs;
+
 	public ReimbursementRequest() {
 		super();
 		status = ReimbursementStatus.ACTIVE;
@@ -63,6 +78,7 @@ public class ReimbursementRequest implements Reimbursement {
 		
 		employeeAgrees = true;
 		needsEmployeeReview = false;
+		version = 0L;
 	}
 
 	public ReimbursementRequest(String username, String firstName, String lastName, String deptName, String name,
@@ -97,6 +113,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setEmployeeAgrees(Boolean employeeAgrees) {
 		this.employeeAgrees = employeeAgrees;
+		change(RequestField.EMPLOYEE_AGREES);
 	}
 
 	public String getUsername() {
@@ -113,6 +130,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setIsUrgent(Boolean isUrgent) {
 		this.isUrgent = isUrgent;
+		change(RequestField.IS_URGENT);
 	}
 
 	public String getName() {
@@ -121,6 +139,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setName(String name) {
 		this.name = name;
+		change(RequestField.NAME);
 	}
 
 	public String getFirstName() {
@@ -129,6 +148,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFirstName(String firstName) {
 		this.firstName = firstName;
+		change(RequestField.FIRST_NAME);
 	}
 
 	public String getLastName() {
@@ -137,6 +157,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setLastName(String lastName) {
 		this.lastName = lastName;
+		change(RequestField.LAST_NAME);
 	}
 
 	public String getDeptName() {
@@ -145,6 +166,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setDeptName(String deptName) {
 		this.deptName = deptName;
+		change(RequestField.DEPT_NAME);
 	}
 
 	public ReimbursementStatus getStatus() {
@@ -153,6 +175,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setStatus(ReimbursementStatus status) {
 		this.status = status;
+		change(RequestField.STATUS);
 	}
 
 	public LocalDate getStartDate() {
@@ -161,6 +184,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setStartDate(LocalDate date) {
 		this.startDate = date;
+		change(RequestField.START_DATE);
 	}
 
 	public LocalTime getStartTime() {
@@ -169,6 +193,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setStartTime(LocalTime time) {
 		this.startTime = time;
+		change(RequestField.START_TIME);
 	}
 
 	public String getLocation() {
@@ -177,6 +202,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setLocation(String location) {
 		this.location = location;
+		change(RequestField.LOCATION);
 	}
 
 	public String getDescription() {
@@ -185,6 +211,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setDescription(String description) {
 		this.description = description;
+		change(RequestField.DESCRIPTION);
 	}
 
 	public Double getCost() {
@@ -193,6 +220,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setCost(Double cost) {
 		this.cost = cost;
+		change(RequestField.COST);
 	}
 
 	public GradingFormat getGradingFormat() {
@@ -201,6 +229,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setGradingFormat(GradingFormat gradingFormat) {
 		this.gradingFormat = gradingFormat;
+		change(RequestField.GRADING_FORMAT);
 	}
 
 	public EventType getType() {
@@ -209,6 +238,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setType(EventType type) {
 		this.type = type;
+		change(RequestField.TYPE);
 	}
 
 	public List<String> getFileURIs() {
@@ -217,6 +247,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFileURIs(List<String> fileURIs) {
 		this.fileURIs = fileURIs;
+		change(RequestField.FILE_URIS);
 	}
 
 	public String getApprovalMsgURI() {
@@ -225,6 +256,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setApprovalMsgURI(String approvalMsgsURIs) {
 		this.approvalMsgURI = approvalMsgsURIs;
+		change(RequestField.APPROVAL_MSG_URI);
 	}
 
 	public String getWorkTimeMissed() {
@@ -233,6 +265,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setWorkTimeMissed(String workTimeMissed) {
 		this.workTimeMissed = workTimeMissed;
+		change(RequestField.WORK_TIME_MISSED);
 	}
 
 	public Double getReimburseAmount() {
@@ -241,6 +274,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setReimburseAmount(Double reimburseAmount) {
 		this.reimburseAmount = reimburseAmount;
+		change(RequestField.REIMBURSE_AMOUNT);
 	}
 
 	public Approval getSupervisorApproval() {
@@ -249,6 +283,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setSupervisorApproval(Approval supervisorApproval) {
 		this.supervisorApproval = supervisorApproval;
+		change(RequestField.SUPERVISOR_APPROVAL);
 	}
 
 	public Approval getDeptHeadApproval() {
@@ -257,6 +292,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setDeptHeadApproval(Approval deptHeadApproval) {
 		this.deptHeadApproval = deptHeadApproval;
+		change(RequestField.DEPT_HEAD_APPROVAL);
 	}
 
 	public Approval getBenCoApproval() {
@@ -265,6 +301,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setBenCoApproval(Approval benCoApproval) {
 		this.benCoApproval = benCoApproval;
+		change(RequestField.BENCO_APPROVAL);
 	}
 
 	public String getReason() {
@@ -273,6 +310,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setReason(String reason) {
 		this.reason = reason;
+		change(RequestField.REASON);
 	}
 
 	public LocalDateTime getDeadline() {
@@ -281,10 +319,20 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setDeadline(LocalDateTime deadline) {
 		this.deadline = deadline;
+		change(RequestField.DEADLINE);
 	}
 	
 	public void startDeadline() {
 		this.deadline = LocalDateTime.now().plus(TIME_LIMIT);
+		change(RequestField.DEADLINE);
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
 	}
 
 	public String getFinalGrade() {
@@ -293,6 +341,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFinalGrade(String finalGrade) {
 		this.finalGrade = finalGrade;
+		change(RequestField.FINAL_GRADE);
 	}
 
 	public Approval getFinalApproval() {
@@ -301,6 +350,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFinalApproval(Approval finalApproval) {
 		this.finalApproval = finalApproval;
+		change(RequestField.FINAL_APPROVAL);
 	}
 
 	@Override
@@ -315,6 +365,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFinalReimburseAmount(Double finalReimburseAmount) {
 		this.finalReimburseAmount = finalReimburseAmount;
+		change(RequestField.FINAL_REIMBURSE_AMOUNT);
 	}
 
 	public Boolean getNeedsEmployeeReview() {
@@ -323,6 +374,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setNeedsEmployeeReview(Boolean needsEmployeeReview) {
 		this.needsEmployeeReview = needsEmployeeReview;
+		change(RequestField.NEEDS_EMPLOYEE_REVIEW);
 	}
 
 	public Boolean getIsPassing() {
@@ -331,6 +383,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setIsPassing(Boolean isPassing) {
 		this.isPassing = isPassing;
+		change(RequestField.IS_PASSING);
 	}
 
 	public String getPresFileName() {
@@ -339,6 +392,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setPresFileName(String presFileName) {
 		this.presFileName = presFileName;
+		change(RequestField.PRES_FILE_NAME);
 	}
 
 	public String getFinalReimburseAmountReason() {
@@ -347,6 +401,7 @@ public class ReimbursementRequest implements Reimbursement {
 
 	public void setFinalReimburseAmountReason(String finalReimburseAmountReason) {
 		this.finalReimburseAmountReason = finalReimburseAmountReason;
+		change(RequestField.FINAL_REIMBURSE_AMOUNT_REASON);
 	}
 
 	public Approval[] getApprovalArray() {
@@ -359,6 +414,62 @@ public class ReimbursementRequest implements Reimbursement {
 		return finalReimburseAmount != reimburseAmount;
 	}
 
+	public Set<RequestField> changedFields() {
+		if (changed == null) {
+			return EnumSet.allOf(RequestField.class);
+		}
+		Set<RequestField> fields = EnumSet.noneOf(RequestField.class);
+		fields.addAll(changed);
+
+		Approval[] approvals = getApprovalArray();
+		for (int i = 0; i < approvals.length; i++) {
+			if (!Objects.equals(approvals[i], savedApprovals[i])) {
+				fields.add(APPROVAL_FIELDS[i]);
+			}
+		}
+		if (!Objects.equals(gradingFormat, savedGradingFormat)) {
+			fields.add(RequestField.GRADING_FORMAT);
+		}
+		if (addedFileURIs() == null) {
+			fields.add(RequestField.FILE_URIS);
+		}
+		return fields;
+	}
+
+	public List<String> addedFileURIs() {
+		if (changed == null || changed.contains(RequestField.FILE_URIS)) {
+			return null;
+		}
+		if (fileURIs == null || savedFileURIs == null) {
+			return (fileURIs == savedFileURIs) ? new ArrayList<>() : null;
+		}
+		int saved = savedFileURIs.size();
+		if (fileURIs.size() < saved || !fileURIs.subList(0, saved).equals(savedFileURIs)) {
+			return null;
+		}
+		return new ArrayList<>(fileURIs.subList(saved, fileURIs.size()));
+	}
+
+	public void clearChanges() {
+		changed = EnumSet.noneOf(RequestField.class);
+
+		Approval[] approvals = getApprovalArray();
+		savedApprovals = new Approval[approvals.length];
+		for (int i = 0; i < approvals.length; i++) {
+			savedApprovals[i] = (approvals[i] == null) ? null
+					: new Approval(approvals[i].getStatus(), approvals[i].getUsername());
+		}
+		savedGradingFormat = (gradingFormat == null) ? null
+				: new GradingFormat(gradingFormat.getFormat(), gradingFormat.getPassingGrade());
+		savedFileURIs = (fileURIs == null) ? null : new ArrayList<>(fileURIs);
+	}
+
+	private void change(RequestField field) {
+		if (changed != null) {
+			changed.add(field);
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(approvalMsgURI, benCoApproval, cost, deadline, deptHeadApproval, deptName, description,
@@ -409,7 +520,7 @@ public class ReimbursementRequest implements Reimbursement {
 				+ ", deadline=" + deadline + ", finalGrade=" + finalGrade + ", isPassing=" + isPassing
 				+ ", presFileName=" + presFileName + ", finalApproval=" + finalApproval + ", finalReimburseAmount="
 				+ finalReimburseAmount + ", finalReimburseAmountReason=" + finalReimburseAmountReason
-				+ ", needsEmployeeReview=" + needsEmployeeReview + ", employeeAgrees=" + employeeAgrees + "]";
+				+ ", needsEmployeeReview=" + needsEmployeeReview + ", employeeAgrees=" + employeeAgrees + ", version=" + version + "]";
 	}
 
 }
@@ -0,0 +1,48 @@
+package com.revature.beans;
+
+/**
+ * The fields of a request that can change after it is created, along with the
+ * column each is stored in
+ */
+public enum RequestField {
+	STATUS("status"),
+	IS_URGENT("isurgent"),
+	NAME("name"),
+	FIRST_NAME("firstname"),
+	LAST_NAME("lastname"),
+	DEPT_NAME("deptname"),
+	START_DATE("startdate"),
+	START_TIME("starttime"),
+	LOCATION("location"),
+	DESCRIPTION("description"),
+	COST("cost"),
+	GRADING_FORMAT("gradingformat"),
+	TYPE("type"),
+	FILE_URIS("fileuris"),
+	APPROVAL_MSG_URI("approvalmsguri"),
+	WORK_TIME_MISSED("worktimemissed"),
+	REIMBURSE_AMOUNT("reimburseamount"),
+	SUPERVISOR_APPROVAL("supervisorapproval"),
+	DEPT_HEAD_APPROVAL("deptheadapproval"),
+	BENCO_APPROVAL("bencoapproval"),
+	REASON("reason"),
+	DEADLINE("deadline"),
+	FINAL_GRADE("finalgrade"),
+	IS_PASSING("ispassing"),
+	PRES_FILE_NAME("presfilename"),
+	FINAL_APPROVAL("finalapproval"),
+	FINAL_REIMBURSE_AMOUNT("finalreimburseamount"),
+	FINAL_REIMBURSE_AMOUNT_REASON("finalreimburseamountreason"),
+	NEEDS_EMPLOYEE_REVIEW("needsemployeereview"),
+	EMPLOYEE_AGREES("employeeagrees");
+
+	private String column;
+
+	RequestField(String column) {
+		this.column = column;
+	}
+
+	public String getColumn() {
+		return column;
+	}
+}
@@ -1,9 +1,7 @@
 package com.revature.beans;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 
 public class User {
 		private String username;
@@ -14,22 +12,33 @@ public class User {
 	private String supervisorUsername;
 	private Double pendingBalance;
 	private Double awardedBalance;
-	private List<UUID> requests;
 	private List<Notification> notifications;
+	// Bumped on every update so concurrent writers can tell they lost a race
+	private Long version;
 
 	/**
-	 * Generates a random id and sets the balances to 0 and the Request Lists to a
-	 * empty Lists
+	 * Sets the balances to 0
 	 */
 	
 	public User() {
 		super();
 		this.pendingBalance = 0.00;
 		this.awardedBalance = 0.00;
-		this.requests = new ArrayList<>();
+		this.version = 0L;
 	}
 	
 
+	/**
+	 * Copy the other user. Notifications are not copied.
+	 */
+	public User(User other) {
+		this(other.username, other.firstName, other.lastName, other.type, other.departmentName,
+				other.supervisorUsername);
+		this.pendingBalance = other.pendingBalance;
+		this.awardedBalance = other.awardedBalance;
+		this.version = other.version;
+	}
+
 	public User(String username, String firstName, String lastName, UserType type,
 			String departmentName, String supervisorUsername) {
 		this();
@@ -109,14 +118,6 @@ public class User {
 		return pendingBalance + awardedBalance;
 	}
 
-	public List<UUID> getRequests() {
-		return requests;
-	}
-
-	public void setRequests(List<UUID> requests) {
-		this.requests = requests;
-	}
-
 	public List<Notification> getNotifications() {
 		return notifications;
 	}
@@ -125,19 +126,27 @@ public class User {
 		this.notifications = notifications;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "User [username=" + username + ", firstName=" + firstName
 				+ ", lastName=" + lastName + ", type=" + type + ", departmentName=" + departmentName
 				+ ", supervisorUsername=" + supervisorUsername + ", pendingBalance=" + pendingBalance
-				+ ", awardedBalance=" + awardedBalance + ", requests=" + requests + ", notifications=" + notifications
-				+ "]";
+				+ ", awardedBalance=" + awardedBalance + ", notifications=" + notifications
+				+ ", version=" + version + "]";
 	}
 
 	@Override
 	public int hashCode() {
 		return Objects.hash(awardedBalance, departmentName, firstName, lastName, notifications,
-				pendingBalance, requests, supervisorUsername, type, username);
+				pendingBalance, supervisorUsername, type, username);
 	}
 
 	@Override
@@ -153,17 +162,17 @@ public class User {
 				&& Objects.equals(departmentName, other.departmentName)
 				&& Objects.equals(firstName, other.firstName) && Objects.equals(lastName, other.lastName)
 				&& Objects.equals(notifications, other.notifications)
-				&& Objects.equals(pendingBalance, other.pendingBalance) && Objects.equals(requests, other.requests)
+				&& Objects.equals(pendingBalance, other.pendingBalance)
 				&& Objects.equals(supervisorUsername, other.supervisorUsername) && type == other.type
 				&& Objects.equals(username, other.username);
 	}
 
-	public void alterPendingBalance(Double cost) {
-		this.pendingBalance += cost;
-	}
-
-	public void alterAwardedBalance(Double cost) {
-		this.awardedBalance += cost;
+	/**
+	 * Set the balances from the user's ledger. They aren't stored with the user.
+	 */
+	public void applyBalance(Balance balance) {
+		this.pendingBalance = balance.getPending();
+		this.awardedBalance = balance.getAwarded();
 	}
 
 }
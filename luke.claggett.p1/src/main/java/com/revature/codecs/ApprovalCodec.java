@@ -0,0 +1,45 @@
+package com.revature.codecs;
+
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.revature.beans.Approval;
+import com.revature.beans.ApprovalStatus;
+
+/**
+ * Stores an Approval as the approval type: (status text, username text)
+ */
+public class ApprovalCodec extends EnumTextUdtCodec<Approval, ApprovalStatus> {
+
+	public static final String TYPE = "approval";
+
+	/**
+	 * @param cqlType The approval type, as the session read it from the schema
+	 */
+	public ApprovalCodec(UserDefinedType cqlType) {
+		super(Approval.class, cqlType, RequestCodecs.APPROVAL_STATUS);
+	}
+
+	/**
+	 * @param session  A connected session
+	 * @param keyspace The keyspace the type was created in
+	 * @return The approval type
+	 */
+	public static UserDefinedType typeIn(Session session, String keyspace) {
+		return RequestCodecs.userType(session, keyspace, TYPE);
+	}
+
+	@Override
+	protected ApprovalStatus getEnum(Approval value) {
+		return value.getStatus();
+	}
+
+	@Override
+	protected String getText(Approval value) {
+		return value.getUsername();
+	}
+
+	@Override
+	protected Approval newValue(ApprovalStatus status, String username) {
+		return new Approval(status, username);
+	}
+}
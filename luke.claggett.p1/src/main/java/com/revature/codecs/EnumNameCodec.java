@@ -0,0 +1,75 @@
+package com.revature.codecs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+
+/**
+ * Stores an enum as the text of its name. The encoded name of every constant
+ * is built once, so encoding copies no characters and decoding compares bytes
+ * instead of building a String to look up.
+ *
+ * @param <E> The enum stored in the column
+ */
+public class EnumNameCodec<E extends Enum<E>> implements TypeCodec<E> {
+	private final Class<E> type;
+	private final GenericType<E> javaType;
+	private final E[] values;
+	private final ByteBuffer[] names;
+
+	public EnumNameCodec(Class<E> type) {
+		this.type = type;
+		this.javaType = GenericType.of(type);
+		this.values = type.getEnumConstants();
+		this.names = new ByteBuffer[values.length];
+		for (int i = 0; i < values.length; i++) {
+			names[i] = ByteBuffer.wrap(values[i].name().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+		}
+	}
+
+	@Override
+	public GenericType<E> getJavaType() {
+		return javaType;
+	}
+
+	@Override
+	public DataType getCqlType() {
+		return DataTypes.TEXT;
+	}
+
+	@Override
+	public ByteBuffer encode(E value, ProtocolVersion protocolVersion) {
+		return (value == null) ? null : names[value.ordinal()].duplicate();
+	}
+
+	@Override
+	public E decode(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+		if (bytes == null || !bytes.hasRemaining()) {
+			return null;
+		}
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(bytes)) {
+				return values[i];
+			}
+		}
+		throw new IllegalArgumentException(
+				"No " + type.getSimpleName() + " named " + TypeCodecs.TEXT.decode(bytes, protocolVersion));
+	}
+
+	@Override
+	public String format(E value) {
+		return TypeCodecs.TEXT.format((value == null) ? null : value.name());
+	}
+
+	@Override
+	public E parse(String value) {
+		String name = TypeCodecs.TEXT.parse(value);
+		return (name == null) ? null : Enum.valueOf(type, name);
+	}
+}
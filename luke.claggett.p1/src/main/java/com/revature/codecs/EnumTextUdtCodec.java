@@ -0,0 +1,144 @@
+package com.revature.codecs;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.data.UdtValue;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+
+/**
+ * Stores a bean made of an enum and a piece of text as a user defined type
+ * with those two fields. The bean is written to and read from the UDT's wire
+ * format directly instead of going through a UdtValue.
+ *
+ * @param <T> The bean stored in the column
+ * @param <E> The enum in the bean's first field
+ */
+public abstract class EnumTextUdtCodec<T, E extends Enum<E>> implements TypeCodec<T> {
+	private final GenericType<T> javaType;
+	private final UserDefinedType cqlType;
+	private final EnumNameCodec<E> enumCodec;
+	// Only used to format and parse CQL literals, which the DAOs never do
+	private final TypeCodec<UdtValue> udtCodec;
+
+	protected EnumTextUdtCodec(Class<T> javaType, UserDefinedType cqlType, EnumNameCodec<E> enumCodec) {
+		this.javaType = GenericType.of(javaType);
+		this.cqlType = cqlType;
+		this.enumCodec = enumCodec;
+		this.udtCodec = TypeCodecs.udtOf(cqlType);
+	}
+
+	/**
+	 * @return The value of the bean's enum field
+	 */
+	protected abstract E getEnum(T value);
+
+	/**
+	 * @return The value of the bean's text field
+	 */
+	protected abstract String getText(T value);
+
+	/**
+	 * @return A new bean with the two fields
+	 */
+	protected abstract T newValue(E enumValue, String text);
+
+	@Override
+	public GenericType<T> getJavaType() {
+		return javaType;
+	}
+
+	@Override
+	public DataType getCqlType() {
+		return cqlType;
+	}
+
+	@Override
+	public boolean accepts(DataType cqlType) {
+		// Frozen or not, it is the same type
+		return cqlType instanceof UserDefinedType
+				&& this.cqlType.getKeyspace().equals(((UserDefinedType) cqlType).getKeyspace())
+				&& this.cqlType.getName().equals(((UserDefinedType) cqlType).getName());
+	}
+
+	@Override
+	public ByteBuffer encode(T value, ProtocolVersion protocolVersion) {
+		if (value == null) {
+			return null;
+		}
+		ByteBuffer enumBytes = enumCodec.encode(getEnum(value), protocolVersion);
+		ByteBuffer textBytes = TypeCodecs.TEXT.encode(getText(value), protocolVersion);
+
+		// Every field is its length followed by its bytes, or a length of -1 for null
+		ByteBuffer bytes = ByteBuffer.allocate(8 + size(enumBytes) + size(textBytes));
+		writeField(bytes, enumBytes);
+		writeField(bytes, textBytes);
+		bytes.flip();
+		return bytes;
+	}
+
+	@Override
+	public T decode(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+		if (bytes == null || !bytes.hasRemaining()) {
+			return null;
+		}
+		ByteBuffer input = bytes.duplicate();
+		ByteBuffer enumBytes = readField(input);
+		ByteBuffer textBytes = readField(input);
+		return newValue(enumCodec.decode(enumBytes, protocolVersion),
+				TypeCodecs.TEXT.decode(textBytes, protocolVersion));
+	}
+
+	@Override
+	public String format(T value) {
+		if (value == null) {
+			return udtCodec.format(null);
+		}
+		E enumValue = getEnum(value);
+		return udtCodec.format(cqlType.newValue((enumValue == null) ? null : enumValue.name(), getText(value)));
+	}
+
+	@Override
+	public T parse(String value) {
+		UdtValue udt = udtCodec.parse(value);
+		if (udt == null) {
+			return null;
+		}
+		String name = udt.getString(0);
+		return newValue((name == null) ? null : enumCodec.parse(TypeCodecs.TEXT.format(name)), udt.getString(1));
+	}
+
+	private int size(ByteBuffer field) {
+		return (field == null) ? 0 : field.remaining();
+	}
+
+	private void writeField(ByteBuffer bytes, ByteBuffer field) {
+		if (field == null) {
+			bytes.putInt(-1);
+		} else {
+			bytes.putInt(field.remaining());
+			bytes.put(field.duplicate());
+		}
+	}
+
+	/**
+	 * Read the next field, or null if it is null or the value ends before it
+	 */
+	private ByteBuffer readField(ByteBuffer input) {
+		if (input.remaining() < 4) {
+			return null;
+		}
+		int length = input.getInt();
+		if (length < 0) {
+			return null;
+		}
+		ByteBuffer field = input.slice();
+		field.limit(length);
+		input.position(input.position() + length);
+		return field;
+	}
+}
@@ -0,0 +1,45 @@
+package com.revature.codecs;
+
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.revature.beans.Format;
+import com.revature.beans.GradingFormat;
+
+/**
+ * Stores a GradingFormat as the grading_format type: (format text, passinggrade text)
+ */
+public class GradingFormatCodec extends EnumTextUdtCodec<GradingFormat, Format> {
+
+	public static final String TYPE = "grading_format";
+
+	/**
+	 * @param cqlType The grading_format type, as the session read it from the schema
+	 */
+	public GradingFormatCodec(UserDefinedType cqlType) {
+		super(GradingFormat.class, cqlType, RequestCodecs.FORMAT);
+	}
+
+	/**
+	 * @param session  A connected session
+	 * @param keyspace The keyspace the type was created in
+	 * @return The grading_format type
+	 */
+	public static UserDefinedType typeIn(Session session, String keyspace) {
+		return RequestCodecs.userType(session, keyspace, TYPE);
+	}
+
+	@Override
+	protected Format getEnum(GradingFormat value) {
+		return value.getFormat();
+	}
+
+	@Override
+	protected String getText(GradingFormat value) {
+		return value.getPassingGrade();
+	}
+
+	@Override
+	protected GradingFormat newValue(Format format, String passingGrade) {
+		return new GradingFormat(format, passingGrade);
+	}
+}
@@ -0,0 +1,61 @@
+package com.revature.codecs;
+
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.MutableCodecRegistry;
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.EventType;
+import com.revature.beans.Format;
+import com.revature.beans.ReimbursementStatus;
+
+/**
+ * The codecs the request table needs, registered with the session so
+ * requests can be bound and read as beans and enums rather than as strings.
+ */
+public class RequestCodecs {
+	public static final EnumNameCodec<ReimbursementStatus> REIMBURSEMENT_STATUS = new EnumNameCodec<>(
+			ReimbursementStatus.class);
+	public static final EnumNameCodec<ApprovalStatus> APPROVAL_STATUS = new EnumNameCodec<>(ApprovalStatus.class);
+	public static final EnumNameCodec<EventType> EVENT_TYPE = new EnumNameCodec<>(EventType.class);
+	public static final EnumNameCodec<Format> FORMAT = new EnumNameCodec<>(Format.class);
+
+	private RequestCodecs() {
+		super();
+	}
+
+	/**
+	 * Register every codec the request table needs with a connected session.
+	 * The approval and grading_format types are read from the session's
+	 * schema metadata, so this has to wait until the session is connected.
+	 * @param session  A connected session
+	 * @param keyspace The keyspace the approval and grading_format types were created in
+	 * @throws IllegalStateException If either type isn't in the keyspace
+	 */
+	public static void register(Session session, String keyspace) {
+		UserDefinedType approval = ApprovalCodec.typeIn(session, keyspace);
+		UserDefinedType gradingFormat = GradingFormatCodec.typeIn(session, keyspace);
+		((MutableCodecRegistry) session.getContext().getCodecRegistry()).register(forTypes(approval, gradingFormat));
+	}
+
+	/**
+	 * @param approval      The approval type
+	 * @param gradingFormat The grading_format type
+	 * @return Every codec the request table needs
+	 */
+	public static TypeCodec<?>[] forTypes(UserDefinedType approval, UserDefinedType gradingFormat) {
+		return new TypeCodec<?>[] { REIMBURSEMENT_STATUS, APPROVAL_STATUS, EVENT_TYPE, FORMAT,
+				new ApprovalCodec(approval), new GradingFormatCodec(gradingFormat) };
+	}
+
+	/**
+	 * Columns of the type are frozen, so the codec's type is too
+	 * @return The type as the session read it from the schema
+	 * @throws IllegalStateException If the type isn't in the keyspace
+	 */
+	static UserDefinedType userType(Session session, String keyspace, String name) {
+		return session.getMetadata().getKeyspace(keyspace).flatMap((ks) -> ks.getUserDefinedType(name))
+				.map((type) -> type.copy(true))
+				.orElseThrow(() -> new IllegalStateException("No type " + name + " in keyspace " + keyspace));
+	}
+}
@@ -24,6 +24,20 @@ public interface ReimbursementController {
 	 */
 	public void getReimbursement(Context ctx);
 	
+	/**
+	 * Get a page of the logged in user's requests, newest first
+	 * @param ctx The context<br>
+	 * The query can have a pageSize and the pagingState of the previous page
+	 */
+	public void getUserReimbursements(Context ctx);
+
+	/**
+	 * Get a page of the requests waiting on the logged in user's approval
+	 * @param ctx The context<br>
+	 * The query can have a pageSize and the pagingState of the previous page
+	 */
+	public void getPendingReimbursements(Context ctx);
+	
 	/**
 	 * Allow the user to cancel their request
 	 * @param ctx The context
@@ -33,21 +47,46 @@ public interface ReimbursementController {
 	/**
 	 * Allow the user to upload extra files to their request
 	 * @param ctx The context<br>
-	 * The body should be the file and should include a filetype header
+	 * The body should be the file and should include a filetype header. An optional sha256
+	 * header is checked against the file.
+	 * In pre-signed mode the body is empty and a URL to upload the file to is returned.
 	 */
 	public void uploadExtraFile(Context ctx);
+
+	/**
+	 * Record an extra file uploaded through a pre-signed URL
+	 * @param ctx The context<br>
+	 * The body should be the PresignedUrl returned by uploadExtraFile
+	 */
+	public void completeExtraFile(Context ctx);
 	
 	/**
 	 * Upload an approval message
-	 * @param ctx The context
+	 * @param ctx The context<br>
+	 * In pre-signed mode the body is empty and a URL to upload the file to is returned.
 	 */
 	public void uploadMessageFile(Context ctx);
+
+	/**
+	 * Record an approval message uploaded through a pre-signed URL
+	 * @param ctx The context<br>
+	 * The body should be the PresignedUrl returned by uploadMessageFile
+	 */
+	public void completeMessageFile(Context ctx);
 	
 	/**
 	 * Upload the final presentation
-	 * @param ctx The context
+	 * @param ctx The context<br>
+	 * In pre-signed mode the body is empty and a URL to upload the file to is returned.
 	 */
 	public void uploadPresentation(Context ctx);
+
+	/**
+	 * Record a final presentation uploaded through a pre-signed URL
+	 * @param ctx The context<br>
+	 * The body should be the PresignedUrl returned by uploadPresentation
+	 */
+	public void completePresentation(Context ctx);
 	
 	/**
 	 * Get the file
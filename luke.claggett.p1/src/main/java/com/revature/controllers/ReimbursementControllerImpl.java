@@ -1,7 +1,9 @@
 package com.revature.controllers;
 
-import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -10,6 +12,8 @@ import org.apache.logging.log4j.Logger;
 import com.revature.beans.Approval;
 import com.revature.beans.ApprovalStatus;
 import com.revature.beans.Format;
+import com.revature.beans.Page;
+import com.revature.beans.PresignedUrl;
 import com.revature.beans.ReimbursementRequest;
 import com.revature.beans.Reimbursement;
 import com.revature.beans.ReimbursementStatus;
@@ -18,8 +22,13 @@ import com.revature.beans.UserType;
 import com.revature.exceptions.IllegalApprovalAttemptException;
 import com.revature.factory.BeanFactory;
 import com.revature.factory.TraceLog;
+import com.revature.services.AttachmentService;
+import com.revature.services.AttachmentServiceImpl;
 import com.revature.services.ReimbursementService;
 import com.revature.services.ReimbursementServiceImpl;
+import com.revature.util.AttachmentCache;
+import com.revature.util.ByteRange;
+import com.revature.util.RequestLockManager;
 import com.revature.util.S3Util;
 
 import io.javalin.http.Context;
@@ -28,10 +37,26 @@ import io.javalin.http.Context;
 public class ReimbursementControllerImpl implements ReimbursementController {
 	ReimbursementService reqService = (ReimbursementService) BeanFactory.getFactory().getObject(ReimbursementService.class,
 			ReimbursementServiceImpl.class);
+	AttachmentService attService = (AttachmentService) BeanFactory.getFactory().getObject(AttachmentService.class,
+			AttachmentServiceImpl.class);
 	private static Logger log = LogManager.getLogger(ReimbursementControllerImpl.class);
 
 	private static final String[] FILETYPES = { "pdf", "jpg", "png", "txt", "doc" };
 	private static final S3Util s3Instance = S3Util.getInstance();
+	private static final AttachmentCache ATTACHMENTS = AttachmentCache.getInstance();
+
+	// When set, attachments go straight between the client and S3 through pre-signed URLs
+	private static final Boolean PRESIGNED = Boolean.getBoolean("attachments.presigned");
+
+	// Extra files and approval emails can only be added before the supervisor has acted
+	private static final Predicate<Reimbursement> ACCEPTING_FILES = (request) -> request.getStatus()
+			.equals(ReimbursementStatus.ACTIVE)
+			&& request.getSupervisorApproval().getStatus().equals(ApprovalStatus.AWAITING);
+	private static final Predicate<Reimbursement> ACCEPTING_PRESENTATION = (request) -> request.getStatus()
+			.equals(ReimbursementStatus.APPROVED)
+			&& request.getFinalApproval().getStatus().equals(ApprovalStatus.AWAITING)
+			&& request.getGradingFormat().getFormat().equals(Format.PRESENTATION);
+	private static final RequestLockManager LOCKS = RequestLockManager.getInstance();
 
 	@Override
 	public void createReimbursement(Context ctx) {
@@ -68,11 +93,21 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 
-		Reimbursement request = null;
-		synchronized (ReimbursementService.APPROVAL_LOCK) {
-			request = reqService.getRequest(UUID.fromString(ctx.pathParam("requestId")));
-			log.debug("Request from requestId: " + request);
+		UUID requestId = UUID.fromString(ctx.pathParam("requestId"));
+
+		// Hold the request's lock from the read to the write so a concurrent approval
+		// or the auto approval sweep can't work from a stale copy
+		Lock lock = LOCKS.lock(requestId);
+		try {
+			changeApprovalStatus(ctx, loggedUser, requestId);
+		} finally {
+			lock.unlock();
 		}
+	}
+
+	private void changeApprovalStatus(Context ctx, User loggedUser, UUID requestId) {
+		Reimbursement request = reqService.getRequest(requestId);
+		log.debug("Request from requestId: " + request);
 
 		Reimbursement approval = ctx.bodyAsClass(ReimbursementRequest.class);
 		log.debug("Request from body: " + approval);
@@ -162,6 +197,67 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 		ctx.json(request);
 	}
 
+	@Override
+	public void getUserReimbursements(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
+
+		if (!loggedUser.getUsername().equals(ctx.pathParam("username"))) {
+			ctx.status(403);
+			return;
+		}
+
+		Page<Reimbursement> page;
+		try {
+			page = reqService.getRequests(loggedUser.getUsername(), getPageSize(ctx), ctx.queryParam("pagingState"));
+		} catch (IllegalArgumentException e) {
+			ctx.status(400);
+			ctx.html("The page size or paging state is invalid.");
+			return;
+		}
+		log.debug("Page of the user's requests: " + page);
+		ctx.json(page);
+	}
+
+	@Override
+	public void getPendingReimbursements(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
+
+		if (!loggedUser.getUsername().equals(ctx.pathParam("username"))) {
+			ctx.status(403);
+			return;
+		}
+
+		Page<Reimbursement> page;
+		try {
+			page = reqService.getPendingRequests(loggedUser, getPageSize(ctx), ctx.queryParam("pagingState"));
+		} catch (IllegalArgumentException e) {
+			ctx.status(400);
+			ctx.html("The page size or paging state is invalid.");
+			return;
+		}
+		log.debug("Page of the requests awaiting approval: " + page);
+		ctx.json(page);
+	}
+
+	/**
+	 * @return The pageSize query parameter, or null if there is none
+	 * @throws NumberFormatException If the page size is not a number
+	 */
+	private Integer getPageSize(Context ctx) {
+		String size = ctx.queryParam("pageSize");
+		return (size == null) ? null : Integer.valueOf(size);
+	}
+
 	@Override
 	public void cancelReimbursement(Context ctx) {
 		User loggedUser = ctx.sessionAttribute("loggedUser");
@@ -204,35 +300,66 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 
-		UUID requestId = UUID.fromString(ctx.pathParam("requestId"));
-		Reimbursement request = reqService.getRequest(requestId);
-		log.debug("Request from the requestId" + request);
-
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_FILES);
 		if (request == null) {
-			ctx.status(404);
-			ctx.html("No request with that ID");
 			return;
 		}
 
-		if (!request.getStatus().equals(ReimbursementStatus.ACTIVE)
-				|| !request.getSupervisorApproval().getStatus().equals(ApprovalStatus.AWAITING)) {
-			ctx.status(403);
+		if (PRESIGNED) {
+			// Nothing is recorded until the client says the upload is done, so the key can't be the file's index
+			ctx.json(s3Instance.presignUpload(request.getId() + "/files/" + UUID.randomUUID() + "." + filetype));
 			return;
 		}
 
-		if (!loggedUser.getUsername().equals(request.getUsername())) {
-			ctx.status(403);
+		// Stored by its contents, so a file already attached to another request isn't uploaded again
+		String key;
+		try {
+			key = attService.storeFile(ctx.req.getInputStream(), ctx.req.getContentLengthLong(), filetype,
+					ctx.header("sha256"));
+		} catch (IllegalArgumentException e) {
+			ctx.status(400);
+			ctx.html("The file doesn't match the sha256 header");
+			return;
+		} catch (Exception e) {
+			ctx.status(500);
 			return;
 		}
 
-		String key = request.getId() + "/files/" + request.getFileURIs().size() + "." + filetype;
-		s3Instance.uploadToBucket(key, ctx.bodyAsBytes());
-
-		request.getFileURIs().add(key);
-		reqService.updateRequest(request);
+		// The same file may already be attached to this request
+		if (!request.getFileURIs().contains(key)) {
+			saveExtraFile(request, key);
+		}
+		// Only counted once the request is saved with the key. Counting it again has no effect.
+		attService.addReference(key, request.getId());
 		ctx.json(request);
 	}
 
+	@Override
+	public void completeExtraFile(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
+
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_FILES);
+		if (request == null) {
+			return;
+		}
+
+		String key = getUploadedKey(ctx, request, request.getId() + "/files/");
+		if (key == null) {
+			return;
+		}
+
+		if (request.getFileURIs().contains(key)) {
+			// Already recorded, the client is only retrying
+			ctx.json(request);
+			return;
+		}
+		recordExtraFile(ctx, request, key);
+	}
+
 	@Override
 	public void uploadMessageFile(Context ctx) {
 		User loggedUser = ctx.sessionAttribute("loggedUser");
@@ -249,35 +376,44 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 
-		UUID requestId = UUID.fromString(ctx.pathParam("requestId"));
-		Reimbursement request = reqService.getRequest(requestId);
-		log.debug("Request from the requestId" + request);
-
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_FILES);
 		if (request == null) {
-			ctx.status(404);
-			ctx.html("No request with that ID");
 			return;
 		}
 
-		if (!request.getStatus().equals(ReimbursementStatus.ACTIVE)
-				|| !request.getSupervisorApproval().getStatus().equals(ApprovalStatus.AWAITING)) {
-			ctx.status(403);
+		String key = request.getId() + "/messages/apprvoaEmail." + filetype;
+		if (PRESIGNED) {
+			ctx.json(s3Instance.presignUpload(key));
 			return;
 		}
 
-		if (!loggedUser.getUsername().equals(request.getUsername())) {
-			ctx.status(403);
+		try {
+			s3Instance.uploadToBucket(key, ctx.req.getInputStream(), ctx.req.getContentLengthLong());
+		} catch (Exception e) {
+			ctx.status(500);
 			return;
 		}
+		recordMessageFile(ctx, request, key);
+	}
 
-		String key = request.getId() + "/messages/apprvoaEmail." + filetype;
-		s3Instance.uploadToBucket(key, ctx.bodyAsBytes());
-		request.setApprovalMsgURI(key);
+	@Override
+	public void completeMessageFile(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
 
-		reqService.changeApprovalStatus(request, ApprovalStatus.BYPASSED, null);
-		
-		ctx.json(request);
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_FILES);
+		if (request == null) {
+			return;
+		}
 
+		String key = getUploadedKey(ctx, request, request.getId() + "/messages/");
+		if (key == null) {
+			return;
+		}
+		recordMessageFile(ctx, request, key);
 	}
 
 	@Override
@@ -296,34 +432,44 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 
-		UUID requestId = UUID.fromString(ctx.pathParam("requestId"));
-		Reimbursement request = reqService.getRequest(requestId);
-		log.debug("Request from the requestId" + request);
-
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_PRESENTATION);
 		if (request == null) {
-			ctx.status(404);
-			ctx.html("No request with that ID");
 			return;
 		}
 
-		if (!request.getStatus().equals(ReimbursementStatus.APPROVED)
-				|| !request.getFinalApproval().getStatus().equals(ApprovalStatus.AWAITING)
-				|| !request.getGradingFormat().getFormat().equals(Format.PRESENTATION)) {
-			ctx.status(403);
+		String key = request.getId() + "/presentations/presentation." + filetype;
+		if (PRESIGNED) {
+			ctx.json(s3Instance.presignUpload(key));
 			return;
 		}
 
-		if (!loggedUser.getUsername().equals(request.getUsername())) {
-			ctx.status(403);
+		try {
+			s3Instance.uploadToBucket(key, ctx.req.getInputStream(), ctx.req.getContentLengthLong());
+		} catch (Exception e) {
+			ctx.status(500);
 			return;
 		}
+		recordPresentation(ctx, request, key);
+	}
 
-		String key = request.getId() + "/presentations/presentation." + filetype;
-		s3Instance.uploadToBucket(key, ctx.bodyAsBytes());
-		request.setPresFileName(key);
-		reqService.addFinalGrade(request, "true");;
-		ctx.json(request);
+	@Override
+	public void completePresentation(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
 
+		Reimbursement request = getUploadTarget(ctx, loggedUser, ACCEPTING_PRESENTATION);
+		if (request == null) {
+			return;
+		}
+
+		String key = getUploadedKey(ctx, request, request.getId() + "/presentations/");
+		if (key == null) {
+			return;
+		}
+		recordPresentation(ctx, request, key);
 	}
 
 	public void getFile(Context ctx) {
@@ -349,13 +495,7 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 		String key = request.getFileURIs().get(index);
-
-		try {
-			InputStream file = s3Instance.getObject(key);
-			ctx.result(file);
-		} catch (Exception e) {
-			ctx.status(500);
-		}
+		sendAttachment(ctx, key);
 	}
 
 	public void getMessage(Context ctx) {
@@ -378,13 +518,7 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 		String key = request.getApprovalMsgURI();
-
-		try {
-			InputStream file = s3Instance.getObject(key);
-			ctx.result(file);
-		} catch (Exception e) {
-			ctx.status(500);
-		}
+		sendAttachment(ctx, key);
 	}
 
 	public void getPresentation(Context ctx) {
@@ -409,13 +543,7 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 			return;
 		}
 		String key = request.getPresFileName();
-
-		try {
-			InputStream file = s3Instance.getObject(key);
-			ctx.result(file);
-		} catch (Exception e) {
-			ctx.status(500);
-		}
+		sendAttachment(ctx, key);
 	}
 
 	@Override
@@ -534,4 +662,138 @@ public class ReimbursementControllerImpl implements ReimbursementController {
 		reqService.addFinalGrade(request, grade.getFinalGrade());
 		ctx.status(204);
 	}
+
+	/**
+	 * Get the request in the path if the logged in user can add files to it.
+	 * Sets the status and returns null otherwise.
+	 * @param ctx        The context
+	 * @param loggedUser The logged in user
+	 * @param accepting  Whether the request is at a stage that takes the file
+	 */
+	private Reimbursement getUploadTarget(Context ctx, User loggedUser, Predicate<Reimbursement> accepting) {
+		UUID requestId = UUID.fromString(ctx.pathParam("requestId"));
+		Reimbursement request = reqService.getRequest(requestId);
+		log.debug("Request from the requestId" + request);
+
+		if (request == null) {
+			ctx.status(404);
+			ctx.html("No request with that ID");
+			return null;
+		}
+
+		if (!accepting.test(request)) {
+			ctx.status(403);
+			return null;
+		}
+
+		if (!loggedUser.getUsername().equals(request.getUsername())) {
+			ctx.status(403);
+			return null;
+		}
+		return request;
+	}
+
+	/**
+	 * Get the key from the body of an upload completion, checking that it
+	 * belongs to the request and that the client really did upload it.
+	 * Sets the status and returns null otherwise.
+	 * @param ctx    The context. The body should be the PresignedUrl the upload was given.
+	 * @param prefix Where this kind of file is kept for the request
+	 */
+	private String getUploadedKey(Context ctx, Reimbursement request, String prefix) {
+		PresignedUrl upload = ctx.bodyAsClass(PresignedUrl.class);
+		log.debug("Completed upload from the body: " + upload);
+		String key = upload.getKey();
+
+		if (key == null || !key.startsWith(prefix) || key.contains("..")) {
+			ctx.status(400);
+			ctx.html("That file doesn't belong to this request");
+			return null;
+		}
+
+		if (!s3Instance.exists(key)) {
+			ctx.status(409);
+			ctx.html("The file hasn't been uploaded");
+			return null;
+		}
+		return key;
+	}
+
+	private void recordExtraFile(Context ctx, Reimbursement request, String key) {
+		saveExtraFile(request, key);
+		ctx.json(request);
+	}
+
+	private void saveExtraFile(Reimbursement request, String key) {
+		ATTACHMENTS.invalidate(key);
+		request.getFileURIs().add(key);
+		reqService.updateRequest(request);
+	}
+
+	private void recordMessageFile(Context ctx, Reimbursement request, String key) {
+		ATTACHMENTS.invalidate(key);
+		request.setApprovalMsgURI(key);
+		reqService.changeApprovalStatus(request, ApprovalStatus.BYPASSED, null);
+		ctx.json(request);
+	}
+
+	private void recordPresentation(Context ctx, Reimbursement request, String key) {
+		ATTACHMENTS.invalidate(key);
+		request.setPresFileName(key);
+		reqService.addFinalGrade(request, "true");
+		ctx.json(request);
+	}
+
+	/**
+	 * Send a file from the attachment cache, honouring If-None-Match and a
+	 * single byte range. In pre-signed mode the client is sent to S3 instead.
+	 * @param ctx The context
+	 * @param key The key the file is stored under in S3
+	 */
+	private void sendAttachment(Context ctx, String key) {
+		if (PRESIGNED) {
+			// The client fetches the file from S3 itself
+			ctx.redirect(s3Instance.presignDownload(key).getUrl(), 302);
+			return;
+		}
+
+		try (AttachmentCache.Attachment file = ATTACHMENTS.open(key)) {
+			if (file.getETag() != null) {
+				ctx.header("ETag", file.getETag());
+			}
+			ctx.header("Accept-Ranges", "bytes");
+
+			if (file.matches(ctx.header("If-None-Match"))) {
+				ctx.status(304);
+				return;
+			}
+
+			ByteRange range;
+			try {
+				range = ByteRange.parse(ctx.header("Range"), file.getLength());
+			} catch (IllegalArgumentException e) {
+				ctx.status(416);
+				ctx.header("Content-Range", "bytes */" + file.getLength());
+				return;
+			}
+			// A range of a different version of the file is no use to the client
+			String ifRange = ctx.header("If-Range");
+			if (range != null && ifRange != null && !ifRange.equals(file.getETag())) {
+				range = null;
+			}
+
+			if (range == null) {
+				range = ByteRange.all(file.getLength());
+			} else {
+				ctx.status(206);
+				ctx.header("Content-Range", range.toContentRange(file.getLength()));
+			}
+			log.debug("Sending " + range + " of " + key);
+			ctx.res.setContentLengthLong(range.getLength());
+			file.transferTo(range, Channels.newChannel(ctx.res.getOutputStream()));
+		} catch (Exception e) {
+			log.error("Sending the attachment " + key + " failed: " + e);
+			ctx.status(500);
+		}
+	}
 }
@@ -1,6 +1,7 @@
 package com.revature.controllers;
 
 import io.javalin.http.Context;
+import io.javalin.http.sse.SseClient;
 
 public interface UserController {
 	
@@ -26,6 +27,27 @@ public interface UserController {
 	 */
 	public void createUser(Context ctx);
 	
+	/**
+	 * Gets a page of the logged in user's notifications, newest first
+	 * @param ctx The context. May have pageSize and pagingState query parameters.
+	 */
+	public void getNotifications(Context ctx);
+
+	/**
+	 * Makes sure the logged in user is the one whose notifications are being
+	 * streamed. Runs before the stream is opened, since the stream has already
+	 * answered 200 by the time it is handed to streamNotifications.
+	 * @param ctx The context
+	 */
+	public void authorizeNotificationStream(Context ctx);
+
+	/**
+	 * Sends the logged in user's new notifications as server-sent events until
+	 * the client disconnects
+	 * @param client The event stream
+	 */
+	public void streamNotifications(SseClient client);
+
 	/**
 	 * Deletes the logged in user's notifications
 	 * @param ctx The context
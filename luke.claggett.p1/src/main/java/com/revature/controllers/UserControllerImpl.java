@@ -1,15 +1,24 @@
 package com.revature.controllers;
 
+import java.time.DateTimeException;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.beans.User;
 import com.revature.factory.BeanFactory;
 import com.revature.factory.TraceLog;
 import com.revature.services.UserService;
 import com.revature.services.UserServiceImpl;
+import com.revature.util.NotificationHub;
 
 import io.javalin.http.Context;
+import io.javalin.http.ForbiddenResponse;
+import io.javalin.http.UnauthorizedResponse;
+import io.javalin.http.sse.SseClient;
+import io.javalin.plugin.json.JavalinJson;
 
 @TraceLog
 public class UserControllerImpl implements UserController {
@@ -17,6 +26,8 @@ public class UserControllerImpl implements UserController {
 	UserService userService = (UserService) BeanFactory.getFactory().getObject(UserService.class,
 			UserServiceImpl.class);
 
+	NotificationHub hub = NotificationHub.getInstance();
+
 	// Log
 	private static Logger log = LogManager.getLogger(UserControllerImpl.class);
 
@@ -69,6 +80,70 @@ public class UserControllerImpl implements UserController {
 		}
 	}
 	
+	@Override
+	public void getNotifications(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+
+		if (loggedUser == null) {
+			ctx.status(401);
+			return;
+		}
+
+		if (!loggedUser.getUsername().equals(ctx.pathParam("username"))) {
+			ctx.status(403);
+			return;
+		}
+
+		Page<Notification> page;
+		try {
+			String size = ctx.queryParam("pageSize");
+			page = userService.getNotifications(loggedUser.getUsername(), (size == null) ? null : Integer.valueOf(size),
+					ctx.queryParam("pagingState"));
+		} catch (IllegalArgumentException | DateTimeException e) {
+			ctx.status(400);
+			ctx.html("The page size or paging state is invalid.");
+			return;
+		}
+		log.debug("Page of the user's notifications: " + page);
+		ctx.json(page);
+	}
+
+	@Override
+	public void authorizeNotificationStream(Context ctx) {
+		User loggedUser = ctx.sessionAttribute("loggedUser");
+
+		// Thrown rather than set, since a before handler can't otherwise stop the stream from opening
+		if (loggedUser == null) {
+			throw new UnauthorizedResponse();
+		}
+
+		if (!loggedUser.getUsername().equals(ctx.pathParam("username"))) {
+			throw new ForbiddenResponse();
+		}
+	}
+
+	@Override
+	public void streamNotifications(SseClient client) {
+		User loggedUser = client.ctx.sessionAttribute("loggedUser");
+		String username = loggedUser.getUsername();
+
+		NotificationHub.Subscriber subscriber = new NotificationHub.Subscriber() {
+			@Override
+			public void send(Notification notification) {
+				client.sendEvent("notification", JavalinJson.toJson(notification));
+			}
+
+			@Override
+			public void heartbeat() {
+				client.sendEvent("heartbeat", "");
+			}
+		};
+		// The client only finds out it is closed when a send fails
+		client.onClose(() -> hub.unsubscribe(username, subscriber));
+		hub.subscribe(username, subscriber);
+		log.debug("Streaming notifications to " + username);
+	}
+
 	@Override
 	public void deleteNotifications(Context ctx) {
 		User loggedUser = ctx.sessionAttribute("loggedUser");
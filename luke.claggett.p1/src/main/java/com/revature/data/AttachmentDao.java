@@ -0,0 +1,20 @@
+package com.revature.data;
+
+import java.util.UUID;
+
+public interface AttachmentDao {
+	/**
+	 * Used to find out whether a file is stored and how widely it is shared
+	 * @param key The key the file is stored under
+	 * @return How many requests the file is attached to
+	 */
+	public Long getReferences(String key);
+
+	/**
+	 * Record that a request has the file attached. Recording the same request
+	 * again has no effect, so a retried upload isn't counted twice.
+	 * @param key The key the file is stored under
+	 * @param requestId The Id of the request
+	 */
+	public void addReference(String key, UUID requestId);
+}
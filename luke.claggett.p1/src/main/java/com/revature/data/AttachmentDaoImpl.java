@@ -0,0 +1,36 @@
+package com.revature.data;
+
+import java.util.UUID;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
+import com.revature.factory.TraceLog;
+import com.revature.util.CassandraUtil;
+import com.revature.util.StatementRegistry;
+
+@TraceLog
+public class AttachmentDaoImpl implements AttachmentDao {
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+
+	// One partition per stored file, so counting its references is a single partition read
+	private static final SimpleStatement GET_REFERENCES = new SimpleStatementBuilder(
+			"SELECT count(*) FROM attachment_reference WHERE key = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement ADD_REFERENCE = new SimpleStatementBuilder(
+			"INSERT INTO attachment_reference(key, requestid) VALUES (?,?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).setIdempotence(true).build();
+
+	@Override
+	public Long getReferences(String key) {
+		Row row = statements.execute(GET_REFERENCES, key).one();
+		return (row == null) ? 0L : row.getLong(0);
+	}
+
+	@Override
+	public void addReference(String key, UUID requestId) {
+		statements.execute(ADD_REFERENCE, key, requestId);
+	}
+}
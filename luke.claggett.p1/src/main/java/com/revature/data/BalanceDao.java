@@ -0,0 +1,43 @@
+package com.revature.data;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import com.revature.beans.Balance;
+
+public interface BalanceDao {
+	/**
+	 * Used to get a user's current balances
+	 * @param username The username of the user
+	 * @return The sum of every entry in the user's ledger
+	 */
+	public Balance getBalance(String username);
+
+	/**
+	 * Record a change to a user's balances. Entries are only ever added, so
+	 * concurrent changes to the same user can't overwrite each other.
+	 * @param username The username of the user
+	 * @param requestId The Id of the request the change is for
+	 * @param pendingCents The change to the pending balance, in cents
+	 * @param awardedCents The change to the awarded balance, in cents
+	 */
+	public void addEntry(String username, UUID requestId, Long pendingCents, Long awardedCents);
+
+	/**
+	 * Record a change to a user's balances when the unit of work commits
+	 * @param username The username of the user
+	 * @param requestId The Id of the request the change is for
+	 * @param pendingCents The change to the pending balance, in cents
+	 * @param awardedCents The change to the awarded balance, in cents
+	 * @param work The unit of work to add the write to
+	 */
+	public void addEntry(String username, UUID requestId, Long pendingCents, Long awardedCents, UnitOfWork work);
+
+	/**
+	 * Used to get a user's current balances without blocking
+	 * @param username The username of the user
+	 * @return A stage that completes with the sum of the user's ledger
+	 */
+	public CompletionStage<Balance> getBalanceAsync(String username);
+
+}
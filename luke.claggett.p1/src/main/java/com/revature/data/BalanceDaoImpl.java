@@ -0,0 +1,58 @@
+package com.revature.data;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.revature.beans.Balance;
+import com.revature.factory.TraceLog;
+import com.revature.util.CassandraUtil;
+import com.revature.util.StatementRegistry;
+
+@TraceLog
+public class BalanceDaoImpl implements BalanceDao {
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+
+	// One partition per user, so the balance is a single aggregate read
+	private static final SimpleStatement GET_BALANCE = new SimpleStatementBuilder(
+			"SELECT sum(pendingcents), sum(awardedcents) FROM balance_ledger WHERE username = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	// The entry id is chosen before the insert, so the driver can safely retry it
+	private static final SimpleStatement ADD_ENTRY = new SimpleStatementBuilder(
+			"INSERT INTO balance_ledger(username, id, requestid, pendingcents, awardedcents) VALUES (?,?,?,?,?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).setIdempotence(true).build();
+
+	@Override
+	public Balance getBalance(String username) {
+		return mapRow(statements.execute(GET_BALANCE, username).one());
+	}
+
+	@Override
+	public void addEntry(String username, UUID requestId, Long pendingCents, Long awardedCents) {
+		statements.execute(ADD_ENTRY, username, Uuids.timeBased(), requestId, pendingCents, awardedCents);
+	}
+
+	@Override
+	public void addEntry(String username, UUID requestId, Long pendingCents, Long awardedCents, UnitOfWork work) {
+		work.add(ADD_ENTRY, "balance_ledger:" + username, username, Uuids.timeBased(), requestId, pendingCents,
+				awardedCents);
+	}
+
+	@Override
+	public CompletionStage<Balance> getBalanceAsync(String username) {
+		return statements.executeAsync(GET_BALANCE, username).thenApply((rs) -> mapRow(rs.one()));
+	}
+
+	private Balance mapRow(Row row) {
+		// An aggregate always returns a row, with sums of zero for a user with no entries
+		if (row == null) {
+			return new Balance();
+		}
+		return new Balance(row.getLong(0), row.getLong(1));
+	}
+}
@@ -0,0 +1,72 @@
+package com.revature.data;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.revature.beans.Department;
+import com.revature.factory.TraceLog;
+import com.revature.util.ExpiringCache;
+
+/**
+ * Keeps departments in memory in front of another DepartmentDao since they
+ * almost never change. Entries expire after departments.cacheTtlMillis
+ * (5 minutes by default) and are dropped whenever the department is created
+ * again through this DAO.
+ */
+@TraceLog
+public class CachingDepartmentDao implements DepartmentDao {
+	private static final Logger log = LogManager.getLogger(CachingDepartmentDao.class);
+
+	// Shared by every instance the BeanFactory hands out
+	private static final ExpiringCache<String, Department> CACHE = new ExpiringCache<>(
+			Long.getLong("departments.cacheTtlMillis", 300000L));
+
+	private final DepartmentDao dao;
+	private final ExpiringCache<String, Department> cache;
+
+	public CachingDepartmentDao() {
+		this(new DepartmentDaoImpl(), CACHE);
+	}
+
+	public CachingDepartmentDao(DepartmentDao dao, ExpiringCache<String, Department> cache) {
+		this.dao = dao;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return The cache shared by the DAOs from the BeanFactory, for its hit and miss counts
+	 */
+	public static ExpiringCache<String, Department> getCache() {
+		return CACHE;
+	}
+
+	@Override
+	public Department getDepartment(String deptName) {
+		if (deptName == null) {
+			return null;
+		}
+
+		Department dept = cache.get(deptName);
+		if (dept == null) {
+			dept = dao.getDepartment(deptName);
+			if (dept != null) {
+				cache.put(deptName, dept);
+			}
+		}
+		return copy(dept);
+	}
+
+	@Override
+	public void createDepartment(Department dept) {
+		dao.createDepartment(dept);
+		cache.invalidate(dept.getName());
+		log.debug("Department cache invalidated: " + dept.getName());
+	}
+
+	/**
+	 * Callers get their own copy so changing it can't change the cache
+	 */
+	private Department copy(Department dept) {
+		return (dept == null) ? null : new Department(dept.getName(), dept.getDeptHeadUsername());
+	}
+}
@@ -0,0 +1,116 @@
+package com.revature.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.revature.beans.User;
+import com.revature.exceptions.ConcurrentUpdateException;
+import com.revature.factory.TraceLog;
+import com.revature.util.ExpiringCache;
+
+/**
+ * Keeps recently used users in memory in front of another UserDao so one
+ * operation doesn't read the same user several times. Holds at most
+ * users.cacheMaxEntries users (1000 by default) for users.cacheTtlMillis
+ * (1 minute by default). Creates and updates write through to the cache, and a
+ * conflicting update drops the user so the retry reads it from the database.
+ */
+@TraceLog
+public class CachingUserDao implements UserDao {
+	private static final Logger log = LogManager.getLogger(CachingUserDao.class);
+
+	// Shared by every instance the BeanFactory hands out
+	private static final ExpiringCache<String, User> CACHE = new ExpiringCache<>(
+			Long.getLong("users.cacheTtlMillis", 60000L), Integer.getInteger("users.cacheMaxEntries", 1000));
+
+	private final UserDao dao;
+	private final ExpiringCache<String, User> cache;
+
+	public CachingUserDao() {
+		this(new UserDaoImpl(), CACHE);
+	}
+
+	public CachingUserDao(UserDao dao, ExpiringCache<String, User> cache) {
+		this.dao = dao;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return The cache shared by the DAOs from the BeanFactory, for its hit rate and evictions
+	 */
+	public static ExpiringCache<String, User> getCache() {
+		return CACHE;
+	}
+
+	@Override
+	public User getUser(String username) {
+		if (username == null) {
+			return null;
+		}
+
+		User user = cache.get(username);
+		if (user == null) {
+			user = dao.getUser(username);
+			remember(user);
+		}
+		return copy(user);
+	}
+
+	@Override
+	public User getUser(String username, String password) {
+		// The password has to be checked by the database every time
+		User user = dao.getUser(username, password);
+		remember(user);
+		return copy(user);
+	}
+
+	@Override
+	public void updateUser(User user) {
+		try {
+			dao.updateUser(user);
+		} catch (ConcurrentUpdateException e) {
+			cache.invalidate(user.getUsername());
+			log.debug("User cache invalidated after a conflict: " + user.getUsername());
+			throw e;
+		}
+		remember(user);
+	}
+
+	@Override
+	public void createUser(User user) {
+		dao.createUser(user);
+		remember(user);
+	}
+
+	@Override
+	public CompletionStage<User> getUserAsync(String username) {
+		if (username == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		User user = cache.get(username);
+		if (user != null) {
+			return CompletableFuture.completedFuture(copy(user));
+		}
+		return dao.getUserAsync(username).thenApply((loaded) -> {
+			remember(loaded);
+			return copy(loaded);
+		});
+	}
+
+	private void remember(User user) {
+		if (user != null) {
+			cache.put(user.getUsername(), copy(user));
+		}
+	}
+
+	/**
+	 * Callers get their own copy so changing it can't change the cache
+	 */
+	private User copy(User user) {
+		return (user == null) ? null : new User(user);
+	}
+}
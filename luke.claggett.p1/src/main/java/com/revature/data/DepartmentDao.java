@@ -16,4 +16,5 @@ public interface DepartmentDao {
 	 * @param dept The department being added to the database
 	 */
 	void createDepartment(Department dept);
+
 }
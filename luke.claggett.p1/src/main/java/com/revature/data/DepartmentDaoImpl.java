@@ -1,8 +1,6 @@
 package com.revature.data;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
-import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
@@ -10,48 +8,47 @@ import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
 import com.revature.beans.Department;
 import com.revature.factory.TraceLog;
 import com.revature.util.CassandraUtil;
+import com.revature.util.StatementRegistry;
 import com.revature.util.Verifier;
 
 @TraceLog
 public class DepartmentDaoImpl implements DepartmentDao {
-	private CqlSession session = CassandraUtil.getInstance().getSession();
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
 	private static final Verifier VERIFIER = new Verifier();
-	
+
+	private static final SimpleStatement GET_DEPARTMENT = new SimpleStatementBuilder(
+			"SELECT name, deptheadusername FROM department WHERE name = ?;").build();
+
+	private static final SimpleStatement CREATE_DEPARTMENT = new SimpleStatementBuilder(
+			"INSERT INTO department (name, deptheadusername) values (?, ?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM)
+					.build();
 
 	@Override
 	public Department getDepartment(String deptName) {
-		
+
 		if (!VERIFIER.verifyNotNull(deptName)) {
 			return null;
 		}
-		String query = "SELECT name, deptheadusername FROM department WHERE name = ?;";
-		
-		SimpleStatement s = new SimpleStatementBuilder(query).build();
-		BoundStatement bound = session.prepare(s).bind(deptName);
-		
-		ResultSet rs = session.execute(bound);
-		Row row = rs.one();
-		
+
+		ResultSet rs = statements.execute(GET_DEPARTMENT, deptName);
+		return mapRow(rs.one());
+	}
+
+	@Override
+	public void createDepartment(Department dept) {
+		statements.execute(CREATE_DEPARTMENT, dept.getName(), dept.getDeptHeadUsername());
+	}
+
+	private Department mapRow(Row row) {
 		if (row == null) {
 			return null;
 		}
-		
+
 		Department dept = new Department();
 		dept.setName(row.getString("name"));
 		dept.setDeptHeadUsername(row.getString("deptheadusername"));
 		return dept;
 	}
-	
-	@Override
-	public void createDepartment(Department dept) {
-		
-		String query = "INSERT INTO department (name, deptheadusername) values (?, ?);";
-		SimpleStatement s = new SimpleStatementBuilder(query)
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM)
-				.build();
-		BoundStatement bound = session.prepare(s).bind(dept.getName(), dept.getDeptHeadUsername());
-		
-		session.execute(bound);
-	}
 
 }
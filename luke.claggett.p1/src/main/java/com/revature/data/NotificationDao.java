@@ -2,16 +2,30 @@ package com.revature.data;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 import com.revature.beans.Notification;
+import com.revature.beans.Page;
 
 public interface NotificationDao {
 	/**
-	 * Used to get a user's notifications
+	 * Used to get a user's newest notifications
 	 * @param username The username of the user
-	 * @return A list of notifications that have the user's username
+	 * @param limit The most notifications to return
+	 * @return The user's notifications, newest first
 	 */
-	public List<Notification> getUserNotificationList(String username);
+	public List<Notification> getUserNotificationList(String username, Integer limit);
+
+	/**
+	 * Used to get a page of a user's notifications, newest first. Notifications
+	 * are kept in one partition per month and expire after a while, so a page
+	 * reads at most the months that can still have notifications.
+	 * @param username The username of the user
+	 * @param pageSize The most notifications to return
+	 * @param pagingState The token of the page to get, or null for the first page
+	 * @return A page of the user's notifications
+	 */
+	public Page<Notification> getUserNotifications(String username, Integer pageSize, String pagingState);
 	
 	/**
 	 * Delete a user's notifications from the database
@@ -24,6 +38,13 @@ public interface NotificationDao {
 	 * @param notification A new notification to add
 	 */
 	public void createNotification(Notification notification);
+
+	/**
+	 * Create a new notification when the unit of work commits
+	 * @param notification A new notification to add
+	 * @param work The unit of work to add the write to
+	 */
+	public void createNotification(Notification notification, UnitOfWork work);
 	
 	/**
 	 * Delete all notifications related to a specific user and request
@@ -31,4 +52,21 @@ public interface NotificationDao {
 	 * @param requestId The Id of the request
 	 */
 	public void deleteNotification(String username, UUID requestId);
+
+	/**
+	 * Delete the notifications of a user and request when the unit of work commits
+	 * @param username The username of the user
+	 * @param requestId The Id of the request
+	 * @param work The unit of work to add the write to
+	 */
+	public void deleteNotification(String username, UUID requestId, UnitOfWork work);
+
+	/**
+	 * Used to get a user's newest notifications without blocking
+	 * @param username The username of the user
+	 * @param limit The most notifications to return
+	 * @return A stage that completes with the user's notifications, newest first
+	 */
+	public CompletionStage<List<Notification>> getUserNotificationListAsync(String username, Integer limit);
+
 }
\ No newline at end of file
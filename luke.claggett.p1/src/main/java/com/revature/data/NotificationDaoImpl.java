@@ -1,70 +1,221 @@
 package com.revature.data;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
-import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
 import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.factory.TraceLog;
 import com.revature.util.CassandraUtil;
+import com.revature.util.NotificationHub;
+import com.revature.util.PagingToken;
+import com.revature.util.StatementRegistry;
 
 @TraceLog
 public class NotificationDaoImpl implements NotificationDao {
-	private CqlSession session = CassandraUtil.getInstance().getSession();
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+	private NotificationHub hub = NotificationHub.getInstance();
 
-	public List<Notification> getUserNotificationList(String username) {
+	// Notifications expire after this many days, so only that many months of buckets are ever read
+	private static final Integer TTL_DAYS = Integer.getInteger("notifications.ttlDays", 90);
+	private static final Integer TTL_SECONDS = TTL_DAYS * 24 * 60 * 60;
+
+	// Each user's notifications are split into one partition per month, newest first
+	private static final SimpleStatement GET_NOTIFICATIONS = new SimpleStatementBuilder(
+			"SELECT username, requestid, notificationtime, message FROM notification WHERE username = ? AND bucket = ?;")
+					.build();
+
+	private static final SimpleStatement GET_RECENT_NOTIFICATIONS = new SimpleStatementBuilder(
+			"SELECT username, requestid, notificationtime, message FROM notification WHERE username = ? AND bucket = ? LIMIT ?;")
+					.build();
+
+	private static final SimpleStatement CREATE_NOTIFICATION = new SimpleStatementBuilder(
+			"INSERT INTO notification(username, bucket, notificationtime, requestid, message) VALUES (?,?,?,?,?) USING TTL ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_BUCKET = new SimpleStatementBuilder(
+			"DELETE FROM notification WHERE username = ? AND bucket = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_NOTIFICATION = new SimpleStatementBuilder(
+			"DELETE FROM notification WHERE username = ? AND bucket = ? AND notificationtime = ? AND requestid = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	// Where each request's notifications are, so they can be deleted without reading every bucket
+	private static final SimpleStatement GET_REQUEST_NOTIFICATIONS = new SimpleStatementBuilder(
+			"SELECT bucket, notificationtime FROM notification_by_request WHERE username = ? AND requestid = ?;")
+					.build();
+
+	private static final SimpleStatement CREATE_REQUEST_NOTIFICATION = new SimpleStatementBuilder(
+			"INSERT INTO notification_by_request(username, requestid, bucket, notificationtime) VALUES (?,?,?,?) USING TTL ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_REQUEST_NOTIFICATIONS = new SimpleStatementBuilder(
+			"DELETE FROM notification_by_request WHERE username = ? AND requestid = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	public List<Notification> getUserNotificationList(String username, Integer limit) {
+		return getUserNotifications(username, limit, null).getItems();
+	}
+
+	public Page<Notification> getUserNotifications(String username, Integer pageSize, String pagingState) {
 		List<Notification> notifications = new ArrayList<>();
-		StringBuilder query = new StringBuilder("SELECT username, requestid, notificationtime, message ")
-				.append("FROM notification WHERE username = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		BoundStatement bound = session.prepare(s).bind(username);
-		ResultSet rs = session.execute(bound);
-
-		rs.forEach((row) -> {
-			Notification notification = new Notification();
-			notification.setUsername(row.getString("username"));
-			notification.setRequestId(row.getUuid("requestid"));
-			notification
-					.setNotificationTime(LocalDateTime.ofInstant(row.getInstant("notificationtime"), ZoneOffset.UTC));
-			notification.setMessage(row.getString("message"));
-			notifications.add(notification);
-		});
-		return notifications;
+
+		YearMonth bucket = bucketOf(LocalDateTime.now());
+		ByteBuffer resume = null;
+		if (pagingState != null) {
+			String[] cursor = PagingToken.decode(pagingState, 2);
+			bucket = PagingToken.parse(cursor[0], YearMonth::parse);
+			resume = PagingToken.decodeState(cursor[1]);
+		}
+
+		YearMonth oldest = oldestBucket();
+		for (; !bucket.isBefore(oldest); bucket = bucket.minusMonths(1)) {
+			ResultSet rs = statements.executePage(GET_NOTIFICATIONS, pageSize - notifications.size(), resume, username,
+					bucketKey(bucket));
+			resume = null;
+
+			int rows = rs.getAvailableWithoutFetching();
+			for (int i = 0; i < rows; i++) {
+				notifications.add(mapRow(rs.one()));
+			}
+
+			ByteBuffer next = rs.getExecutionInfo().getPagingState();
+			if (next != null) {
+				return new Page<Notification>(notifications, pagingState(bucket, next));
+			}
+			if (notifications.size() >= pageSize) {
+				// This month is done, the next page starts with the month before it
+				YearMonth previous = bucket.minusMonths(1);
+				return new Page<Notification>(notifications,
+						previous.isBefore(oldest) ? null : pagingState(previous, null));
+			}
+		}
+		return new Page<Notification>(notifications, null);
 	}
 
 	public void createNotification(Notification notification) {
-		StringBuilder query = new StringBuilder(
-				"INSERT INTO notification(username, requestid, notificationtime, message) ")
-						.append("VALUES (?,?,?,?);");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		BoundStatement bound = session.prepare(s).bind(notification.getUsername(), notification.getRequestId(),
-				notification.getNotificationTime().toInstant(ZoneOffset.UTC), notification.getMessage());
-		session.execute(bound);
+		UnitOfWork work = new UnitOfWork();
+		createNotification(notification, work);
+		work.commit();
+	}
+
+	public void createNotification(Notification notification, UnitOfWork work) {
+		YearMonth bucket = bucketOf(notification.getNotificationTime());
+		work.add(CREATE_NOTIFICATION, partition(notification.getUsername(), bucketKey(bucket)),
+				notification.getUsername(), bucketKey(bucket), notification.getNotificationTime().toInstant(ZoneOffset.UTC),
+				notification.getRequestId(), notification.getMessage(), TTL_SECONDS);
+		work.add(CREATE_REQUEST_NOTIFICATION, lookupPartition(notification.getUsername(), notification.getRequestId()),
+				notification.getUsername(), notification.getRequestId(), bucketKey(bucket),
+				notification.getNotificationTime().toInstant(ZoneOffset.UTC), TTL_SECONDS);
+		// Live listeners only hear about it once it can also be read back
+		work.onCommit(() -> hub.publish(notification));
 	}
 
 	public void deleteUserNotifications(String username) {
-		StringBuilder query = new StringBuilder("DELETE FROM notification WHERE username = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		BoundStatement bound = session.prepare(s).bind(username);
-		session.execute(bound);
+		UnitOfWork work = new UnitOfWork();
+		deleteBuckets(username, work);
+		work.commit();
 	}
-	
+
 	public void deleteNotification(String username, UUID requestId) {
-		StringBuilder query = new StringBuilder("DELETE FROM notification WHERE username = ? AND requestid = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		BoundStatement bound = session.prepare(s).bind(username, requestId);
-		session.execute(bound);
+		UnitOfWork work = new UnitOfWork();
+		deleteNotification(username, requestId, work);
+		work.commit();
+	}
+
+	public void deleteNotification(String username, UUID requestId, UnitOfWork work) {
+		// The lookup is read now so the deletes can join the rest of the unit of work
+		statements.execute(GET_REQUEST_NOTIFICATIONS, username, requestId)
+				.forEach((row) -> deleteRow(username, requestId, row, work));
+		work.add(DELETE_REQUEST_NOTIFICATIONS, lookupPartition(username, requestId), username, requestId);
+	}
+
+	public CompletionStage<List<Notification>> getUserNotificationListAsync(String username, Integer limit) {
+		return getRecentAsync(username, bucketOf(LocalDateTime.now()), oldestBucket(), new ArrayList<>(), limit);
+	}
+
+	/**
+	 * Read the buckets newest first until the limit is reached or the buckets
+	 * run out. Each bucket is only read once the one before it came up short.
+	 */
+	private CompletionStage<List<Notification>> getRecentAsync(String username, YearMonth bucket, YearMonth oldest,
+			List<Notification> found, Integer limit) {
+		if (found.size() >= limit || bucket.isBefore(oldest)) {
+			return CompletableFuture.completedFuture(found);
+		}
+		return statements.executeAsync(GET_RECENT_NOTIFICATIONS, this::mapRow, username, bucketKey(bucket),
+				limit - found.size()).thenCompose((notifications) -> {
+					found.addAll(notifications);
+					return getRecentAsync(username, bucket.minusMonths(1), oldest, found, limit);
+				});
+	}
+
+	private void deleteBuckets(String username, UnitOfWork work) {
+		YearMonth oldest = oldestBucket();
+		for (YearMonth bucket = bucketOf(LocalDateTime.now()); !bucket.isBefore(oldest); bucket = bucket
+				.minusMonths(1)) {
+			work.add(DELETE_BUCKET, partition(username, bucketKey(bucket)), username, bucketKey(bucket));
+		}
+	}
+
+	private void deleteRow(String username, UUID requestId, Row row, UnitOfWork work) {
+		work.add(DELETE_NOTIFICATION, partition(username, row.getInt("bucket")), username, row.getInt("bucket"),
+				row.getInstant("notificationtime"), requestId);
+	}
+
+	private Notification mapRow(Row row) {
+		Notification notification = new Notification();
+		notification.setUsername(row.getString("username"));
+		notification.setRequestId(row.getUuid("requestid"));
+		notification.setNotificationTime(LocalDateTime.ofInstant(row.getInstant("notificationtime"), ZoneOffset.UTC));
+		notification.setMessage(row.getString("message"));
+		return notification;
+	}
+
+	/**
+	 * @return The month the time falls in
+	 */
+	private YearMonth bucketOf(LocalDateTime time) {
+		return YearMonth.from(time);
+	}
+
+	/**
+	 * @return The oldest month that can still have notifications that haven't expired
+	 */
+	private YearMonth oldestBucket() {
+		return bucketOf(LocalDateTime.now().minusDays(TTL_DAYS));
+	}
+
+	/**
+	 * @return The month as it is stored, for example 202107
+	 */
+	private Integer bucketKey(YearMonth bucket) {
+		return bucket.getYear() * 100 + bucket.getMonthValue();
+	}
+
+	private String partition(String username, Integer bucket) {
+		return "notification:" + username + ":" + bucket;
+	}
+
+	private String lookupPartition(String username, UUID requestId) {
+		return "notification_by_request:" + username + ":" + requestId;
+	}
+
+	private String pagingState(YearMonth bucket, ByteBuffer next) {
+		return PagingToken.encode(bucket.toString(), PagingToken.encodeState(next));
 	}
 
 }
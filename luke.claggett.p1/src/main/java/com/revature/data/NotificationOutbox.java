@@ -0,0 +1,341 @@
+package com.revature.data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.revature.beans.Notification;
+
+/**
+ * Takes notification writes off the request path. Changes wait in a bounded
+ * queue and a single writer thread sends whatever has built up in one batch,
+ * dropping any notification that a later delete in the same batch would
+ * remove anyway.
+ *
+ * When the queue stays full for notifications.outbox.offerMillis the caller
+ * writes the change itself, so a slow database slows callers down instead of
+ * losing notifications. Whatever is still queued is written on shutdown.
+ * Either way the changes queued ahead of it are written first, so a delete
+ * never lands before a create that was made earlier.
+ */
+public class NotificationOutbox {
+	private static NotificationOutbox instance = null;
+	private static final Logger log = LogManager.getLogger(NotificationOutbox.class);
+
+	private static final Integer CAPACITY = Integer.getInteger("notifications.outbox.capacity", 1000);
+	private static final Integer BATCH_SIZE = Integer.getInteger("notifications.outbox.batchSize", 25);
+	private static final Long OFFER_MILLIS = Long.getLong("notifications.outbox.offerMillis", 1000L);
+	private static final Long SHUTDOWN_MILLIS = Long.getLong("notifications.outbox.shutdownMillis", 10000L);
+
+	// How long the writer waits for a change before checking whether it should stop
+	private static final Long POLL_MILLIS = 100L;
+
+	private final NotificationDao dao;
+	private final BlockingQueue<Change> queue;
+	private final Integer batchSize;
+	private final Long offerMillis;
+	private final Thread writer;
+	private volatile Boolean stopping = false;
+
+	// Held while changes are taken off the queue and written, so they are written in the order they were queued.
+	// Fair, so a caller writing for itself gets it after the writer's current batch rather than whenever it can.
+	private final ReentrantLock order = new ReentrantLock(true);
+
+	// What the writer has done, and how often callers had to write for themselves
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong callerWrites = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	/**
+	 * The writer thread isn't started until start is called
+	 * @param dao The DAO that writes to the database
+	 * @param capacity How many changes can wait in the queue
+	 * @param batchSize The most changes sent in one batch
+	 * @param offerMillis How long a caller waits for room in the queue
+	 */
+	public NotificationOutbox(NotificationDao dao, Integer capacity, Integer batchSize, Long offerMillis) {
+		this.dao = dao;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.offerMillis = offerMillis;
+		this.writer = new Thread(this::run, "notification-outbox");
+		this.writer.setDaemon(true);
+	}
+
+	public static synchronized NotificationOutbox getInstance() {
+		if (instance == null) {
+			instance = new NotificationOutbox(new NotificationDaoImpl(), CAPACITY, BATCH_SIZE, OFFER_MILLIS);
+			instance.start();
+			NotificationOutbox outbox = instance;
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> outbox.shutdown(SHUTDOWN_MILLIS),
+					"notification-outbox-drain"));
+		}
+		return instance;
+	}
+
+	public void start() {
+		writer.start();
+	}
+
+	/**
+	 * Queue a new notification
+	 */
+	public void create(Notification notification) {
+		submit(new Change(notification.getUsername(), notification.getRequestId(), notification));
+	}
+
+	/**
+	 * Queue the deletion of every notification of a user and request
+	 */
+	public void delete(String username, UUID requestId) {
+		submit(new Change(username, requestId, null));
+	}
+
+	/**
+	 * Stop taking changes and write everything still queued. Changes submitted
+	 * after this are written by the caller.
+	 * @param timeoutMillis How long to wait for the writer to finish. The queue
+	 *                      is only drained once the writer's batch is written.
+	 */
+	public void shutdown(Long timeoutMillis) {
+		stopping = true;
+		LockSupport.unpark(writer);
+		try {
+			if (writer.isAlive()) {
+				writer.join(timeoutMillis);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// Anything left over is written here
+		drain();
+		log.info("Notification outbox stopped: " + this);
+	}
+
+	public Integer getQueued() {
+		return queue.size();
+	}
+
+	public Long getWritten() {
+		return written.get();
+	}
+
+	public Long getCoalesced() {
+		return coalesced.get();
+	}
+
+	public Long getBatches() {
+		return batches.get();
+	}
+
+	public Long getCallerWrites() {
+		return callerWrites.get();
+	}
+
+	public Long getFailed() {
+		return failed.get();
+	}
+
+	private void submit(Change change) {
+		Boolean queued = false;
+		if (!stopping) {
+			try {
+				queued = queue.offer(change, offerMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (!queued) {
+			// The writer is behind or gone, so the caller pays for the write
+			callerWrites.incrementAndGet();
+			log.debug("Notification outbox is full or stopped, writing on the caller: " + change);
+			order.lock();
+			try {
+				drain();
+				writeOne(change);
+			} finally {
+				order.unlock();
+			}
+		} else if (stopping) {
+			// The outbox stopped while the change was being queued, so the shutdown may have missed it
+			drain();
+		} else {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	private void run() {
+		while (!stopping || !queue.isEmpty()) {
+			if (queue.isEmpty()) {
+				// Wait outside the lock so callers writing for themselves never wait on an idle writer.
+				// Submitting a change wakes the writer.
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS));
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				continue;
+			}
+			order.lock();
+			try {
+				// A caller may have written the queue while the writer waited for the lock
+				List<Change> batch = new ArrayList<>();
+				if (queue.drainTo(batch, batchSize) > 0) {
+					write(batch);
+				}
+			} catch (RuntimeException e) {
+				// A bad batch can't be allowed to stop the writer
+				log.error("Notification outbox writer failed: " + e);
+			} finally {
+				order.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Write everything queued, after any batch the writer is in the middle of
+	 */
+	private void drain() {
+		order.lock();
+		try {
+			List<Change> batch = new ArrayList<>();
+			while (queue.drainTo(batch, batchSize) > 0) {
+				write(batch);
+				batch.clear();
+			}
+		} finally {
+			order.unlock();
+		}
+	}
+
+	/**
+	 * Write the batch in as few round trips as possible
+	 */
+	void write(List<Change> batch) {
+		List<Change> changes = coalesce(batch);
+		coalesced.addAndGet(batch.size() - changes.size());
+
+		List<Change> pending = new ArrayList<>();
+		Set<String> deleted = new HashSet<>();
+		UnitOfWork work = new UnitOfWork();
+		for (Change change : changes) {
+			if (!change.isDelete() && deleted.contains(change.key())) {
+				// Every write in a batch has the same timestamp, and the delete would win
+				commit(work, pending);
+				work = new UnitOfWork();
+				pending.clear();
+				deleted.clear();
+			}
+			try {
+				change.addTo(dao, work);
+			} catch (RuntimeException e) {
+				log.warn("Notification change could not be batched: " + change + " Cause: " + e);
+				writeOne(change);
+				continue;
+			}
+			pending.add(change);
+			if (change.isDelete()) {
+				deleted.add(change.key());
+			}
+		}
+		commit(work, pending);
+	}
+
+	/**
+	 * A delete removes every notification of the user and request, so any
+	 * earlier change to the same user and request in the batch can be skipped
+	 */
+	List<Change> coalesce(List<Change> batch) {
+		List<Change> changes = new ArrayList<>();
+		for (Change change : batch) {
+			if (change.isDelete()) {
+				changes.removeIf((earlier) -> earlier.key().equals(change.key()));
+			}
+			changes.add(change);
+		}
+		return changes;
+	}
+
+	private void commit(UnitOfWork work, List<Change> pending) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		try {
+			work.commit();
+			batches.incrementAndGet();
+			written.addAndGet(pending.size());
+		} catch (RuntimeException e) {
+			// Try each change on its own so one bad write doesn't lose the rest
+			log.warn("Notification batch of " + pending.size() + " failed, writing one at a time: " + e);
+			pending.forEach(this::writeOne);
+		}
+	}
+
+	private void writeOne(Change change) {
+		try {
+			if (change.isDelete()) {
+				dao.deleteNotification(change.username, change.requestId);
+			} else {
+				dao.createNotification(change.notification);
+			}
+			written.incrementAndGet();
+		} catch (RuntimeException e) {
+			failed.incrementAndGet();
+			log.error("Notification write failed: " + change + " Cause: " + e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "NotificationOutbox [queued=" + getQueued() + ", written=" + written + ", coalesced=" + coalesced
+				+ ", batches=" + batches + ", callerWrites=" + callerWrites + ", failed=" + failed + "]";
+	}
+
+	/**
+	 * A notification to create, or a deletion if there is no notification
+	 */
+	static class Change {
+		private final String username;
+		private final UUID requestId;
+		private final Notification notification;
+
+		Change(String username, UUID requestId, Notification notification) {
+			this.username = username;
+			this.requestId = requestId;
+			this.notification = notification;
+		}
+
+		Boolean isDelete() {
+			return notification == null;
+		}
+
+		String key() {
+			return username + ":" + requestId;
+		}
+
+		void addTo(NotificationDao dao, UnitOfWork work) {
+			if (isDelete()) {
+				dao.deleteNotification(username, requestId, work);
+			} else {
+				dao.createNotification(notification, work);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return (isDelete() ? "Delete " : "Create ") + key() + (isDelete() ? "" : " " + notification.getMessage());
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.revature.data;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import com.revature.beans.Notification;
+import com.revature.beans.Page;
+import com.revature.factory.TraceLog;
+
+/**
+ * Hands notification creates and deletes to the NotificationOutbox instead of
+ * writing them before returning. Reads, and writes that are part of a caller's
+ * unit of work, go straight to the other NotificationDao.
+ */
+@TraceLog
+public class QueuedNotificationDao implements NotificationDao {
+	private final NotificationDao dao;
+	private final NotificationOutbox outbox;
+
+	public QueuedNotificationDao() {
+		this(new NotificationDaoImpl(), NotificationOutbox.getInstance());
+	}
+
+	public QueuedNotificationDao(NotificationDao dao, NotificationOutbox outbox) {
+		this.dao = dao;
+		this.outbox = outbox;
+	}
+
+	@Override
+	public List<Notification> getUserNotificationList(String username, Integer limit) {
+		return dao.getUserNotificationList(username, limit);
+	}
+
+	@Override
+	public Page<Notification> getUserNotifications(String username, Integer pageSize, String pagingState) {
+		return dao.getUserNotifications(username, pageSize, pagingState);
+	}
+
+	@Override
+	public void deleteUserNotifications(String username) {
+		dao.deleteUserNotifications(username);
+	}
+
+	@Override
+	public void createNotification(Notification notification) {
+		outbox.create(notification);
+	}
+
+	@Override
+	public void createNotification(Notification notification, UnitOfWork work) {
+		dao.createNotification(notification, work);
+	}
+
+	@Override
+	public void deleteNotification(String username, UUID requestId) {
+		outbox.delete(username, requestId);
+	}
+
+	@Override
+	public void deleteNotification(String username, UUID requestId, UnitOfWork work) {
+		dao.deleteNotification(username, requestId, work);
+	}
+
+	@Override
+	public CompletionStage<List<Notification>> getUserNotificationListAsync(String username, Integer limit) {
+		return dao.getUserNotificationListAsync(username, limit);
+	}
+
+}
@@ -2,7 +2,9 @@ package com.revature.data;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import com.revature.beans.Page;
 import com.revature.beans.Reimbursement;
 
 public interface ReimbursementDao {
@@ -19,15 +21,87 @@ public interface ReimbursementDao {
 	 * @return A List of all Requests
 	 */
 	public List<Reimbursement> getRequests();
+
+	/**
+	 * Get one page of the Requests in the database
+	 * @param pageSize The most Requests to return
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of Requests
+	 */
+	public Page<Reimbursement> getRequests(Integer pageSize, String pagingState);
+
+	/**
+	 * Get one page of the Requests a user has made, newest first
+	 * @param username The username of the user
+	 * @param pageSize The most Requests to return
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of Requests
+	 */
+	public Page<Reimbursement> getRequestsByUser(String username, Integer pageSize, String pagingState);
+
+	/**
+	 * Get one page of the Requests waiting on an approver
+	 * @param approver The approver, or the shared queue of an approval stage
+	 * @param pageSize The most Requests to return
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of Requests
+	 */
+	public Page<Reimbursement> getPendingRequests(String approver, Integer pageSize, String pagingState);
+
+	/**
+	 * Put the Request in the approver's pending queue
+	 * @param approver The approver, or the shared queue of an approval stage
+	 * @param request The Request waiting on the approver
+	 */
+	public void addPending(String approver, Reimbursement request);
+
+	/**
+	 * Put the Request in the approver's pending queue when the unit of work commits
+	 * @param approver The approver, or the shared queue of an approval stage
+	 * @param request The Request waiting on the approver
+	 * @param work The unit of work to add the write to
+	 */
+	public void addPending(String approver, Reimbursement request, UnitOfWork work);
+
+	/**
+	 * Take the Request out of the approver's pending queue
+	 * @param approver The approver, or the shared queue of an approval stage
+	 * @param id The UUID of the Request
+	 */
+	public void removePending(String approver, UUID id);
+
+	/**
+	 * Take the Request out of the approver's pending queue when the unit of work commits
+	 * @param approver The approver, or the shared queue of an approval stage
+	 * @param id The UUID of the Request
+	 * @param work The unit of work to add the write to
+	 */
+	public void removePending(String approver, UUID id, UnitOfWork work);
+
+	/**
+	 * Stream every Request in the database. Rows are read a page at a time and
+	 * mapped as the stream is consumed, so the whole table is never in memory.
+	 * @return A Stream of all Requests
+	 */
+	public Stream<Reimbursement> streamRequests();
 	
 	/**
-	 * Get the list of requests that are active and deadline have passed.
+	 * Get the list of requests that are active and deadline have passed. Only the
+	 * deadline buckets that are due are read.
 	 * @return The list of requests
 	 */
 	public List<Reimbursement> getExpiredRequests();
+
+	/**
+	 * Get one page of the requests that are active and deadline have passed.
+	 * @param pageSize The most requests to return
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of requests
+	 */
+	public Page<Reimbursement> getExpiredRequests(Integer pageSize, String pagingState);
 	
 	/**
-	 * Update the Request
+	 * Update the Request, writing only the fields changed since it was read
 	 * @param request The request to update
 	 */
 	public void updateRequest(Reimbursement request);
@@ -37,5 +111,12 @@ public interface ReimbursementDao {
 	 * @param request The Request to put in the database
 	 */
 	public void createRequest(Reimbursement request);
-	
+
+	/**
+	 * Create a new Request when the unit of work commits
+	 * @param request The Request to put in the database
+	 * @param work The unit of work to add the writes to
+	 */
+	public void createRequest(Reimbursement request, UnitOfWork work);
+
 }
@@ -1,37 +1,130 @@
 package com.revature.data;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
-import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
-import com.datastax.oss.driver.api.core.data.TupleValue;
-import com.datastax.oss.driver.api.core.type.DataTypes;
-import com.datastax.oss.driver.api.core.type.TupleType;
-import com.revature.beans.Approval;
-import com.revature.beans.ApprovalStatus;
-import com.revature.beans.EventType;
-import com.revature.beans.Format;
-import com.revature.beans.GradingFormat;
-import com.revature.beans.ReimbursementRequest;
+import com.revature.beans.Page;
 import com.revature.beans.Reimbursement;
 import com.revature.beans.ReimbursementStatus;
+import com.revature.beans.RequestField;
+import com.revature.exceptions.ConcurrentUpdateException;
 import com.revature.factory.TraceLog;
 import com.revature.util.CassandraUtil;
+import com.revature.util.ConflictMonitor;
+import com.revature.util.PagingToken;
+import com.revature.util.StatementRegistry;
 
 @TraceLog
 public class ReimbursementDaoImpl implements ReimbursementDao {
-	private CqlSession session = CassandraUtil.getInstance().getSession();
-
-	private static final TupleType TUPLE_TEMPLATE = DataTypes.tupleOf(DataTypes.TEXT, DataTypes.TEXT);
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+
+	private static final ConflictMonitor CONFLICTS = ConflictMonitor.getInstance();
+	private static final ReimbursementRowMapper MAPPER = new ReimbursementRowMapper();
+	private static final String TABLE = "request";
+
+	private static final SimpleStatement GET_REQUEST = new SimpleStatementBuilder(new StringBuilder("SELECT ")
+			.append("id, username, status, isurgent, name, firstname, lastname, ")
+			.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
+			.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
+			.append("deptheadapproval, bencoapproval, reason, deadline, ")
+			.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
+			.append("finalreimburseamountreason, needsemployeereview, employeeagrees, version ")
+			.append("FROM request WHERE id = ?;").toString()).build();
+
+	private static final SimpleStatement GET_REQUESTS = new SimpleStatementBuilder(new StringBuilder("SELECT ")
+			.append("id, username, status, isurgent, name, firstname, lastname, ")
+			.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
+			.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
+			.append("deptheadapproval, bencoapproval, reason, deadline, ")
+			.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
+			.append("finalreimburseamountreason, needsemployeereview, employeeagrees, version ").append("FROM request;")
+			.toString()).build();
+
+	// Deadlines are indexed by the hour they fall in so the sweep only reads partitions that are due
+	private static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+	// Every bucket is listed in one partition so the due ones can be found with a single range read
+	private static final Integer BUCKET_SHARD = 0;
+	// How long an empty bucket is kept after it closes, so the sweep can't drop one a slow write is still adding to
+	private static final Long BUCKET_GRACE_MILLIS = Long.getLong("requests.bucketGraceMillis",
+			Duration.ofHours(1).toMillis());
+
+	private static final SimpleStatement GET_DUE_BUCKETS = new SimpleStatementBuilder(
+			"SELECT bucket FROM deadline_bucket WHERE shard = ? AND bucket >= ? AND bucket <= ?;").build();
+
+	private static final SimpleStatement GET_DUE_DEADLINES = new SimpleStatementBuilder(
+			"SELECT deadline, id FROM request_deadline WHERE bucket = ? AND deadline < ?;").build();
+
+	private static final SimpleStatement CREATE_BUCKET = new SimpleStatementBuilder(
+			"INSERT INTO deadline_bucket (shard, bucket) VALUES (?, ?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_BUCKET = new SimpleStatementBuilder(
+			"DELETE FROM deadline_bucket WHERE shard = ? AND bucket = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement CREATE_DEADLINE = new SimpleStatementBuilder(
+			"INSERT INTO request_deadline (bucket, deadline, id, username) VALUES (?, ?, ?, ?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_DEADLINE = new SimpleStatementBuilder(
+			"DELETE FROM request_deadline WHERE bucket = ? AND deadline = ? AND id = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	// Page size used when every expired request is read at once
+	private static final Integer EXPIRED_PAGE_SIZE = 100;
+	// Rows fetched at a time while streaming the request table
+	private static final Integer STREAM_PAGE_SIZE = Integer.getInteger("requests.streamPageSize", 500);
+
+	// Newest first so the first page of a user's requests is the most recent ones
+	private static final SimpleStatement GET_USER_REQUESTS = new SimpleStatementBuilder(
+			"SELECT id FROM requests_by_user WHERE username = ?;").build();
+
+	private static final SimpleStatement CREATE_USER_REQUEST = new SimpleStatementBuilder(
+			"INSERT INTO requests_by_user (username, created, id) VALUES (?, ?, ?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement GET_PENDING = new SimpleStatementBuilder(
+			"SELECT id FROM pending_by_approver WHERE approver = ?;").build();
+
+	private static final SimpleStatement CREATE_PENDING = new SimpleStatementBuilder(
+			"INSERT INTO pending_by_approver (approver, id, username) VALUES (?, ?, ?);")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement DELETE_PENDING = new SimpleStatementBuilder(
+			"DELETE FROM pending_by_approver WHERE approver = ? AND id = ?;")
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	// Updates only write the columns that changed, so one statement is built for each set of columns
+	private static final Map<String, SimpleStatement> UPDATES = new ConcurrentHashMap<>();
+
+	private static final SimpleStatement CREATE_REQUEST = new SimpleStatementBuilder(new StringBuilder("INSERT INTO request (")
+			.append("id, username, status, isurgent, name, firstname, lastname, ")
+			.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
+			.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
+			.append("deptheadapproval, bencoapproval, reason, deadline, ")
+			.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
+			.append("finalreimburseamountreason, needsemployeereview, employeeagrees, version")
+			.append(") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")
+			.toString())
+			.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
 
 	public Reimbursement getRequest(UUID id) {
 		
@@ -39,284 +132,389 @@ public class ReimbursementDaoImpl implements ReimbursementDao {
 			return null;
 		}
 
-		StringBuilder query = new StringBuilder("SELECT ")
-				.append("id, username, status, isurgent, name, firstname, lastname, ")
-				.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
-				.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
-				.append("deptheadapproval, bencoapproval, reason, deadline, ")
-				.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
-				.append("finalreimburseamountreason, needsemployeereview, employeeagrees ")
-				.append("FROM request WHERE id = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		BoundStatement bound = session.prepare(s).bind(id);
-
-		ResultSet rs = session.execute(bound);
-		Row row = rs.one();
-
-		if (row == null) {
-			return null;
-		}
-
-		Reimbursement request = new ReimbursementRequest();
-		request.setId(row.getUuid("id"));
-		request.setUsername(row.getString("username"));
-		request.setStatus(ReimbursementStatus.valueOf(row.getString("status")));
-		request.setIsUrgent(row.getBoolean("isurgent"));
-		request.setName(row.getString("name"));
-		request.setFirstName(row.getString("firstname"));
-		request.setLastName(row.getString("lastname"));
-		request.setDeptName(row.getString("deptname"));
-		request.setStartDate(row.getLocalDate("startdate"));
-		request.setStartTime(row.getLocalTime("starttime"));
-		request.setLocation(row.getString("location"));
-		request.setDescription(row.getString("description"));
-		request.setCost(row.getDouble("cost"));
-		request.setGradingFormat(
-				new GradingFormat(Format.valueOf(row.getTupleValue("gradingformat").get(0, String.class)),
-						row.getTupleValue("gradingformat").get(1, String.class)));
-		request.setType(EventType.valueOf(row.getString("type")));
-		request.setFileURIs(row.getList("fileuris", String.class));
-		request.setApprovalMsgURI(row.getString("approvalmsguri"));
-		request.setWorkTimeMissed(row.getString("worktimemissed"));
-		request.setReimburseAmount(row.getDouble("reimburseamount"));
-		request.setSupervisorApproval(
-				new Approval(ApprovalStatus.valueOf(row.getTupleValue("supervisorapproval").get(0, String.class)),
-						row.getTupleValue("supervisorapproval").get(1, String.class)));
-		request.setDeptHeadApproval(
-				new Approval(ApprovalStatus.valueOf(row.getTupleValue("deptheadapproval").get(0, String.class)),
-						row.getTupleValue("deptheadapproval").get(1, String.class)));
-		request.setBenCoApproval(
-				new Approval(ApprovalStatus.valueOf(row.getTupleValue("bencoapproval").get(0, String.class)),
-						row.getTupleValue("bencoapproval").get(1, String.class)));
-
-		request.setReason(row.getString("reason"));
-		request.setDeadline(LocalDateTime.ofInstant(row.getInstant("deadline"), ZoneOffset.UTC));
-		request.setFinalGrade(row.getString("finalgrade"));
-		request.setIsPassing(row.getBoolean("ispassing"));
-		request.setPresFileName(row.getString("presfilename"));
-		request.setFinalApproval(
-				new Approval(ApprovalStatus.valueOf(row.getTupleValue("finalapproval").get(0, String.class)),
-						row.getTupleValue("finalapproval").get(1, String.class)));
-		request.setFinalReimburseAmount(row.getDouble("finalreimburseamount"));
-		request.setFinalReimburseAmountReason(row.getString("finalreimburseamountreason"));
-		request.setNeedsEmployeeReview(row.getBoolean("needsemployeereview"));
-		request.setEmployeeAgrees(row.getBoolean("employeeagrees"));
-		return request;
+		ResultSet rs = statements.execute(GET_REQUEST, id);
+		return MAPPER.map(rs.one());
 	}
 
 	public List<Reimbursement> getRequests() {
 		List<Reimbursement> requests = new ArrayList<Reimbursement>();
 
-		StringBuilder query = new StringBuilder("SELECT ")
-				.append("id, username, status, isurgent, name, firstname, lastname, ")
-				.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
-				.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
-				.append("deptheadapproval, bencoapproval, reason, deadline, ")
-				.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
-				.append("finalreimburseamountreason, needsemployeereview, employeeagrees ").append("FROM request;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		ResultSet rs = session.execute(s);
-
-		rs.forEach((row) -> {
-			Reimbursement request = new ReimbursementRequest();
-			request.setId(row.getUuid("id"));
-			request.setUsername(row.getString("username"));
-			request.setStatus(ReimbursementStatus.valueOf(row.getString("status")));
-			request.setIsUrgent(row.getBoolean("isurgent"));
-			request.setName(row.getString("name"));
-			request.setFirstName(row.getString("firstname"));
-			request.setLastName(row.getString("lastname"));
-			request.setDeptName(row.getString("deptname"));
-			request.setStartDate(row.getLocalDate("startdate"));
-			request.setStartTime(row.getLocalTime("starttime"));
-			request.setLocation(row.getString("location"));
-			request.setDescription(row.getString("description"));
-			request.setCost(row.getDouble("cost"));
-			request.setGradingFormat(
-					new GradingFormat(Format.valueOf(row.getTupleValue("gradingformat").get(0, String.class)),
-							row.getTupleValue("gradingformat").get(1, String.class)));
-			request.setType(EventType.valueOf(row.getString("type")));
-			request.setFileURIs(row.getList("fileuris", String.class));
-			request.setApprovalMsgURI(row.getString("approvalmsguri"));
-			request.setWorkTimeMissed(row.getString("worktimemissed"));
-			request.setReimburseAmount(row.getDouble("reimburseamount"));
-			request.setSupervisorApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("supervisorapproval").get(0, String.class)),
-							row.getTupleValue("supervisorapproval").get(1, String.class)));
-			request.setDeptHeadApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("deptheadapproval").get(0, String.class)),
-							row.getTupleValue("deptheadapproval").get(1, String.class)));
-			request.setBenCoApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("bencoapproval").get(0, String.class)),
-							row.getTupleValue("bencoapproval").get(1, String.class)));
-
-			request.setReason(row.getString("reason"));
-			request.setDeadline(LocalDateTime.ofInstant(row.getInstant("deadline"), ZoneOffset.UTC));
-			request.setFinalGrade(row.getString("finalgrade"));
-			request.setIsPassing(row.getBoolean("ispassing"));
-			request.setPresFileName(row.getString("presfilename"));
-			request.setFinalApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("finalapproval").get(0, String.class)),
-							row.getTupleValue("finalapproval").get(1, String.class)));
-			request.setFinalReimburseAmount(row.getDouble("finalreimburseamount"));
-			request.setFinalReimburseAmountReason(row.getString("finalreimburseamountreason"));
-			request.setNeedsEmployeeReview(row.getBoolean("needsemployeereview"));
-			request.setEmployeeAgrees(row.getBoolean("employeeagrees"));
-			requests.add(request);
-		});
+		try (Stream<Reimbursement> stream = streamRequests()) {
+			stream.forEach(requests::add);
+		}
 
 		return requests;
 	}
+
+	public Page<Reimbursement> getRequests(Integer pageSize, String pagingState) {
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+
+		ResultSet rs = statements.executePage(GET_REQUESTS, pageSize, PagingToken.decodeState(pagingState));
+		// Only map the rows of this page, iterating further would fetch the next one
+		int rows = rs.getAvailableWithoutFetching();
+		for (int i = 0; i < rows; i++) {
+			requests.add(MAPPER.map(rs.one()));
+		}
+
+		return new Page<Reimbursement>(requests, PagingToken.encodeState(rs.getExecutionInfo().getPagingState()));
+	}
+
+	public Page<Reimbursement> getRequestsByUser(String username, Integer pageSize, String pagingState) {
+		return getPageOfRequests(GET_USER_REQUESTS, username, pageSize, pagingState);
+	}
+
+	public Page<Reimbursement> getPendingRequests(String approver, Integer pageSize, String pagingState) {
+		return getPageOfRequests(GET_PENDING, approver, pageSize, pagingState);
+	}
+
+	public void addPending(String approver, Reimbursement request) {
+		statements.execute(CREATE_PENDING, approver, request.getId(), request.getUsername());
+	}
+
+	public void addPending(String approver, Reimbursement request, UnitOfWork work) {
+		work.add(CREATE_PENDING, "pending_by_approver:" + approver, approver, request.getId(), request.getUsername());
+	}
+
+	public void removePending(String approver, UUID id) {
+		statements.execute(DELETE_PENDING, approver, id);
+	}
+
+	public void removePending(String approver, UUID id, UnitOfWork work) {
+		work.add(DELETE_PENDING, "pending_by_approver:" + approver, approver, id);
+	}
+
+	public Stream<Reimbursement> streamRequests() {
+		// The result set fetches the next page as the stream reaches the end of the current one
+		ResultSet rs = statements.executePage(GET_REQUESTS, STREAM_PAGE_SIZE, null);
+		return StreamSupport.stream(rs.spliterator(), false).map(MAPPER::map);
+	}
 	
 	public List<Reimbursement> getExpiredRequests() {
 		List<Reimbursement> requests = new ArrayList<Reimbursement>();
-		
-		StringBuilder query = new StringBuilder("SELECT ")
-				.append("id, username, status, isurgent, name, firstname, lastname, ")
-				.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
-				.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
-				.append("deptheadapproval, bencoapproval, reason, deadline, ")
-				.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
-				.append("finalreimburseamountreason, needsemployeereview, employeeagrees ").append("FROM request ")
-				.append("WHERE status = 'ACTIVE' AND deadline < ? AND employeeAgrees = true LIMIT 1 ALLOW FILTERING;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		BoundStatement bound = session.prepare(s).bind(LocalDateTime.now().toInstant(ZoneOffset.UTC));
-		ResultSet rs = session.execute(bound);
-
-		rs.forEach((row) -> {
-			Reimbursement request = new ReimbursementRequest();
-			request.setId(row.getUuid("id"));
-			request.setUsername(row.getString("username"));
-			request.setStatus(ReimbursementStatus.valueOf(row.getString("status")));
-			request.setIsUrgent(row.getBoolean("isurgent"));
-			request.setName(row.getString("name"));
-			request.setFirstName(row.getString("firstname"));
-			request.setLastName(row.getString("lastname"));
-			request.setDeptName(row.getString("deptname"));
-			request.setStartDate(row.getLocalDate("startdate"));
-			request.setStartTime(row.getLocalTime("starttime"));
-			request.setLocation(row.getString("location"));
-			request.setDescription(row.getString("description"));
-			request.setCost(row.getDouble("cost"));
-			request.setGradingFormat(
-					new GradingFormat(Format.valueOf(row.getTupleValue("gradingformat").get(0, String.class)),
-							row.getTupleValue("gradingformat").get(1, String.class)));
-			request.setType(EventType.valueOf(row.getString("type")));
-			request.setFileURIs(row.getList("fileuris", String.class));
-			request.setApprovalMsgURI(row.getString("approvalmsguri"));
-			request.setWorkTimeMissed(row.getString("worktimemissed"));
-			request.setReimburseAmount(row.getDouble("reimburseamount"));
-			request.setSupervisorApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("supervisorapproval").get(0, String.class)),
-							row.getTupleValue("supervisorapproval").get(1, String.class)));
-			request.setDeptHeadApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("deptheadapproval").get(0, String.class)),
-							row.getTupleValue("deptheadapproval").get(1, String.class)));
-			request.setBenCoApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("bencoapproval").get(0, String.class)),
-							row.getTupleValue("bencoapproval").get(1, String.class)));
-
-			request.setReason(row.getString("reason"));
-			request.setDeadline(LocalDateTime.ofInstant(row.getInstant("deadline"), ZoneOffset.UTC));
-			request.setFinalGrade(row.getString("finalgrade"));
-			request.setIsPassing(row.getBoolean("ispassing"));
-			request.setPresFileName(row.getString("presfilename"));
-			request.setFinalApproval(
-					new Approval(ApprovalStatus.valueOf(row.getTupleValue("finalapproval").get(0, String.class)),
-							row.getTupleValue("finalapproval").get(1, String.class)));
-			request.setFinalReimburseAmount(row.getDouble("finalreimburseamount"));
-			request.setFinalReimburseAmountReason(row.getString("finalreimburseamountreason"));
-			request.setNeedsEmployeeReview(row.getBoolean("needsemployeereview"));
-			request.setEmployeeAgrees(row.getBoolean("employeeagrees"));
-			requests.add(request);
-		});
+		String pagingState = null;
+
+		do {
+			Page<Reimbursement> page = getExpiredRequests(EXPIRED_PAGE_SIZE, pagingState);
+			requests.addAll(page.getItems());
+			pagingState = page.getPagingState();
+		} while (pagingState != null);
 
 		return requests;
 	}
 
-	public void updateRequest(Reimbursement request) {
+	public Page<Reimbursement> getExpiredRequests(Integer pageSize, String pagingState) {
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
 
-		// Create the query
-		StringBuilder query = new StringBuilder("UPDATE request SET ")
-				.append("status = ?, isurgent = ?, name = ?, firstname = ?, lastname = ?, ")
-				.append("deptname = ?, startdate = ?, starttime = ?, location = ?, description = ?, cost = ?, gradingFormat = ?, ")
-				.append("type = ?, fileuris = ?, approvalmsguri = ?, worktimemissed = ?, reimburseamount = ?, supervisorapproval = ?, ")
-				.append("deptheadapproval = ?, bencoapproval = ?, reason = ?, deadline = ?, ")
-				.append("finalgrade = ?, ispassing = ?, presfilename = ?, finalapproval = ?, finalreimburseamount = ?, ")
-				.append("finalreimburseamountreason = ?, needsemployeereview = ?, employeeagrees = ?")
-				.append(" WHERE id = ? AND username = ?;");
-
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		TupleValue grade = TUPLE_TEMPLATE.newValue(request.getGradingFormat().getFormat().toString(),
-				request.getGradingFormat().getPassingGrade());
-
-		TupleValue supervisorApproval = TUPLE_TEMPLATE.newValue(request.getSupervisorApproval().getStatus().toString(),
-				request.getSupervisorApproval().getUsername());
-
-		TupleValue deptHeadApproval = TUPLE_TEMPLATE.newValue(request.getDeptHeadApproval().getStatus().toString(),
-				request.getDeptHeadApproval().getUsername());
-
-		TupleValue benCoApproval = TUPLE_TEMPLATE.newValue(request.getBenCoApproval().getStatus().toString(),
-				request.getBenCoApproval().getUsername());
-
-		TupleValue finalApproval = TUPLE_TEMPLATE.newValue(request.getFinalApproval().getStatus().toString(),
-				request.getFinalApproval().getUsername());
-
-		BoundStatement bound = session.prepare(s).bind(request.getStatus().toString(), request.getIsUrgent(),
-				request.getName(), request.getFirstName(), request.getLastName(), request.getDeptName(),
-				request.getStartDate(), request.getStartTime(), request.getLocation(), request.getDescription(),
-				request.getCost(), grade, request.getType().toString(), request.getFileURIs(),
-				request.getApprovalMsgURI(), request.getWorkTimeMissed(), request.getReimburseAmount(),
-				supervisorApproval, deptHeadApproval, benCoApproval, request.getReason(),
-				request.getDeadline().toInstant(ZoneOffset.UTC), request.getFinalGrade(), request.getIsPassing(),
-				request.getPresFileName(), finalApproval, request.getFinalReimburseAmount(),
-				request.getFinalReimburseAmountReason(), request.getNeedsEmployeeReview(), request.getEmployeeAgrees(),
-				request.getId(), request.getUsername());
+		// The token carries the time of the first page so every page agrees on what is due
+		Instant now = now();
+		Instant from = Instant.EPOCH;
+		ByteBuffer resume = null;
+		if (pagingState != null) {
+			String[] cursor = PagingToken.decode(pagingState, 3);
+			from = PagingToken.parse(cursor[0], (millis) -> Instant.ofEpochMilli(Long.parseLong(millis)));
+			now = PagingToken.parse(cursor[1], (millis) -> Instant.ofEpochMilli(Long.parseLong(millis)));
+			resume = PagingToken.decodeState(cursor[2]);
+		}
 
-		session.execute(bound);
+		for (Row bucketRow : statements.execute(GET_DUE_BUCKETS, BUCKET_SHARD, from, bucketOf(now))) {
+			Instant bucket = bucketRow.getInstant("bucket");
+			ByteBuffer bucketState = bucket.equals(from) ? resume : null;
+
+			ResultSet rs = statements.executePage(GET_DUE_DEADLINES, pageSize - requests.size(), bucketState, bucket, now);
+			int rows = rs.getAvailableWithoutFetching();
+			for (int i = 0; i < rows; i++) {
+				Row row = rs.one();
+				Reimbursement request = getRequest(row.getUuid("id"));
+
+				if (isDue(request, row.getInstant("deadline"))) {
+					requests.add(request);
+				} else {
+					statements.execute(DELETE_DEADLINE, bucket, row.getInstant("deadline"), row.getUuid("id"));
+				}
+			}
+
+			if (rows == 0 && bucketState == null && isClosed(bucket, now)) {
+				statements.execute(DELETE_BUCKET, BUCKET_SHARD, bucket);
+			}
+
+			ByteBuffer next = rs.getExecutionInfo().getPagingState();
+			if (next != null) {
+				return new Page<Reimbursement>(requests, pagingState(bucket, now, next));
+			}
+			if (requests.size() >= pageSize) {
+				// This bucket is done, the next page starts with the bucket after it
+				return new Page<Reimbursement>(requests, pagingState(bucket.plusMillis(1), now, null));
+			}
+		}
+
+		return new Page<Reimbursement>(requests, null);
+	}
+
+	public void updateRequest(Reimbursement request) {
+		// Other changes, like a final grade or another file, can't make the request due
+		Set<RequestField> fields = request.changedFields();
+		if (fields.contains(RequestField.DEADLINE) || fields.contains(RequestField.EMPLOYEE_AGREES)
+				|| fields.contains(RequestField.STATUS)) {
+			indexDeadline(request);
+		}
+		// Only applied if nobody else has updated the request since it was read
+		Update update = new Update(request);
+		ResultSet rs = statements.execute(update.statement, update.values);
+		checkApplied(request, rs.wasApplied());
 	}
 
 	public void createRequest(Reimbursement request) {
+		UnitOfWork work = new UnitOfWork();
+		createRequest(request, work);
+		work.commit();
+	}
 
-		// Create the query
-		StringBuilder query = new StringBuilder("INSERT INTO request (")
-				.append("id, username, status, isurgent, name, firstname, lastname, ")
-				.append("deptname, startdate, starttime, location, description, cost, gradingFormat, ")
-				.append("type, fileuris, approvalmsguri, worktimemissed, reimburseamount, supervisorapproval, ")
-				.append("deptheadapproval, bencoapproval, reason, deadline, ")
-				.append("finalgrade, ispassing, presfilename, finalapproval, finalreimburseamount, ")
-				.append("finalreimburseamountreason, needsemployeereview, employeeagrees")
-				.append(") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);");
+	public void createRequest(Reimbursement request, UnitOfWork work) {
+		indexDeadline(request, work);
+		work.add(CREATE_USER_REQUEST, "requests_by_user:" + request.getUsername(), request.getUsername(), now(),
+				request.getId());
+		work.add(CREATE_REQUEST, "request:" + request.getId(), createValues(request));
+		work.onCommit(request::clearChanges);
+	}
+
+	/**
+	 * Read one page of ids from a listing table partition and load their
+	 * requests. The page is small, so its requests are read in parallel rather
+	 * than one after another.
+	 */
+	private Page<Reimbursement> getPageOfRequests(SimpleStatement listing, String key, Integer pageSize,
+			String pagingState) {
+		List<CompletableFuture<Reimbursement>> loading = new ArrayList<>();
+
+		ResultSet rs = statements.executePage(listing, pageSize, PagingToken.decodeState(pagingState), key);
+		int rows = rs.getAvailableWithoutFetching();
+		for (int i = 0; i < rows; i++) {
+			loading.add(getRequestAsync(rs.one().getUuid("id")).toCompletableFuture());
+		}
+
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+		for (CompletableFuture<Reimbursement> request : loading) {
+			Reimbursement loaded = request.join();
+			if (loaded != null) {
+				requests.add(loaded);
+			}
+		}
+
+		return new Page<Reimbursement>(requests, PagingToken.encodeState(rs.getExecutionInfo().getPagingState()));
+	}
+
+	private CompletionStage<Reimbursement> getRequestAsync(UUID id) {
+
+		if (id == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		return statements.executeAsync(GET_REQUEST, id).thenApply((rs) -> MAPPER.map(rs.one()));
+	}
+
+	/**
+	 * Add the request's deadline to the bucketed index. Written before the
+	 * request's update or in the same batch as its creation, so a failure in
+	 * between only leaves an entry the sweep throws away. Entries for an older deadline are left behind and removed
+	 * the same way once their bucket comes due.
+	 */
+	private void indexDeadline(Reimbursement request) {
+		UnitOfWork work = new UnitOfWork();
+		indexDeadline(request, work);
+		work.commit();
+	}
+
+	private void indexDeadline(Reimbursement request, UnitOfWork work) {
+		if (!isAwaiting(request)) {
+			return;
+		}
+		Instant deadline = request.getDeadline().toInstant(ZoneOffset.UTC);
+		// A deadline that has already passed, such as when the employee agrees late, goes in the current bucket
+		// rather than one the sweep may have already dropped
+		Instant now = now();
+		Instant bucket = bucketOf(deadline.isAfter(now) ? deadline : now);
+
+		// Listing the bucket is an upsert, so it goes with every entry rather than depending on what this node has seen
+		work.add(CREATE_BUCKET, "deadline_bucket:" + BUCKET_SHARD, BUCKET_SHARD, bucket);
+		work.add(CREATE_DEADLINE, "request_deadline:" + bucket, bucket, deadline, request.getId(),
+				request.getUsername());
+	}
 
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		TupleValue grade = TUPLE_TEMPLATE.newValue(request.getGradingFormat().getFormat().toString(),
-				request.getGradingFormat().getPassingGrade());
+	/**
+	 * Only requests that can be auto approved are indexed
+	 */
+	private Boolean isAwaiting(Reimbursement request) {
+		return ReimbursementStatus.ACTIVE.equals(request.getStatus()) && Boolean.TRUE.equals(request.getEmployeeAgrees())
+				&& request.getDeadline() != null;
+	}
 
-		TupleValue supervisorApproval = TUPLE_TEMPLATE.newValue(request.getSupervisorApproval().getStatus().toString(),
-				request.getSupervisorApproval().getUsername());
+	/**
+	 * An index entry is only due if the request still has that deadline and can
+	 * still be auto approved
+	 */
+	private Boolean isDue(Reimbursement request, Instant deadline) {
+		return request != null && isAwaiting(request)
+				&& request.getDeadline().toInstant(ZoneOffset.UTC).equals(deadline);
+	}
 
-		TupleValue deptHeadApproval = TUPLE_TEMPLATE.newValue(request.getDeptHeadApproval().getStatus().toString(),
-				request.getDeptHeadApproval().getUsername());
+	/**
+	 * Entries only go in the current bucket or a later one, so a bucket that
+	 * ended before now will never get another entry. The grace period covers
+	 * writes that were started before it ended and clocks that disagree.
+	 */
+	private Boolean isClosed(Instant bucket, Instant now) {
+		return bucket.toEpochMilli() + BUCKET_MILLIS + BUCKET_GRACE_MILLIS <= now.toEpochMilli();
+	}
+
+	private String pagingState(Instant bucket, Instant now, ByteBuffer next) {
+		return PagingToken.encode(String.valueOf(bucket.toEpochMilli()), String.valueOf(now.toEpochMilli()),
+				PagingToken.encodeState(next));
+	}
 
-		TupleValue benCoApproval = TUPLE_TEMPLATE.newValue(request.getBenCoApproval().getStatus().toString(),
-				request.getBenCoApproval().getUsername());
+	private Instant now() {
+		return LocalDateTime.now().toInstant(ZoneOffset.UTC);
+	}
 
-		TupleValue finalApproval = TUPLE_TEMPLATE.newValue(request.getFinalApproval().getStatus().toString(),
-				request.getFinalApproval().getUsername());
+	private Instant bucketOf(Instant time) {
+		long millis = time.toEpochMilli();
+		return Instant.ofEpochMilli(millis - Math.floorMod(millis, BUCKET_MILLIS));
+	}
 
-		BoundStatement bound = session.prepare(s).bind(request.getId(), request.getUsername(),
-				request.getStatus().toString(), request.getIsUrgent(), request.getName(), request.getFirstName(),
+	private Object[] createValues(Reimbursement request) {
+		return new Object[] { request.getId(), request.getUsername(),
+				request.getStatus(), request.getIsUrgent(), request.getName(), request.getFirstName(),
 				request.getLastName(), request.getDeptName(), request.getStartDate(), request.getStartTime(),
-				request.getLocation(), request.getDescription(), request.getCost(), grade, request.getType().toString(),
-				request.getFileURIs(), request.getApprovalMsgURI(), request.getWorkTimeMissed(),
-				request.getReimburseAmount(), supervisorApproval, deptHeadApproval, benCoApproval, request.getReason(),
+				request.getLocation(), request.getDescription(), request.getCost(), request.getGradingFormat(),
+				request.getType(), request.getFileURIs(), request.getApprovalMsgURI(), request.getWorkTimeMissed(),
+				request.getReimburseAmount(), request.getSupervisorApproval(), request.getDeptHeadApproval(),
+				request.getBenCoApproval(), request.getReason(),
 				request.getDeadline().toInstant(ZoneOffset.UTC), request.getFinalGrade(), request.getIsPassing(),
-				request.getPresFileName(), finalApproval, request.getFinalReimburseAmount(),
-				request.getFinalReimburseAmountReason(), request.getNeedsEmployeeReview(), request.getEmployeeAgrees());
+				request.getPresFileName(), request.getFinalApproval(), request.getFinalReimburseAmount(),
+				request.getFinalReimburseAmountReason(), request.getNeedsEmployeeReview(), request.getEmployeeAgrees(),
+				request.getVersion() };
+	}
 
-		session.execute(bound);
+	private void checkApplied(Reimbursement request, Boolean applied) {
+		CONFLICTS.recordUpdate(TABLE, applied);
+		if (!applied) {
+			throw new ConcurrentUpdateException("Request " + request.getId() + " was changed by another update.");
+		}
+		request.setVersion(nextVersion(request));
+		request.clearChanges();
+	}
+
+	private static Long nextVersion(Reimbursement request) {
+		return (request.getVersion() == null) ? 1L : request.getVersion() + 1;
+	}
+
+	/**
+	 * An update that only writes the request's changed columns. Files added to
+	 * the end of the list are appended rather than writing the whole list.
+	 */
+	private static class Update {
+		private final SimpleStatement statement;
+		private final Object[] values;
+
+		private Update(Reimbursement request) {
+			Set<RequestField> fields = request.changedFields();
+			List<String> addedFiles = fields.contains(RequestField.FILE_URIS) ? null : request.addedFileURIs();
+			Boolean append = addedFiles != null && !addedFiles.isEmpty();
+
+			List<Object> bound = new ArrayList<>();
+			for (RequestField field : fields) {
+				bound.add(valueOf(request, field));
+			}
+			if (append) {
+				bound.add(addedFiles);
+			}
+			bound.add(nextVersion(request));
+			bound.add(request.getId());
+			bound.add(request.getUsername());
+			bound.add(request.getVersion());
+
+			this.statement = UPDATES.computeIfAbsent(fields + (append ? "+" : ""), (key) -> build(fields, append));
+			this.values = bound.toArray();
+		}
+
+		private static SimpleStatement build(Set<RequestField> fields, Boolean append) {
+			StringBuilder query = new StringBuilder("UPDATE request SET ");
+			for (RequestField field : fields) {
+				query.append(field.getColumn()).append(" = ?, ");
+			}
+			if (append) {
+				query.append("fileuris = fileuris + ?, ");
+			}
+			query.append("version = ? WHERE id = ? AND username = ? IF version = ?;");
+			return new SimpleStatementBuilder(query.toString())
+					.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+		}
+
+		private static Object valueOf(Reimbursement request, RequestField field) {
+			switch (field) {
+			case STATUS:
+				return request.getStatus();
+			case IS_URGENT:
+				return request.getIsUrgent();
+			case NAME:
+				return request.getName();
+			case FIRST_NAME:
+				return request.getFirstName();
+			case LAST_NAME:
+				return request.getLastName();
+			case DEPT_NAME:
+				return request.getDeptName();
+			case START_DATE:
+				return request.getStartDate();
+			case START_TIME:
+				return request.getStartTime();
+			case LOCATION:
+				return request.getLocation();
+			case DESCRIPTION:
+				return request.getDescription();
+			case COST:
+				return request.getCost();
+			case GRADING_FORMAT:
+				return request.getGradingFormat();
+			case TYPE:
+				return request.getType();
+			case FILE_URIS:
+				return request.getFileURIs();
+			case APPROVAL_MSG_URI:
+				return request.getApprovalMsgURI();
+			case WORK_TIME_MISSED:
+				return request.getWorkTimeMissed();
+			case REIMBURSE_AMOUNT:
+				return request.getReimburseAmount();
+			case SUPERVISOR_APPROVAL:
+				return request.getSupervisorApproval();
+			case DEPT_HEAD_APPROVAL:
+				return request.getDeptHeadApproval();
+			case BENCO_APPROVAL:
+				return request.getBenCoApproval();
+			case REASON:
+				return request.getReason();
+			case DEADLINE:
+				return request.getDeadline().toInstant(ZoneOffset.UTC);
+			case FINAL_GRADE:
+				return request.getFinalGrade();
+			case IS_PASSING:
+				return request.getIsPassing();
+			case PRES_FILE_NAME:
+				return request.getPresFileName();
+			case FINAL_APPROVAL:
+				return request.getFinalApproval();
+			case FINAL_REIMBURSE_AMOUNT:
+				return request.getFinalReimburseAmount();
+			case FINAL_REIMBURSE_AMOUNT_REASON:
+				return request.getFinalReimburseAmountReason();
+			case NEEDS_EMPLOYEE_REVIEW:
+				return request.getNeedsEmployeeReview();
+			case EMPLOYEE_AGREES:
+				return request.getEmployeeAgrees();
+			default:
+				throw new IllegalArgumentException("No column for " + field);
+			}
+		}
 	}
 
 }
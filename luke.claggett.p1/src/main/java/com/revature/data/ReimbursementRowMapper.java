@@ -0,0 +1,176 @@
+package com.revature.data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.revature.beans.Approval;
+import com.revature.beans.EventType;
+import com.revature.beans.GradingFormat;
+import com.revature.beans.Reimbursement;
+import com.revature.beans.ReimbursementRequest;
+import com.revature.beans.ReimbursementStatus;
+
+/**
+ * Turns request rows into Reimbursements. The column indexes are looked up
+ * once for each set of column definitions the driver hands back rather than by
+ * name on every row. The enums, approvals and grading format are decoded by
+ * the codecs in RequestCodecs. Mapped requests start with no changes, so
+ * saving them only writes what is changed afterwards.
+ */
+public class ReimbursementRowMapper {
+	// A statement's rows share one ColumnDefinitions, and there are only a few statements
+	private static final Integer MAX_DEFINITIONS = 8;
+
+	private volatile Columns[] known = new Columns[0];
+
+	/**
+	 * Map the row to a request
+	 * @param row The row of the request table
+	 * @return The request, or null if there is no row
+	 */
+	public Reimbursement map(Row row) {
+
+		if (row == null) {
+			return null;
+		}
+
+		Columns c = columnsOf(row.getColumnDefinitions());
+
+		Reimbursement request = new ReimbursementRequest();
+		request.setId(row.getUuid(c.id));
+		request.setUsername(row.getString(c.username));
+		request.setStatus(row.get(c.status, ReimbursementStatus.class));
+		request.setIsUrgent(row.getBoolean(c.isUrgent));
+		request.setName(row.getString(c.name));
+		request.setFirstName(row.getString(c.firstName));
+		request.setLastName(row.getString(c.lastName));
+		request.setDeptName(row.getString(c.deptName));
+		request.setStartDate(row.getLocalDate(c.startDate));
+		request.setStartTime(row.getLocalTime(c.startTime));
+		request.setLocation(row.getString(c.location));
+		request.setDescription(row.getString(c.description));
+		request.setCost(row.getDouble(c.cost));
+		request.setGradingFormat(row.get(c.gradingFormat, GradingFormat.class));
+		request.setType(row.get(c.type, EventType.class));
+		request.setFileURIs(row.getList(c.fileURIs, String.class));
+		request.setApprovalMsgURI(row.getString(c.approvalMsgURI));
+		request.setWorkTimeMissed(row.getString(c.workTimeMissed));
+		request.setReimburseAmount(row.getDouble(c.reimburseAmount));
+		request.setSupervisorApproval(row.get(c.supervisorApproval, Approval.class));
+		request.setDeptHeadApproval(row.get(c.deptHeadApproval, Approval.class));
+		request.setBenCoApproval(row.get(c.benCoApproval, Approval.class));
+
+		request.setReason(row.getString(c.reason));
+		request.setDeadline(LocalDateTime.ofInstant(row.getInstant(c.deadline), ZoneOffset.UTC));
+		request.setFinalGrade(row.getString(c.finalGrade));
+		request.setIsPassing(row.getBoolean(c.isPassing));
+		request.setPresFileName(row.getString(c.presFileName));
+		request.setFinalApproval(row.get(c.finalApproval, Approval.class));
+		request.setFinalReimburseAmount(row.getDouble(c.finalReimburseAmount));
+		request.setFinalReimburseAmountReason(row.getString(c.finalReimburseAmountReason));
+		request.setNeedsEmployeeReview(row.getBoolean(c.needsEmployeeReview));
+		request.setEmployeeAgrees(row.getBoolean(c.employeeAgrees));
+		request.setVersion(row.get(c.version, Long.class));
+		request.clearChanges();
+		return request;
+	}
+
+	/**
+	 * Find the column indexes for the definitions, looking them up the first
+	 * time the definitions are seen
+	 */
+	private Columns columnsOf(ColumnDefinitions definitions) {
+		Columns[] current = known;
+		for (Columns columns : current) {
+			if (columns.definitions == definitions) {
+				return columns;
+			}
+		}
+
+		Columns columns = new Columns(definitions);
+		synchronized (this) {
+			Columns[] grown = new Columns[Math.min(known.length + 1, MAX_DEFINITIONS)];
+			// Drop the oldest definitions once full, in case the driver hands back new ones
+			System.arraycopy(known, Math.max(0, known.length + 1 - MAX_DEFINITIONS), grown, 0, grown.length - 1);
+			grown[grown.length - 1] = columns;
+			known = grown;
+		}
+		return columns;
+	}
+
+	private static class Columns {
+		private final ColumnDefinitions definitions;
+		private final int id;
+		private final int username;
+		private final int status;
+		private final int isUrgent;
+		private final int name;
+		private final int firstName;
+		private final int lastName;
+		private final int deptName;
+		private final int startDate;
+		private final int startTime;
+		private final int location;
+		private final int description;
+		private final int cost;
+		private final int gradingFormat;
+		private final int type;
+		private final int fileURIs;
+		private final int approvalMsgURI;
+		private final int workTimeMissed;
+		private final int reimburseAmount;
+		private final int supervisorApproval;
+		private final int deptHeadApproval;
+		private final int benCoApproval;
+		private final int reason;
+		private final int deadline;
+		private final int finalGrade;
+		private final int isPassing;
+		private final int presFileName;
+		private final int finalApproval;
+		private final int finalReimburseAmount;
+		private final int finalReimburseAmountReason;
+		private final int needsEmployeeReview;
+		private final int employeeAgrees;
+		private final int version;
+
+		private Columns(ColumnDefinitions definitions) {
+			this.definitions = definitions;
+			id = definitions.firstIndexOf("id");
+			username = definitions.firstIndexOf("username");
+			status = definitions.firstIndexOf("status");
+			isUrgent = definitions.firstIndexOf("isurgent");
+			name = definitions.firstIndexOf("name");
+			firstName = definitions.firstIndexOf("firstname");
+			lastName = definitions.firstIndexOf("lastname");
+			deptName = definitions.firstIndexOf("deptname");
+			startDate = definitions.firstIndexOf("startdate");
+			startTime = definitions.firstIndexOf("starttime");
+			location = definitions.firstIndexOf("location");
+			description = definitions.firstIndexOf("description");
+			cost = definitions.firstIndexOf("cost");
+			gradingFormat = definitions.firstIndexOf("gradingformat");
+			type = definitions.firstIndexOf("type");
+			fileURIs = definitions.firstIndexOf("fileuris");
+			approvalMsgURI = definitions.firstIndexOf("approvalmsguri");
+			workTimeMissed = definitions.firstIndexOf("worktimemissed");
+			reimburseAmount = definitions.firstIndexOf("reimburseamount");
+			supervisorApproval = definitions.firstIndexOf("supervisorapproval");
+			deptHeadApproval = definitions.firstIndexOf("deptheadapproval");
+			benCoApproval = definitions.firstIndexOf("bencoapproval");
+			reason = definitions.firstIndexOf("reason");
+			deadline = definitions.firstIndexOf("deadline");
+			finalGrade = definitions.firstIndexOf("finalgrade");
+			isPassing = definitions.firstIndexOf("ispassing");
+			presFileName = definitions.firstIndexOf("presfilename");
+			finalApproval = definitions.firstIndexOf("finalapproval");
+			finalReimburseAmount = definitions.firstIndexOf("finalreimburseamount");
+			finalReimburseAmountReason = definitions.firstIndexOf("finalreimburseamountreason");
+			needsEmployeeReview = definitions.firstIndexOf("needsemployeereview");
+			employeeAgrees = definitions.firstIndexOf("employeeagrees");
+			version = definitions.firstIndexOf("version");
+		}
+	}
+}
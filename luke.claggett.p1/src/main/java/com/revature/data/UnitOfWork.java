@@ -0,0 +1,139 @@
+package com.revature.data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.revature.util.CassandraUtil;
+import com.revature.util.StatementRegistry;
+
+/**
+ * Collects the writes one service call makes through the DAOs and sends them
+ * to the database in a single round trip. Writes that span partitions go in a
+ * logged batch so they are applied together or not at all; writes to a single
+ * partition are already atomic and skip the batch log.
+ *
+ * Conditional updates can't share a batch with other partitions, so the
+ * versioned request and user updates are never added to a unit of work.
+ */
+public class UnitOfWork {
+	private final List<Write> writes = new ArrayList<>();
+	private final List<Runnable> committed = new ArrayList<>();
+
+	/**
+	 * Add a write to the unit of work
+	 * @param statement The statement to execute
+	 * @param partition The table and partition key the statement writes to
+	 * @param values    The values for the statement's bind markers
+	 */
+	void add(SimpleStatement statement, String partition, Object... values) {
+		writes.add(new Write(statement, partition, values));
+	}
+
+	/**
+	 * Run the action once every write has been applied
+	 */
+	void onCommit(Runnable action) {
+		committed.add(action);
+	}
+
+	/**
+	 * @return How many writes are waiting to be committed
+	 */
+	public Integer size() {
+		return writes.size();
+	}
+
+	/**
+	 * Apply every write collected so far. A single write is executed on its own.
+	 */
+	public void commit() {
+		if (!writes.isEmpty()) {
+			StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+			if (writes.size() == 1) {
+				Write write = writes.get(0);
+				statements.execute(write.statement, write.values);
+			} else {
+				List<BoundStatement> bound = new ArrayList<>();
+				for (Write write : writes) {
+					bound.add(statements.bind(write.statement, write.values));
+				}
+				statements.execute(batchOf(bound));
+			}
+		}
+		finish();
+	}
+
+	/**
+	 * Apply every write collected so far without blocking
+	 * @return A stage that completes once the writes are applied
+	 */
+	public CompletionStage<Void> commitAsync() {
+		if (writes.isEmpty()) {
+			finish();
+			return CompletableFuture.completedFuture(null);
+		}
+		StatementRegistry statements = CassandraUtil.getInstance().getStatements();
+		if (writes.size() == 1) {
+			Write write = writes.get(0);
+			return statements.executeAsync(write.statement, write.values).thenApply((rs) -> {
+				finish();
+				return null;
+			});
+		}
+
+		List<CompletableFuture<BoundStatement>> binding = new ArrayList<>();
+		for (Write write : writes) {
+			binding.add(statements.bindAsync(write.statement, write.values).toCompletableFuture());
+		}
+		return CompletableFuture.allOf(binding.toArray(new CompletableFuture<?>[0])).thenCompose((bound) -> {
+			List<BoundStatement> batch = new ArrayList<>();
+			binding.forEach((statement) -> batch.add(statement.join()));
+			return statements.executeAsync(batchOf(batch));
+		}).thenApply((rs) -> {
+			finish();
+			return null;
+		});
+	}
+
+	private BatchStatement batchOf(List<BoundStatement> bound) {
+		return BatchStatement.newInstance(batchType(), bound.toArray(new BoundStatement[0]))
+				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM);
+	}
+
+	/**
+	 * @return Unlogged if every write is to the same partition, logged otherwise
+	 */
+	BatchType batchType() {
+		Set<String> partitions = new HashSet<>();
+		writes.forEach((write) -> partitions.add(write.partition));
+		return (partitions.size() == 1) ? DefaultBatchType.UNLOGGED : DefaultBatchType.LOGGED;
+	}
+
+	private void finish() {
+		writes.clear();
+		committed.forEach(Runnable::run);
+		committed.clear();
+	}
+
+	private static class Write {
+		private final SimpleStatement statement;
+		private final String partition;
+		private final Object[] values;
+
+		private Write(SimpleStatement statement, String partition, Object[] values) {
+			this.statement = statement;
+			this.partition = partition;
+			this.values = values;
+		}
+	}
+}
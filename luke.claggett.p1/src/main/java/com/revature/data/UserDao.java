@@ -1,5 +1,7 @@
 package com.revature.data;
 
+import java.util.concurrent.CompletionStage;
+
 import com.revature.beans.User;
 
 public interface UserDao {
@@ -30,4 +32,12 @@ public interface UserDao {
 	 * @param user The user to update in the database
 	 */
 	void updateUser(User user);
+
+	/**
+	 * Get the user by their username without blocking
+	 * @param username The username of the user
+	 * @return A stage that completes with the user, or null if there is none
+	 */
+	CompletionStage<User> getUserAsync(String username);
+
 }
@@ -1,24 +1,46 @@
 package com.revature.data;
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
-import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.SimpleStatementBuilder;
 import com.revature.beans.User;
 import com.revature.beans.UserType;
+import com.revature.exceptions.ConcurrentUpdateException;
 import com.revature.factory.TraceLog;
 import com.revature.util.CassandraUtil;
+import com.revature.util.ConflictMonitor;
+import com.revature.util.StatementRegistry;
 import com.revature.util.Verifier;
 
 @TraceLog
 public class UserDaoImpl implements UserDao {
-	private CqlSession session = CassandraUtil.getInstance().getSession();
+	private StatementRegistry statements = CassandraUtil.getInstance().getStatements();
 	private static final Verifier VERIFIER = new Verifier();
+	private static final ConflictMonitor CONFLICTS = ConflictMonitor.getInstance();
+	private static final String TABLE = "user";
+
+	private static final SimpleStatement GET_USER = new SimpleStatementBuilder(new StringBuilder("SELECT username, firstname, ")
+			.append("lastname, type, departmentname, supervisorusername, version ")
+			.append("FROM user WHERE username = ?;").toString()).build();
+
+	private static final SimpleStatement GET_USER_WITH_PASSWORD = new SimpleStatementBuilder(new StringBuilder("SELECT username, firstname, ")
+			.append("lastname, type, departmentname, supervisorusername, version ")
+			.append("FROM user WHERE username = ? AND password = ?;").toString()).build();
+
+	private static final SimpleStatement UPDATE_USER = new SimpleStatementBuilder(new StringBuilder("UPDATE user SET firstname=?, ")
+			.append("lastname=?, type=?, departmentname=?, supervisorusername=?, version=? ")
+			.append("WHERE username = ? IF version = ?").toString())
+			.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
+
+	private static final SimpleStatement CREATE_USER = new SimpleStatementBuilder(new StringBuilder("INSERT INTO user (username, firstname, ")
+			.append("lastname, type, departmentname, supervisorusername, version")
+			.append(") values (?, ?, ?, ?, ?, ?, ?);").toString())
+			.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
 
 	@Override
 	public User getUser(String username) {
@@ -26,50 +48,50 @@ public class UserDaoImpl implements UserDao {
 		if (!VERIFIER.verifyNotNull(username)) {
 			return null;
 		}
-		StringBuilder query = new StringBuilder("SELECT username, firstname, ")
-				.append("lastname, type, departmentname, supervisorusername, pendingbalance, awardedbalance, requests "
-						+ "FROM user WHERE username = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		BoundStatement bound = session.prepare(s).bind(username);
 
-		ResultSet rs = session.execute(bound);
+		ResultSet rs = statements.execute(GET_USER, username);
 
-		Row row = rs.one();
+		return mapRow(rs.one());
+	}
 
-		if (row == null) {
+	@Override
+	public User getUser(String username, String password) {
+
+		if (!VERIFIER.verifyNotNull(username, password)) {
 			return null;
 		}
 
-		User user = new User();
+		ResultSet rs = statements.execute(GET_USER_WITH_PASSWORD, username, password);
 
-		user.setUsername(row.getString("username"));
-		user.setFirstName(row.getString("firstname"));
-		user.setLastName(row.getString("lastname"));
-		user.setType(UserType.valueOf(row.getString("type")));
-		user.setDepartmentName(row.getString("departmentname"));
-		user.setSupervisorUsername(row.getString("supervisorusername"));
-		user.setPendingBalance(row.getDouble("pendingbalance"));
-		user.setAwardedBalance(row.getDouble("awardedbalance"));
-		user.setRequests(row.getList("requests", UUID.class));
+		return mapRow(rs.one());
+	}
 
-		return user;
+	@Override
+	public void updateUser(User user) {
+
+		// Only applied if nobody else has updated the user since it was read
+		ResultSet rs = statements.execute(UPDATE_USER, updateValues(user));
+		checkApplied(user, rs.wasApplied());
 	}
 
 	@Override
-	public User getUser(String username, String password) {
+	public void createUser(User user) {
 
-		if (!VERIFIER.verifyNotNull(username, password)) {
-			return null;
+		statements.execute(CREATE_USER, createValues(user));
+
+	}
+
+	@Override
+	public CompletionStage<User> getUserAsync(String username) {
+
+		if (!VERIFIER.verifyNotNull(username)) {
+			return CompletableFuture.completedFuture(null);
 		}
-		StringBuilder query = new StringBuilder("SELECT username, firstname, ")
-				.append("lastname, type, departmentname, supervisorusername, pendingbalance, awardedbalance, requests "
-						+ "FROM user WHERE username = ? AND password = ?;");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString()).build();
-		BoundStatement bound = session.prepare(s).bind(username, password);
 
-		ResultSet rs = session.execute(bound);
+		return statements.executeAsync(GET_USER, username).thenApply((rs) -> mapRow(rs.one()));
+	}
 
-		Row row = rs.one();
+	private User mapRow(Row row) {
 
 		if (row == null) {
 			return null;
@@ -83,42 +105,33 @@ public class UserDaoImpl implements UserDao {
 		user.setType(UserType.valueOf(row.getString("type")));
 		user.setDepartmentName(row.getString("departmentname"));
 		user.setSupervisorUsername(row.getString("supervisorusername"));
-		user.setPendingBalance(row.getDouble("pendingbalance"));
-		user.setAwardedBalance(row.getDouble("awardedbalance"));
-		user.setRequests(row.getList("requests", UUID.class));
+		user.setVersion(row.get("version", Long.class));
 
 		return user;
 	}
 
-	@Override
-	public void updateUser(User user) {
-
-		StringBuilder query = new StringBuilder("UPDATE user SET firstname=?, ").append(
-				"lastname=?, type=?, departmentname=?, supervisorusername=?, pendingbalance=?, awardedbalance=?, requests=? "
-						+ "WHERE username = ?");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		BoundStatement bound = session.prepare(s).bind(user.getFirstName(), user.getLastName(),
+	private Object[] updateValues(User user) {
+		return new Object[] { user.getFirstName(), user.getLastName(),
 				user.getType().toString(), user.getDepartmentName(), user.getSupervisorUsername(),
-				user.getPendingBalance(), user.getAwardedBalance(), user.getRequests(), user.getUsername());
-
-		// Execute the query
-		session.execute(bound);
+				nextVersion(user),
+				user.getUsername(), user.getVersion() };
 	}
 
-	@Override
-	public void createUser(User user) {
-
-		StringBuilder query = new StringBuilder("INSERT INTO user (username, firstname, ")
-				.append("lastname, type, departmentname, supervisorusername, pendingbalance, awardedbalance, requests")	
-				.append(") values (?, ?, ?, ?, ?, ?, ?, ?, ?);");
-		SimpleStatement s = new SimpleStatementBuilder(query.toString())
-				.setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).build();
-		BoundStatement bound = session.prepare(s).bind(user.getUsername(),
+	private Object[] createValues(User user) {
+		return new Object[] { user.getUsername(),
 				user.getFirstName(), user.getLastName(), user.getType().toString(), user.getDepartmentName(),
-				user.getSupervisorUsername(), user.getPendingBalance(), user.getAwardedBalance(), user.getRequests());
+				user.getSupervisorUsername(), user.getVersion() };
+	}
 
-		session.execute(bound);
+	private void checkApplied(User user, Boolean applied) {
+		CONFLICTS.recordUpdate(TABLE, applied);
+		if (!applied) {
+			throw new ConcurrentUpdateException("User " + user.getUsername() + " was changed by another update.");
+		}
+		user.setVersion(nextVersion(user));
+	}
 
+	private Long nextVersion(User user) {
+		return (user.getVersion() == null) ? 1L : user.getVersion() + 1;
 	}
 }
@@ -0,0 +1,17 @@
+package com.revature.exceptions;
+
+/**
+ * Exception used whenever a conditional update finds that the row was changed
+ * by someone else since it was read
+ *
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+	/**
+	 * Default value that RuntimeException wants there
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public ConcurrentUpdateException(String exception) {
+		super(exception);
+	}
+}
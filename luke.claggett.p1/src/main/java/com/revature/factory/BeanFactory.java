@@ -2,6 +2,9 @@ package com.revature.factory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,6 +14,8 @@ public class BeanFactory {
 	private static Logger log = LogManager.getLogger(BeanFactory.class);
 	// The instance of the factory
 	private static BeanFactory beanFactory = null;
+	// The constructor of each class's generated wrapper, or empty if it doesn't have one
+	private Map<Class<?>, Optional<Constructor<?>>> wrappers = new ConcurrentHashMap<>();
 
 	// Private Constructor
 	private BeanFactory() {
@@ -37,9 +42,16 @@ public class BeanFactory {
 			// This means each class needs a no parameters constructor
 			constructor = clazz.getConstructor();
 
-			// Create a proxy of the interface that the class implements
-			object = Proxy.newProxyInstance(inter.getClassLoader(), new Class[] { inter },
-					new TraceLogProxy(constructor.newInstance()));
+			Object bean = constructor.newInstance();
+			Optional<Constructor<?>> wrapper = wrappers.computeIfAbsent(clazz, this::findWrapper);
+			if (wrapper.isPresent() && inter.isAssignableFrom(wrapper.get().getDeclaringClass())) {
+				// Wrap it in the class TraceLogProcessor wrote for it, which calls it without reflection
+				object = wrapper.get().newInstance(bean);
+			} else {
+				// Create a proxy of the interface that the class implements
+				object = Proxy.newProxyInstance(inter.getClassLoader(), new Class[] { inter },
+						new TraceLogProxy(bean));
+			}
 			
 		} catch (Exception e) {
 			log.error("getObject has thrown exception " + e);
@@ -53,4 +65,18 @@ public class BeanFactory {
 		}
 		return object;
 	}
+
+	/**
+	 * Classes TraceLogProcessor didn't run on, such as ones built by an IDE
+	 * without annotation processing, don't have a wrapper and get a proxy instead
+	 */
+	private Optional<Constructor<?>> findWrapper(Class<?> clazz) {
+		String name = clazz.getName().replace('$', '_') + TraceLog.WRAPPER_SUFFIX;
+		try {
+			return Optional.of(Class.forName(name, true, clazz.getClassLoader()).getConstructor(clazz));
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			log.debug("No generated wrapper for " + clazz.getName() + ", using a proxy");
+			return Optional.empty();
+		}
+	}
 }
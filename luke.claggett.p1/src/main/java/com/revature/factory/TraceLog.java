@@ -9,4 +9,8 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface TraceLog {
 	//Annotation used to make sure class is marked for trace logging with BeanFactory
+
+	//TraceLogProcessor writes a wrapper for each marked class named after it with this on the end.
+	//A nested class's outer class names come first, joined with underscores: Outer_Inner_TraceLog
+	public static final String WRAPPER_SUFFIX = "_TraceLog";
 }
@@ -0,0 +1,310 @@
+package com.revature.factory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes a wrapper for each @TraceLog class while it is compiled. The wrapper
+ * implements the class's interfaces, logs each call the way TraceLogProxy
+ * does and calls the class directly, so BeanFactory can hand it out instead
+ * of a proxy that goes through Method.invoke on every call.
+ *
+ * Classes the wrapper couldn't call, such as private or generic ones, are
+ * skipped and BeanFactory keeps using a proxy for them.
+ */
+@SupportedAnnotationTypes("com.revature.factory.TraceLog")
+public class TraceLogProcessor extends AbstractProcessor {
+	// The order Method.toString lists modifiers in
+	private static final Modifier[] MODIFIER_ORDER = { Modifier.PUBLIC, Modifier.PROTECTED, Modifier.PRIVATE,
+			Modifier.ABSTRACT, Modifier.STATIC, Modifier.FINAL, Modifier.SYNCHRONIZED, Modifier.NATIVE,
+			Modifier.STRICTFP, Modifier.DEFAULT };
+	// Named rather than loaded, since the rest of the package isn't built yet when this runs
+	private static final String WRAPPER = "com.revature.factory.TraceLogWrapper";
+	// The Object methods a proxy passes to its handler too
+	private static final String[] OBJECT_METHODS = { "equals", "hashCode", "toString" };
+
+	private Elements elements;
+	private Types types;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		elements = processingEnv.getElementUtils();
+		types = processingEnv.getTypeUtils();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() != ElementKind.CLASS) {
+					continue;
+				}
+				TypeElement clazz = (TypeElement) element;
+				String problem = getProblem(clazz);
+				if (problem != null) {
+					note(clazz, "No wrapper written for " + clazz.getQualifiedName() + ", it " + problem
+							+ ". BeanFactory will use a proxy.");
+					continue;
+				}
+				try {
+					write(clazz);
+				} catch (IOException e) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"Couldn't write the wrapper for " + clazz.getQualifiedName() + ": " + e, clazz);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return Why a wrapper can't be written for the class, or null if it can
+	 */
+	private String getProblem(TypeElement clazz) {
+		if (clazz.getModifiers().contains(Modifier.ABSTRACT)) {
+			return "is abstract";
+		}
+		if (!clazz.getTypeParameters().isEmpty()) {
+			return "has type parameters";
+		}
+		if (clazz.getInterfaces().isEmpty()) {
+			return "doesn't implement an interface";
+		}
+		for (Element outer = clazz; outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+			TypeElement type = (TypeElement) outer;
+			if (type.getModifiers().contains(Modifier.PRIVATE)) {
+				return "can't be seen from its package";
+			}
+			if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+					|| (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)
+							&& type.getEnclosingElement().getKind() == ElementKind.CLASS)) {
+				return "needs an outer instance";
+			}
+		}
+		for (TypeMirror inter : clazz.getInterfaces()) {
+			if (((DeclaredType) inter).asElement().getModifiers().contains(Modifier.PRIVATE)) {
+				return "implements a private interface";
+			}
+		}
+		return null;
+	}
+
+	private void write(TypeElement clazz) throws IOException {
+		PackageElement pkg = elements.getPackageOf(clazz);
+		String name = getWrapperName(clazz);
+		String qualifiedName = pkg.isUnnamed() ? name : pkg.getQualifiedName() + "." + name;
+		DeclaredType type = (DeclaredType) clazz.asType();
+		List<ExecutableElement> methods = getMethods(clazz);
+
+		List<String> interfaces = new ArrayList<>();
+		for (TypeMirror inter : clazz.getInterfaces()) {
+			interfaces.add(inter.toString());
+		}
+
+		try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, clazz)
+				.openWriter())) {
+			out.println("// Written by " + TraceLogProcessor.class.getName() + " for " + clazz.getQualifiedName()
+					+ ". Don't edit it.");
+			if (!pkg.isUnnamed()) {
+				out.println("package " + pkg.getQualifiedName() + ";");
+			}
+			out.println();
+			out.println("public final class " + name + " extends " + WRAPPER + " implements "
+					+ String.join(", ", interfaces) + " {");
+			for (int i = 0; i < methods.size(); i++) {
+				out.println("\tprivate static final String SIGNATURE_" + i + " = "
+						+ elements.getConstantExpression(getSignature(methods.get(i))) + ";");
+			}
+			out.println();
+			out.println("\tprivate final " + clazz.getQualifiedName() + " target;");
+			out.println();
+			out.println("\tpublic " + name + "(" + clazz.getQualifiedName() + " target) {");
+			out.println("\t\tsuper(target);");
+			out.println("\t\tthis.target = target;");
+			out.println("\t}");
+			for (int i = 0; i < methods.size(); i++) {
+				ExecutableElement method = methods.get(i);
+				writeMethod(out, method, (ExecutableType) types.asMemberOf(type, method), "SIGNATURE_" + i);
+			}
+			out.println("}");
+		}
+	}
+
+	private void writeMethod(PrintWriter out, ExecutableElement method, ExecutableType type, String signature) {
+		List<String> params = new ArrayList<>();
+		List<String> args = new ArrayList<>();
+		List<? extends TypeMirror> paramTypes = type.getParameterTypes();
+		for (int i = 0; i < paramTypes.size(); i++) {
+			String paramType = paramTypes.get(i).toString();
+			if (method.isVarArgs() && i == paramTypes.size() - 1) {
+				paramType = ((ArrayType) paramTypes.get(i)).getComponentType() + "...";
+			}
+			params.add(paramType + " arg" + i);
+			args.add("arg" + i);
+		}
+		List<String> typeVariables = new ArrayList<>();
+		for (TypeVariable variable : type.getTypeVariables()) {
+			String bound = variable.getUpperBound().toString();
+			typeVariables.add(bound.equals(Object.class.getName()) ? variable.toString()
+					: variable + " extends " + bound);
+		}
+		List<String> thrown = new ArrayList<>();
+		for (TypeMirror thrownType : type.getThrownTypes()) {
+			thrown.add(thrownType.toString());
+		}
+		Boolean returnsVoid = type.getReturnType().getKind() == TypeKind.VOID;
+		String call = "target." + method.getSimpleName() + "(" + String.join(", ", args) + ")";
+
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic " + (typeVariables.isEmpty() ? "" : "<" + String.join(", ", typeVariables) + "> ")
+				+ type.getReturnType() + " " + method.getSimpleName() + "(" + String.join(", ", params) + ")"
+				+ (thrown.isEmpty() ? "" : " throws " + String.join(", ", thrown)) + " {");
+		out.println("\t\tboolean trace = log.isTraceEnabled();");
+		out.println("\t\tif (trace) {");
+		out.println("\t\t\tcalled(" + signature + ", "
+				+ (args.isEmpty() ? "null" : "new Object[] { " + String.join(", ", args) + " }") + ");");
+		out.println("\t\t}");
+		out.println("\t\ttry {");
+		if (returnsVoid) {
+			out.println("\t\t\t" + call + ";");
+			out.println("\t\t\tif (trace) {");
+			out.println("\t\t\t\treturned(" + signature + ");");
+			out.println("\t\t\t}");
+		} else {
+			out.println("\t\t\t" + type.getReturnType() + " retObject = " + call + ";");
+			out.println("\t\t\tif (trace) {");
+			out.println("\t\t\t\treturned(" + signature + ", retObject);");
+			out.println("\t\t\t}");
+			out.println("\t\t\treturn retObject;");
+		}
+		out.println("\t\t} catch (Throwable e) {");
+		out.println("\t\t\tthrew(" + signature + ", e);");
+		out.println("\t\t\tthrow e;");
+		out.println("\t\t}");
+		out.println("\t}");
+	}
+
+	/**
+	 * Every method a proxy of the class's interfaces would be called with,
+	 * starting with the Object ones a proxy always passes on as Object's
+	 */
+	private List<ExecutableElement> getMethods(TypeElement clazz) {
+		Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+		TypeElement object = elements.getTypeElement(Object.class.getName());
+		for (ExecutableElement method : ElementFilter.methodsIn(object.getEnclosedElements())) {
+			for (String name : OBJECT_METHODS) {
+				if (method.getSimpleName().contentEquals(name)) {
+					addMethod(methods, clazz, method);
+				}
+			}
+		}
+		for (TypeMirror inter : clazz.getInterfaces()) {
+			addMethods(methods, clazz, (TypeElement) ((DeclaredType) inter).asElement());
+		}
+		return new ArrayList<>(methods.values());
+	}
+
+	private void addMethods(Map<String, ExecutableElement> methods, TypeElement clazz, TypeElement inter) {
+		for (ExecutableElement method : ElementFilter.methodsIn(inter.getEnclosedElements())) {
+			if (!method.getModifiers().contains(Modifier.STATIC) && !method.getModifiers().contains(Modifier.PRIVATE)) {
+				addMethod(methods, clazz, method);
+			}
+		}
+		for (TypeMirror superInter : inter.getInterfaces()) {
+			addMethods(methods, clazz, (TypeElement) ((DeclaredType) superInter).asElement());
+		}
+	}
+
+	private void addMethod(Map<String, ExecutableElement> methods, TypeElement clazz, ExecutableElement method) {
+		// Methods that take the same parameters in the class are the same method, whichever interface says so
+		ExecutableType type = (ExecutableType) types.asMemberOf((DeclaredType) clazz.asType(), method);
+		StringBuilder key = new StringBuilder(method.getSimpleName());
+		for (TypeMirror param : type.getParameterTypes()) {
+			key.append(',').append(types.erasure(param));
+		}
+		methods.putIfAbsent(key.toString(), method);
+	}
+
+	/**
+	 * @return What Method.toString would say for the method, which is what TraceLogProxy logs
+	 */
+	private String getSignature(ExecutableElement method) {
+		StringBuilder signature = new StringBuilder();
+		for (Modifier modifier : MODIFIER_ORDER) {
+			if (method.getModifiers().contains(modifier)) {
+				signature.append(modifier).append(' ');
+			}
+		}
+		signature.append(getTypeName(method.getReturnType())).append(' ')
+				.append(elements.getBinaryName((TypeElement) method.getEnclosingElement())).append('.')
+				.append(method.getSimpleName()).append('(');
+		List<String> params = new ArrayList<>();
+		method.getParameters().forEach((param) -> params.add(getTypeName(param.asType())));
+		signature.append(String.join(",", params)).append(')');
+		if (!method.getThrownTypes().isEmpty()) {
+			List<String> thrown = new ArrayList<>();
+			method.getThrownTypes().forEach((thrownType) -> thrown.add(getTypeName(thrownType)));
+			signature.append(" throws ").append(String.join(",", thrown));
+		}
+		return signature.toString();
+	}
+
+	/**
+	 * @return What Class.getTypeName would say for the erased type
+	 */
+	private String getTypeName(TypeMirror type) {
+		TypeMirror erased = types.erasure(type);
+		if (erased.getKind() == TypeKind.ARRAY) {
+			return getTypeName(((ArrayType) erased).getComponentType()) + "[]";
+		}
+		if (erased.getKind() == TypeKind.DECLARED) {
+			return elements.getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+		}
+		return erased.toString();
+	}
+
+	/**
+	 * The name BeanFactory looks for, see TraceLog.WRAPPER_SUFFIX
+	 */
+	private String getWrapperName(TypeElement clazz) {
+		String name = clazz.getSimpleName().toString();
+		for (Element outer = clazz.getEnclosingElement(); outer instanceof TypeElement; outer = outer
+				.getEnclosingElement()) {
+			name = outer.getSimpleName() + "_" + name;
+		}
+		return name + TraceLog.WRAPPER_SUFFIX;
+	}
+
+	private void note(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+	}
+}
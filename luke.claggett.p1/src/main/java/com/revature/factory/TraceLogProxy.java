@@ -1,18 +1,24 @@
 package com.revature.factory;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class TraceLogProxy implements InvocationHandler{
+	// What is logged about each method, worked out the first time it is called
+	private static final Map<Method, MethodInfo> METHODS = new ConcurrentHashMap<>();
+
 	//Used to log
 	private Logger log;
 	//The object being logged
 	private Object object;
-	
+
 	public TraceLogProxy(Object object) {
 		this.object = object;
 		log = LogManager.getLogger(object.getClass());
@@ -20,37 +26,55 @@ public class TraceLogProxy implements InvocationHandler{
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		MethodInfo info = METHODS.computeIfAbsent(method, MethodInfo::new);
+		// Checked once per call, so nothing below is built when tracing is off. The arguments and
+		// return values can be whole requests, which are expensive to turn into strings.
+		boolean trace = log.isTraceEnabled();
 		Object retObject = null;
 		try {
 			//If the method is called with no parameters
 			if (args == null) {
-				log.trace(method + " has been called. Parameters: None");
+				if (trace) {
+					log.trace(info.signature + " has been called. Parameters: None");
+				}
 				retObject = method.invoke(object);
-			} 
+			}
 			//The method is called with parameters
 			else {
-				log.trace(method + " has been called. Parameters: " + Arrays.toString(args));
+				if (trace) {
+					log.trace(info.signature + " has been called. Parameters: " + Arrays.toString(args));
+				}
 				retObject = method.invoke(object, args);
 			}
 		} catch(Exception e) {
-			log.error(method + " threw exception: " + e);
-			//Loop through and log the stack trace
-			for (StackTraceElement element : e.getStackTrace()) {
-				log.warn(element);
+			TraceLogWrapper.threw(log, info.signature, e);
+			//Throw what the method threw rather than the reflection wrapper, so
+			//callers can catch the real exception through the proxy
+			if (e instanceof InvocationTargetException && e.getCause() != null) {
+				throw e.getCause();
 			}
-			//If the exception has a wrapped exception
-			if (e.getCause() != null) {
-				Throwable cause = e.getCause();
-				log.error(method + " threw wrapped exception: " + cause);
-				//Loop through and log the wrapped stack trace
-				for (StackTraceElement element : cause.getStackTrace()) {
-					log.warn(element);
-				}
-				//Throw the exception as is
-				throw e;
+			throw e;
+		}
+		if (trace) {
+			if (info.returnsVoid) {
+				log.trace(info.signature + " has returned");
+			} else {
+				log.trace(info.signature + " is returning with Object: " + retObject);
 			}
 		}
-		log.trace(method + " is returning with Object: " + retObject);
 		return retObject;
 	}
+
+	/**
+	 * Method.toString builds the whole signature again on every call, so it is kept here instead
+	 */
+	private static class MethodInfo {
+		private final String signature;
+		private final Boolean returnsVoid;
+
+		MethodInfo(Method method) {
+			this.signature = method.toString();
+			this.returnsVoid = method.getReturnType().equals(Void.TYPE);
+		}
+	}
 }
@@ -0,0 +1,60 @@
+package com.revature.factory;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * What the wrappers TraceLogProcessor writes for @TraceLog classes have in
+ * common. They log the same lines TraceLogProxy does, but call the bean
+ * directly instead of through reflection.
+ */
+public abstract class TraceLogWrapper {
+	//Used to log, under the bean's class like TraceLogProxy
+	protected final Logger log;
+
+	protected TraceLogWrapper(Object object) {
+		log = LogManager.getLogger(object.getClass());
+	}
+
+	/**
+	 * @param args The arguments, or null if the method takes none
+	 */
+	protected void called(String signature, Object[] args) {
+		if (args == null) {
+			log.trace(signature + " has been called. Parameters: None");
+		} else {
+			log.trace(signature + " has been called. Parameters: " + Arrays.toString(args));
+		}
+	}
+
+	protected void returned(String signature) {
+		log.trace(signature + " has returned");
+	}
+
+	protected void returned(String signature, Object retObject) {
+		log.trace(signature + " is returning with Object: " + retObject);
+	}
+
+	protected void threw(String signature, Throwable e) {
+		threw(log, signature, e);
+	}
+
+	static void threw(Logger log, String signature, Throwable e) {
+		log.error(signature + " threw exception: " + e);
+		//Loop through and log the stack trace
+		for (StackTraceElement element : e.getStackTrace()) {
+			log.warn(element);
+		}
+		//If the exception has a wrapped exception
+		if (e.getCause() != null) {
+			Throwable cause = e.getCause();
+			log.error(signature + " threw wrapped exception: " + cause);
+			//Loop through and log the wrapped stack trace
+			for (StackTraceElement element : cause.getStackTrace()) {
+				log.warn(element);
+			}
+		}
+	}
+}
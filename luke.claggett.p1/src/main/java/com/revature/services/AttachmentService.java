@@ -0,0 +1,33 @@
+package com.revature.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface AttachmentService {
+
+	/**
+	 * Store an extra file. Files are stored once, under a key made from a hash
+	 * of their contents, so a file attached to several requests is only
+	 * uploaded the first time. The file is always read and hashed, so only
+	 * someone who has the file can attach it. A small file of known length is
+	 * held in memory while it is hashed; anything else is spooled to disk.
+	 * @param file The contents of the file
+	 * @param length The length of the file in bytes, or null or negative if unknown
+	 * @param filetype The extension of the file
+	 * @param sha256 The hex SHA-256 of the file as sent by the client, or null
+	 * @return The key the file is stored under
+	 * @throws IOException If the file can't be read or isn't the length given
+	 * @throws IllegalArgumentException If the sha256 isn't a SHA-256 or doesn't match the file
+	 */
+	public String storeFile(InputStream file, Long length, String filetype, String sha256) throws IOException;
+
+	/**
+	 * Record that a request has a stored file attached. Only call this once
+	 * the request has been saved with the key, so a failed save doesn't
+	 * leave the file counted.
+	 * @param key The key storeFile returned
+	 * @param requestId The Id of the request the file is attached to
+	 */
+	public void addReference(String key, UUID requestId);
+}
@@ -0,0 +1,142 @@
+package com.revature.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.revature.data.AttachmentDao;
+import com.revature.data.AttachmentDaoImpl;
+import com.revature.factory.BeanFactory;
+import com.revature.factory.TraceLog;
+import com.revature.util.S3Util;
+
+@TraceLog
+public class AttachmentServiceImpl implements AttachmentService {
+	AttachmentDao attDao = (AttachmentDao) BeanFactory.getFactory().getObject(AttachmentDao.class,
+			AttachmentDaoImpl.class);
+	S3Util s3 = S3Util.getInstance();
+
+	private static final Logger log = LogManager.getLogger(AttachmentServiceImpl.class);
+
+	// Where uploads wait while they are hashed
+	private static final String SPOOL_DIR = System.getProperty("attachments.spoolDir",
+			System.getProperty("java.io.tmpdir"));
+	// Uploads that say they are no bigger than this are hashed in memory rather than spooled to disk
+	private static final Long MEMORY_SPOOL_BYTES = Long.getLong("attachments.memorySpoolBytes", 1024L * 1024);
+	private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+	@Override
+	public String storeFile(InputStream file, Long length, String filetype, String sha256) throws IOException {
+		// Only checked against the file, never trusted in place of reading it
+		String declared = null;
+		if (sha256 != null) {
+			declared = sha256.toLowerCase();
+			if (!SHA256.matcher(declared).matches()) {
+				throw new IllegalArgumentException("Not a SHA-256: " + sha256);
+			}
+		}
+
+		// Hashed as it is read, so whether it is a duplicate is known before anything is sent to S3
+		MessageDigest digest = newDigest();
+		InputStream hashing = new DigestInputStream(file, digest);
+		if (length != null && length >= 0 && length <= MEMORY_SPOOL_BYTES) {
+			byte[] body = readFully(hashing, length);
+			String key = keyOf(digest, declared, filetype);
+			if (!isStored(key)) {
+				s3.uploadToBucket(key, new ByteArrayInputStream(body), length);
+			}
+			return key;
+		}
+
+		Path spool = Files.createTempFile(Paths.get(SPOOL_DIR), "upload-", ".tmp");
+		try {
+			Files.copy(hashing, spool, StandardCopyOption.REPLACE_EXISTING);
+			String key = keyOf(digest, declared, filetype);
+			if (!isStored(key)) {
+				try (InputStream stored = Files.newInputStream(spool)) {
+					s3.uploadToBucket(key, stored, Files.size(spool));
+				}
+			}
+			return key;
+		} finally {
+			Files.deleteIfExists(spool);
+		}
+	}
+
+	@Override
+	public void addReference(String key, UUID requestId) {
+		attDao.addReference(key, requestId);
+	}
+
+	/**
+	 * @param digest   The digest of everything read
+	 * @param declared The SHA-256 the client sent, or null
+	 * @throws IllegalArgumentException If the file doesn't match the declared SHA-256
+	 */
+	private String keyOf(MessageDigest digest, String declared, String filetype) {
+		String hash = hex(digest.digest());
+		log.debug("Hashed upload: " + hash);
+		if (declared != null && !declared.equals(hash)) {
+			throw new IllegalArgumentException("The file doesn't match its SHA-256");
+		}
+		return "files/" + hash + "." + filetype;
+	}
+
+	private Boolean isStored(String key) {
+		// References are only written once the file is in S3, so any reference means the file is there
+		if (attDao.getReferences(key) == 0) {
+			return false;
+		}
+		log.debug("Already stored, the upload is skipped: " + key);
+		return true;
+	}
+
+	/**
+	 * Read a body of a known length
+	 * @throws IOException If the body isn't as long as it said it was
+	 */
+	private byte[] readFully(InputStream in, Long length) throws IOException {
+		byte[] body = new byte[length.intValue()];
+		int read = 0;
+		while (read < body.length) {
+			int count = in.read(body, read, body.length - read);
+			if (count < 0) {
+				throw new IOException("The upload ended after " + read + " of " + length + " bytes");
+			}
+			read += count;
+		}
+		if (in.read() >= 0) {
+			throw new IOException("The upload is longer than " + length + " bytes");
+		}
+		return body;
+	}
+
+	private MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to have SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+}
@@ -5,14 +5,15 @@ import java.time.LocalTime;
 import java.util.UUID;
 
 import com.revature.beans.ApprovalStatus;
+import com.revature.beans.AutoApprovalReport;
 import com.revature.beans.EventType;
 import com.revature.beans.GradingFormat;
+import com.revature.beans.Page;
 import com.revature.beans.Reimbursement;
+import com.revature.beans.User;
 
 public interface ReimbursementService {
 	
-	Object APPROVAL_LOCK = new Object();
-	
 	/**
 	 * Creates a request with the parameters
 	 * @param username The username of the user
@@ -49,6 +50,25 @@ public interface ReimbursementService {
 	 * @return The Request with the same id; null otherwise
 	 */
 	public Reimbursement getRequest(UUID id);
+
+	/**
+	 * Get a page of the Requests the user has made, newest first
+	 * @param username The username of the user
+	 * @param pageSize The most Requests to return, or null for the default
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of Requests; null if there is no username
+	 */
+	public Page<Reimbursement> getRequests(String username, Integer pageSize, String pagingState);
+
+	/**
+	 * Get a page of the Requests waiting on the approver. BenCos also get the
+	 * Requests waiting on any BenCo, after the ones assigned to them.
+	 * @param approver The user doing the approving
+	 * @param pageSize The most Requests to return, or null for the default
+	 * @param pagingState The paging state of the previous page, or null for the first page
+	 * @return The page of Requests; null if there is no approver
+	 */
+	public Page<Reimbursement> getPendingRequests(User approver, Integer pageSize, String pagingState);
 	
 	/**
 	 * Send the Request to the DAO to save to the database
@@ -90,4 +110,11 @@ public interface ReimbursementService {
 	 */
 	public void autoApprove();
 
+	/**
+	 * Page through every expired request and auto approve them in batches across
+	 * the worker pool, locking each request rather than every approval.
+	 * @return The backlog found by the sweep and how fast it was processed
+	 */
+	public AutoApprovalReport sweepExpiredRequests();
+
 }
@@ -3,94 +3,119 @@ package com.revature.services;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.revature.beans.Approval;
 import com.revature.beans.ApprovalStatus;
+import com.revature.beans.AutoApprovalReport;
+import com.revature.beans.Balance;
 import com.revature.beans.Department;
 import com.revature.beans.EventType;
 import com.revature.beans.Format;
 import com.revature.beans.GradingFormat;
 import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.beans.ReimbursementRequest;
 import com.revature.beans.Reimbursement;
 import com.revature.beans.ReimbursementStatus;
 import com.revature.beans.User;
+import com.revature.data.BalanceDao;
+import com.revature.data.BalanceDaoImpl;
+import com.revature.data.CachingDepartmentDao;
+import com.revature.data.CachingUserDao;
 import com.revature.data.DepartmentDao;
-import com.revature.data.DepartmentDaoImpl;
 import com.revature.data.NotificationDao;
-import com.revature.data.NotificationDaoImpl;
+import com.revature.data.QueuedNotificationDao;
 import com.revature.data.ReimbursementDao;
 import com.revature.data.ReimbursementDaoImpl;
+import com.revature.data.UnitOfWork;
 import com.revature.data.UserDao;
-import com.revature.data.UserDaoImpl;
+import com.revature.exceptions.ConcurrentUpdateException;
 import com.revature.exceptions.IllegalApprovalAttemptException;
 import com.revature.factory.BeanFactory;
 import com.revature.factory.TraceLog;
+import com.revature.util.ConflictMonitor;
+import com.revature.util.PagingToken;
+import com.revature.util.RequestLockManager;
 import com.revature.util.Verifier;
 
 @TraceLog
 public class ReimbursementServiceImpl implements ReimbursementService {
 
 	ReimbursementDao reqDao = (ReimbursementDao) BeanFactory.getFactory().getObject(ReimbursementDao.class, ReimbursementDaoImpl.class);
-	UserDao userDao = (UserDao) BeanFactory.getFactory().getObject(UserDao.class, UserDaoImpl.class);
+	UserDao userDao = (UserDao) BeanFactory.getFactory().getObject(UserDao.class, CachingUserDao.class);
 	DepartmentDao deptDao = (DepartmentDao) BeanFactory.getFactory().getObject(DepartmentDao.class,
-			DepartmentDaoImpl.class);
+			CachingDepartmentDao.class);
 	NotificationDao notDao = (NotificationDao) BeanFactory.getFactory().getObject(NotificationDao.class,
-			NotificationDaoImpl.class);
+			QueuedNotificationDao.class);
+	BalanceDao balDao = (BalanceDao) BeanFactory.getFactory().getObject(BalanceDao.class, BalanceDaoImpl.class);
 
 	private static final Logger log = LogManager.getLogger(ReimbursementServiceImpl.class);
 
 	private static final Verifier VERIFIER = new Verifier();
 
-	@Override
-	public Reimbursement createRequest(String username, String firstName, String lastName, String deptName, String name,
-			LocalDate startDate, LocalTime startTime, String location, String description, Double cost,
-			GradingFormat gradingFormat, EventType type) {
-
-		Reimbursement request = null;
-
-		if (VERIFIER.verifyStrings(username, firstName, lastName, deptName, name, location, description)) {
-
-			if (VERIFIER.verifyNotNull(startDate, startTime, cost, gradingFormat, type)
-					&& startDate.isAfter(LocalDate.now()) && cost > 0.00) {
-				User user = userDao.getUser(username);
+	private static final RequestLockManager LOCKS = RequestLockManager.getInstance();
+	private static final ConflictMonitor CONFLICTS = ConflictMonitor.getInstance();
 
-				Double reimburseAmount = cost * type.getPercent();
-				Double reimburseMax = Reimbursement.MAX_REIMBURSEMENT - user.getAwardedBalance() - user.getPendingBalance();
-				reimburseMax = (reimburseAmount > reimburseMax) ? reimburseMax : reimburseAmount;
+	// How many times an update that lost to another writer is tried before giving up
+	private static final Integer MAX_ATTEMPTS = Integer.getInteger("updates.maxAttempts", 3);
 
-				if (reimburseMax <= 0) {
-					reimburseMax = reimburseAmount;
-				}
-				log.debug("Maximum amount that can be reimbursed: " + reimburseMax);
+	// Page sizes for listing a user's requests
+	private static final Integer PAGE_SIZE = Integer.getInteger("requests.pageSize", 20);
+	private static final Integer MAX_PAGE_SIZE = Integer.getInteger("requests.maxPageSize", 100);
 
-				request = new ReimbursementRequest(username, firstName, lastName, deptName, name, startDate, startTime,
-						location, description, cost, gradingFormat, type);
-				request.setId(UUID.randomUUID());
-				request.setReimburseAmount(reimburseMax);
+	// BenCo approvals aren't assigned to anyone, so every BenCo works from one shared queue
+	private static final String BENCO_QUEUE = "#benco";
 
-				LocalDate twoWeeks = LocalDate.now().plus(Period.of(0, 0, 14));
-				request.setIsUrgent(startDate.isBefore(twoWeeks));
+	// The sweep reads this many expired requests at a time and finishes them before reading more
+	private static final Integer SWEEP_BATCH_SIZE = Integer.getInteger("autoapprove.batchSize", 50);
+	private static final Integer SWEEP_WORKERS = Integer.getInteger("autoapprove.workers", 4);
+	private static final ExecutorService SWEEP_POOL = Executors.newFixedThreadPool(SWEEP_WORKERS, (runnable) -> {
+		Thread thread = new Thread(runnable, "auto-approval");
+		thread.setDaemon(true);
+		return thread;
+	});
 
-				request.getSupervisorApproval().setUsername(user.getSupervisorUsername());
-				request.startDeadline();
-				request.getSupervisorApproval().setStatus(ApprovalStatus.AWAITING);
-				log.debug("Deadline set to " + request.getDeadline());
-				reqDao.createRequest(request);
-				notDao.createNotification(new Notification(user.getSupervisorUsername(), request.getId(),
-						"An employee has requested reimbursement!"));
-				user.getRequests().add(request.getId());
-				user.alterPendingBalance(reimburseMax);
-				log.debug("User's new pending balance: " + user.getPendingBalance());
+	@Override
+	public Reimbursement createRequest(String username, String firstName, String lastName, String deptName, String name,
+			LocalDate startDate, LocalTime startTime, String location, String description, Double cost,
+			GradingFormat gradingFormat, EventType type) {
 
-				userDao.updateUser(user);
+		Reimbursement request = null;
 
-			}
+		if (isValidRequest(username, firstName, lastName, deptName, name, startDate, startTime, location, description,
+				cost, gradingFormat, type)) {
+			// The user and their balance are read together
+			CompletableFuture<User> loading = userDao.getUserAsync(username).toCompletableFuture();
+			Balance balance = balDao.getBalanceAsync(username).toCompletableFuture().join();
+			User user = loading.join();
+
+			request = buildRequest(user, balance, username, firstName, lastName, deptName, name, startDate, startTime,
+					location, description, cost, gradingFormat, type);
+			// The request, its listings and the user's pending balance are written in one batch.
+			// The supervisor's notification goes to the outbox.
+			UnitOfWork work = new UnitOfWork();
+			reqDao.createRequest(request, work);
+			enqueue(request, Reimbursement.SUPERVISOR_INDEX, work);
+			notDao.createNotification(new Notification(user.getSupervisorUsername(), request.getId(),
+					"An employee has requested reimbursement!"));
+			balDao.addEntry(username, request.getId(), Balance.toCents(request.getReimburseAmount()), 0L, work);
+			work.commit();
 
 		}
 		log.debug("Returning request: " + request);
@@ -100,6 +125,10 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 	@Override
 	public Reimbursement changeApprovalStatus(Reimbursement request, ApprovalStatus status, String reason) {
 		Reimbursement retRequest = null;
+		// Everything that depends on the request changing waits until its conditional update succeeds.
+		// The queues and balance entries then go in one batch, and the notifications to the outbox.
+		UnitOfWork work = new UnitOfWork();
+		List<Runnable> afterUpdate = new ArrayList<>();
 		if (VERIFIER.verifyNotNull(request, status) && (request.getStatus().equals(ReimbursementStatus.ACTIVE)
 				|| request.getStatus().equals(ReimbursementStatus.APPROVED))) {
 			Approval[] approvals = request.getApprovalArray();
@@ -130,13 +159,14 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 					}
 					request.setStatus(ReimbursementStatus.DENIED);
 					request.setReason(reason);
-					User user = userDao.getUser(request.getUsername());
-					user.alterPendingBalance(request.getReimburseAmount() * -1.0);
 					reqDao.updateRequest(request);
-					userDao.updateUser(user);
 					notDao.createNotification(new Notification(request.getUsername(), request.getId(),
 							"Your request has been denied. Reason: " + reason));
 					notDao.deleteNotification(currentApproval.getUsername(), request.getId());
+					dequeue(request, i, work);
+					balDao.addEntry(request.getUsername(), request.getId(),
+							-Balance.toCents(request.getReimburseAmount()), 0L, work);
+					work.commit();
 					retRequest = request;
 					break;
 				}
@@ -161,21 +191,22 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 						nextApproval.setUsername(request.getBenCoApproval().getUsername());
 					}
 					request.setStatus(ReimbursementStatus.APPROVED);
-					notDao.createNotification(new Notification(request.getUsername(), request.getId(),
-							"Your request has been approved. Please enter your final submission when ready."));
+					afterUpdate.add(() -> notDao.createNotification(new Notification(request.getUsername(),
+							request.getId(), "Your request has been approved. Please enter your final submission when ready.")));
 				}
 				else if (i == Reimbursement.FINAL_INDEX) {
 					request.setStatus(ReimbursementStatus.AWARDED);
-					User user = userDao.getUser(request.getUsername());
 
 					if (request.getFinalReimburseAmount() == null || request.getFinalReimburseAmount() == 0.0) {
 						request.setFinalReimburseAmount(request.getReimburseAmount());
 					}
-					user.alterPendingBalance(request.getFinalReimburseAmount() * -1.0);
-					user.alterAwardedBalance(request.getFinalReimburseAmount());
-					notDao.createNotification(new Notification(request.getUsername(), request.getId(),
-							"Your request has been finalized and the amount will be awarded."));
-					userDao.updateUser(user);
+					afterUpdate.add(() -> notDao.createNotification(new Notification(request.getUsername(),
+							request.getId(), "Your request has been finalized and the amount will be awarded.")));
+					// The amount moves from pending to awarded in a single entry
+					afterUpdate.add(() -> {
+						Long awarded = Balance.toCents(request.getFinalReimburseAmount());
+						balDao.addEntry(request.getUsername(), request.getId(), -awarded, awarded, work);
+					});
 				}
 
 				if (nextApproval != null) {
@@ -183,12 +214,19 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 					request.startDeadline();
 					log.debug("New request deadline: " + request.getDeadline());
 					if (nextApproval.getUsername() != null && i != Reimbursement.BENCO_INDEX) {
-						notDao.createNotification(new Notification(nextApproval.getUsername(), request.getId(),
-								"A new request needs your approval"));
+						afterUpdate.add(() -> notDao.createNotification(new Notification(nextApproval.getUsername(),
+								request.getId(), "A new request needs your approval")));
 					}
 				}
-				notDao.deleteNotification(currentApproval.getUsername(), request.getId());
+				// Not retried on a conflict, since someone else already acted on this approval
 				reqDao.updateRequest(request);
+				notDao.deleteNotification(currentApproval.getUsername(), request.getId());
+				dequeue(request, i, work);
+				if (nextApproval != null) {
+					enqueue(request, i + 1, work);
+				}
+				afterUpdate.forEach(Runnable::run);
+				work.commit();
 				retRequest = request;
 				break;
 
@@ -211,6 +249,64 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 		return retRequest;
 	}
 
+	@Override
+	public Page<Reimbursement> getRequests(String username, Integer pageSize, String pagingState) {
+		if (username == null) {
+			return null;
+		}
+
+		if (pageSize == null || pageSize < 1) {
+			pageSize = PAGE_SIZE;
+		}
+		return reqDao.getRequestsByUser(username, Math.min(pageSize, MAX_PAGE_SIZE), pagingState);
+	}
+
+	@Override
+	public Page<Reimbursement> getPendingRequests(User approver, Integer pageSize, String pagingState) {
+		if (approver == null) {
+			return null;
+		}
+
+		if (pageSize == null || pageSize < 1) {
+			pageSize = PAGE_SIZE;
+		}
+		pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+		// BenCos see what is assigned to them first, then the shared BenCo queue
+		List<String> queues = new ArrayList<>();
+		queues.add(approver.getUsername());
+		if ("Benefits".equals(approver.getDepartmentName())) {
+			queues.add(BENCO_QUEUE);
+		}
+
+		int queue = 0;
+		String state = null;
+		if (pagingState != null) {
+			String[] cursor = PagingToken.decode(pagingState, 2);
+			queue = PagingToken.parse(cursor[0], Integer::valueOf);
+			if (queue < 0 || queue >= queues.size()) {
+				throw new IllegalArgumentException("Malformed paging state: " + pagingState);
+			}
+			state = cursor[1].isEmpty() ? null : cursor[1];
+		}
+
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+		for (; queue < queues.size(); queue++) {
+			Page<Reimbursement> page = reqDao.getPendingRequests(queues.get(queue), pageSize - requests.size(), state);
+			requests.addAll(page.getItems());
+			state = null;
+
+			if (page.hasMore()) {
+				return new Page<Reimbursement>(requests, pendingCursor(queue, page.getPagingState()));
+			}
+			if (requests.size() >= pageSize) {
+				String next = (queue + 1 < queues.size()) ? pendingCursor(queue + 1, null) : null;
+				return new Page<Reimbursement>(requests, next);
+			}
+		}
+		return new Page<Reimbursement>(requests, null);
+	}
+
 	@Override
 	public void updateRequest(Reimbursement request) {
 		if (request != null) {
@@ -223,18 +319,7 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 		if (request == null) {
 			return;
 		}
-		User user = userDao.getUser(request.getUsername());
-
-		request.setStatus(ReimbursementStatus.CANCELLED);
-
-		Double reimburse = (request.getFinalReimburseAmount() != null && request.getFinalReimburseAmount() > 0.0)
-				? request.getFinalReimburseAmount()
-				: request.getReimburseAmount();
-		log.debug("Amount the user is losing from pendingBalance: " + reimburse);
-		user.alterPendingBalance(reimburse * -1.0);
-		log.debug("User's new pending balance: " + user.getPendingBalance());
-		userDao.updateUser(user);
-		reqDao.updateRequest(request);
+		cancel(request, (current) -> {});
 	}
 
 	@Override
@@ -242,20 +327,21 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 		Reimbursement retRequest = null;
 		if (VERIFIER.verifyNotNull(request, reimburse) && reimburse > 0.0 && VERIFIER.verifyStrings(reason)) {
 
-			request.setFinalReimburseAmount(reimburse);
-			request.setFinalReimburseAmountReason(reason);
-			request.setNeedsEmployeeReview(true);
-			request.setEmployeeAgrees(false);
-
-			User user = userDao.getUser(request.getUsername());
-			user.alterPendingBalance(reimburse - request.getReimburseAmount());
-			log.debug("User's new pending balance: " + user.getPendingBalance());
-			userDao.updateUser(user);
+			retRequest = saveRequest(request, (current) -> {
+				current.setFinalReimburseAmount(reimburse);
+				current.setFinalReimburseAmountReason(reason);
+				current.setNeedsEmployeeReview(true);
+				current.setEmployeeAgrees(false);
+			});
+
+			// Only once the new amount was saved
+			UnitOfWork work = new UnitOfWork();
+			Double change = reimburse - retRequest.getReimburseAmount();
+			log.debug("Change to the user's pending balance: " + change);
+			balDao.addEntry(retRequest.getUsername(), retRequest.getId(), Balance.toCents(change), 0L, work);
+			work.commit();
 			notDao.createNotification(new Notification(request.getUsername(), request.getId(),
 					"Your request reimburse amount has changed and needs your approval."));
-
-			reqDao.updateRequest(request);
-			retRequest = request;
 		}
 		return retRequest;
 	}
@@ -263,16 +349,19 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 	@Override
 	public void changeEmployeeAgrees(Reimbursement request, Boolean employeeAgrees) {
 		if (VERIFIER.verifyNotNull(request, employeeAgrees)) {
-			request.setEmployeeAgrees(employeeAgrees);
-			request.setNeedsEmployeeReview(false);
-			log.debug("Employee review set to: " + request.getEmployeeAgrees());
+			Consumer<Reimbursement> review = (current) -> {
+				current.setEmployeeAgrees(employeeAgrees);
+				current.setNeedsEmployeeReview(false);
+				log.debug("Employee review set to: " + current.getEmployeeAgrees());
+			};
 
 			if (!employeeAgrees) {
-				request.getBenCoApproval().setStatus(ApprovalStatus.UNASSIGNED);
-				cancelRequest(request);
-				notDao.deleteNotification(request.getBenCoApproval().getUsername(), request.getId());
+				if (cancel(request,
+						review.andThen((current) -> current.getBenCoApproval().setStatus(ApprovalStatus.UNASSIGNED)))) {
+					notDao.deleteNotification(request.getBenCoApproval().getUsername(), request.getId());
+				}
 			} else { 
-				reqDao.updateRequest(request);
+				saveRequest(request, review);
 				notDao.createNotification(new Notification(request.getBenCoApproval().getUsername(), request.getId(),
 						"The employee agrees with the reimbursement change."));
 			}
@@ -284,10 +373,11 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 	public void addFinalGrade(Reimbursement request, String grade) {
 		if (VERIFIER.verifyNotNull(request) && VERIFIER.verifyStrings(grade)) {
 
-			request.setFinalGrade(grade);
-			request.setIsPassing(request.getGradingFormat().isPassing(grade));
-			log.debug("Final grade: " + request.getFinalGrade() + ". Is passing: " + request.getIsPassing());
-			reqDao.updateRequest(request);
+			saveRequest(request, (current) -> {
+				current.setFinalGrade(grade);
+				current.setIsPassing(current.getGradingFormat().isPassing(grade));
+				log.debug("Final grade: " + current.getFinalGrade() + ". Is passing: " + current.getIsPassing());
+			});
 			notDao.createNotification(new Notification(request.getFinalApproval().getUsername(), request.getId(),
 					"Final approval is ready on request"));
 		}
@@ -299,29 +389,260 @@ public class ReimbursementServiceImpl implements ReimbursementService {
 
 		if (requests != null && !requests.isEmpty()) {
 
-			synchronized (ReimbursementService.APPROVAL_LOCK) {
+			for (Reimbursement request : requests) {
+				Lock lock = LOCKS.lock(request.getId());
+				try {
+					autoApprove(request);
+				} finally {
+					lock.unlock();
+				}
+			}
 
-				for (Reimbursement request : requests) {
-					log.debug("Request being auto approved: " + request);
+		}
+	}
 
-						if (ApprovalStatus.AWAITING.equals(request.getSupervisorApproval().getStatus())
-							|| ApprovalStatus.AWAITING.equals(request.getDeptHeadApproval().getStatus())) {
-						changeApprovalStatus(request, ApprovalStatus.AUTO_APPROVED, null);
-					}
+	@Override
+	public AutoApprovalReport sweepExpiredRequests() {
+		AutoApprovalReport report = new AutoApprovalReport();
+		long start = System.nanoTime();
+		String pagingState = null;
+
+		do {
+			Page<Reimbursement> page = reqDao.getExpiredRequests(SWEEP_BATCH_SIZE, pagingState);
+			if (page == null) {
+				break;
+			}
+			report.setBatches(report.getBatches() + 1);
+			report.setBacklog(report.getBacklog() + page.getItems().size());
 
-					else if (ApprovalStatus.AWAITING.equals(request.getBenCoApproval().getStatus())) {
-						request.startDeadline();
-						reqDao.updateRequest(request);
-						String benCoSupervisorUsername = deptDao.getDepartment("Benefits").getDeptHeadUsername();
-						notDao.createNotification(new Notification(benCoSupervisorUsername, request.getId(),
-								"This request needs further approval."));
-					}
-					else {
-						throw new IllegalApprovalAttemptException("Auto-approval attempt on Request.");
+			List<Callable<Boolean>> batch = new ArrayList<>();
+			for (Reimbursement expired : page.getItems()) {
+				batch.add(() -> autoApproveLocked(expired));
+			}
+
+			// Wait for the batch so only one page of requests is held at a time
+			List<Future<Boolean>> results;
+			try {
+				results = SWEEP_POOL.invokeAll(batch);
+			} catch (InterruptedException e) {
+				log.warn("Auto approval sweep was interrupted");
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			for (Future<Boolean> result : results) {
+				try {
+					if (result.get()) {
+						report.setProcessed(report.getProcessed() + 1);
+					} else {
+						report.setSkipped(report.getSkipped() + 1);
 					}
+				} catch (ExecutionException | InterruptedException e) {
+					// One bad request shouldn't stop the rest of the sweep
+					report.setFailed(report.getFailed() + 1);
+					log.error("Auto approval failed: " + ((e.getCause() != null) ? e.getCause() : e));
 				}
 			}
+			pagingState = page.getPagingState();
+		} while (pagingState != null);
+
+		report.setElapsedMillis((System.nanoTime() - start) / 1000000);
+		log.info("Auto approval sweep finished: " + report);
+		log.debug("Request locks: " + LOCKS);
+		return report;
+	}
+
+	/**
+	 * Auto approve the expired request while holding its lock. The request is
+	 * read again under the lock since another approval may have moved it on
+	 * after the page was read.
+	 * @return True if the request was processed, false if it was no longer due
+	 */
+	private Boolean autoApproveLocked(Reimbursement expired) {
+		Lock lock = LOCKS.lock(expired.getId());
+		try {
+			Reimbursement request = reqDao.getRequest(expired.getId());
+			if (request == null || !ReimbursementStatus.ACTIVE.equals(request.getStatus())
+					|| !Objects.equals(expired.getDeadline(), request.getDeadline())) {
+				log.debug("Request is no longer due: " + expired.getId());
+				return false;
+			}
+			autoApprove(request);
+			return true;
+		} catch (ConcurrentUpdateException e) {
+			// Another instance acted on the request first
+			log.debug("Request was changed during auto approval: " + expired.getId());
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void autoApprove(Reimbursement request) {
+		log.debug("Request being auto approved: " + request);
+
+		if (ApprovalStatus.AWAITING.equals(request.getSupervisorApproval().getStatus())
+				|| ApprovalStatus.AWAITING.equals(request.getDeptHeadApproval().getStatus())) {
+			changeApprovalStatus(request, ApprovalStatus.AUTO_APPROVED, null);
+		}
+
+		else if (ApprovalStatus.AWAITING.equals(request.getBenCoApproval().getStatus())) {
+			request.startDeadline();
+			reqDao.updateRequest(request);
+			String benCoSupervisorUsername = deptDao.getDepartment("Benefits").getDeptHeadUsername();
+			notDao.createNotification(new Notification(benCoSupervisorUsername, request.getId(),
+					"This request needs further approval."));
+		}
+		else {
+			throw new IllegalApprovalAttemptException("Auto-approval attempt on Request.");
+		}
+	}
+
+	private Boolean isValidRequest(String username, String firstName, String lastName, String deptName, String name,
+			LocalDate startDate, LocalTime startTime, String location, String description, Double cost,
+			GradingFormat gradingFormat, EventType type) {
+		return VERIFIER.verifyStrings(username, firstName, lastName, deptName, name, location, description)
+				&& VERIFIER.verifyNotNull(startDate, startTime, cost, gradingFormat, type)
+				&& startDate.isAfter(LocalDate.now()) && cost > 0.00;
+	}
+
+	private Reimbursement buildRequest(User user, Balance balance, String username, String firstName, String lastName,
+			String deptName, String name, LocalDate startDate, LocalTime startTime, String location, String description,
+			Double cost, GradingFormat gradingFormat, EventType type) {
 
+		Double reimburseAmount = cost * type.getPercent();
+		Double reimburseMax = Reimbursement.MAX_REIMBURSEMENT - balance.getAwarded() - balance.getPending();
+		reimburseMax = (reimburseAmount > reimburseMax) ? reimburseMax : reimburseAmount;
+
+		if (reimburseMax <= 0) {
+			reimburseMax = reimburseAmount;
 		}
+		log.debug("Maximum amount that can be reimbursed: " + reimburseMax);
+
+		Reimbursement request = new ReimbursementRequest(username, firstName, lastName, deptName, name, startDate,
+				startTime, location, description, cost, gradingFormat, type);
+		request.setId(UUID.randomUUID());
+		request.setReimburseAmount(reimburseMax);
+
+		LocalDate twoWeeks = LocalDate.now().plus(Period.of(0, 0, 14));
+		request.setIsUrgent(startDate.isBefore(twoWeeks));
+
+		request.getSupervisorApproval().setUsername(user.getSupervisorUsername());
+		request.startDeadline();
+		request.getSupervisorApproval().setStatus(ApprovalStatus.AWAITING);
+		log.debug("Deadline set to " + request.getDeadline());
+		return request;
+	}
+
+	/**
+	 * @return The pending queue the approval stage of the request belongs to
+	 */
+	private String queueOf(Reimbursement request, int stage) {
+		return (stage == Reimbursement.BENCO_INDEX) ? BENCO_QUEUE : request.getApprovalArray()[stage].getUsername();
+	}
+
+	/**
+	 * @return The index of the approval the request is waiting on, or null if there is none
+	 */
+	private Integer awaitingStage(Reimbursement request) {
+		Approval[] approvals = request.getApprovalArray();
+		for (int i = 0; i < approvals.length; i++) {
+			if (ApprovalStatus.AWAITING.equals(approvals[i].getStatus())) {
+				return i;
+			}
+		}
+		return null;
+	}
+
+	private void enqueue(Reimbursement request, int stage, UnitOfWork work) {
+		String queue = queueOf(request, stage);
+		if (queue != null) {
+			reqDao.addPending(queue, request, work);
+		}
+	}
+
+	private void dequeue(Reimbursement request, int stage, UnitOfWork work) {
+		String queue = queueOf(request, stage);
+		if (queue != null) {
+			reqDao.removePending(queue, request.getId(), work);
+		}
+	}
+
+	/**
+	 * The token of a page of pending requests is the queue being read and the
+	 * paging state within that queue
+	 */
+	private String pendingCursor(Integer queue, String pagingState) {
+		return PagingToken.encode(queue.toString(), pagingState);
+	}
+
+	/**
+	 * Cancel the request and take its amount out of the user's pending balance
+	 * @param change Any other changes to make to the request along with cancelling it
+	 * @return False if the request was no longer active, so nothing was changed
+	 */
+	private Boolean cancel(Reimbursement request, Consumer<Reimbursement> change) {
+		// Another update may have cancelled, denied or awarded the request first
+		Reimbursement cancelled = saveRequest(request, (current) -> ReimbursementStatus.ACTIVE.equals(current.getStatus()),
+				change.andThen((current) -> current.setStatus(ReimbursementStatus.CANCELLED)));
+		if (cancelled == null) {
+			log.debug("Request " + request.getId() + " is no longer active so it wasn't cancelled");
+			return false;
+		}
+
+		// The queue and balance entries only follow a cancel that was saved
+		UnitOfWork work = new UnitOfWork();
+		Integer stage = awaitingStage(cancelled);
+		if (stage != null) {
+			dequeue(cancelled, stage, work);
+		}
+
+		Double reimburse = getPendingReimburse(cancelled);
+		log.debug("Amount the user is losing from pendingBalance: " + reimburse);
+		balDao.addEntry(cancelled.getUsername(), cancelled.getId(), -Balance.toCents(reimburse), 0L, work);
+		work.commit();
+		return true;
+	}
+
+	/**
+	 * Apply the change to the request and save it. If another update got there
+	 * first the request is read again and the change applied to the new copy.
+	 * @return The request that was saved
+	 */
+	private Reimbursement saveRequest(Reimbursement request, Consumer<Reimbursement> change) {
+		return saveRequest(request, (current) -> true, change);
+	}
+
+	/**
+	 * Like saveRequest, but only change a copy of the request that can still
+	 * take the change, including a copy read again after a conflict
+	 * @param canChange Whether a copy of the request can take the change
+	 * @return The request that was saved, or null if the copy couldn't take the change
+	 */
+	private Reimbursement saveRequest(Reimbursement request, Predicate<Reimbursement> canChange,
+			Consumer<Reimbursement> change) {
+		for (int attempt = 1;; attempt++) {
+			if (!canChange.test(request)) {
+				return null;
+			}
+			change.accept(request);
+			try {
+				reqDao.updateRequest(request);
+				return request;
+			} catch (ConcurrentUpdateException e) {
+				Reimbursement current = (attempt < MAX_ATTEMPTS) ? reqDao.getRequest(request.getId()) : null;
+				if (current == null) {
+					throw e;
+				}
+				CONFLICTS.recordRetry("request");
+				request = current;
+			}
+		}
+	}
+
+	private Double getPendingReimburse(Reimbursement request) {
+		return (request.getFinalReimburseAmount() != null && request.getFinalReimburseAmount() > 0.0)
+				? request.getFinalReimburseAmount()
+				: request.getReimburseAmount();
 	}
 }
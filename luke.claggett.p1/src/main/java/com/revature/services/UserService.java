@@ -1,5 +1,7 @@
 package com.revature.services;
 
+import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.beans.User;
 import com.revature.beans.UserType;
 
@@ -42,6 +44,15 @@ public interface UserService {
 	 */
 	public User updateUser(User user);
 	
+	/**
+	 * Get a page of the user's notifications, newest first
+	 * @param username The username of the user
+	 * @param pageSize The most notifications to return, or null for the default
+	 * @param pagingState The token of the page to get, or null for the first page
+	 * @return A page of the user's notifications; null if the username is invalid
+	 */
+	public Page<Notification> getNotifications(String username, Integer pageSize, String pagingState);
+
 	/**
 	 * Delete the user's notifications
 	 * @param username The username of the user
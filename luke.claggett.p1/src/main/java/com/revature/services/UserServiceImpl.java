@@ -1,36 +1,56 @@
 package com.revature.services;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.revature.beans.Balance;
+import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.beans.User;
 import com.revature.beans.UserType;
+import com.revature.data.BalanceDao;
+import com.revature.data.BalanceDaoImpl;
+import com.revature.data.CachingUserDao;
 import com.revature.data.NotificationDao;
 import com.revature.data.NotificationDaoImpl;
 import com.revature.data.UserDao;
-import com.revature.data.UserDaoImpl;
 import com.revature.factory.BeanFactory;
 import com.revature.factory.TraceLog;
 import com.revature.util.Verifier;
 
 @TraceLog
 public class UserServiceImpl implements UserService {
-	UserDao userDao = (UserDao) BeanFactory.getFactory().getObject(UserDao.class, UserDaoImpl.class);
+	UserDao userDao = (UserDao) BeanFactory.getFactory().getObject(UserDao.class, CachingUserDao.class);
 	NotificationDao notDao = (NotificationDao) BeanFactory.getFactory().getObject(NotificationDao.class, NotificationDaoImpl.class);
+	BalanceDao balDao = (BalanceDao) BeanFactory.getFactory().getObject(BalanceDao.class, BalanceDaoImpl.class);
 	private static Logger log = LogManager.getLogger(UserServiceImpl.class);
 	
 	private static final Verifier VERIFIER = new Verifier();
 
+	// Login only carries the newest notifications, older ones are read a page at a time
+	private static final Integer PAGE_SIZE = Integer.getInteger("notifications.pageSize", 20);
+	private static final Integer MAX_PAGE_SIZE = Integer.getInteger("notifications.maxPageSize", 100);
+
 	@Override
 	public User login(String username) {
 		if (!VERIFIER.verifyStrings(username)) {
 			return null;
 		}
-		User user = userDao.getUser(username);
+		// None of the three reads depends on another, so they are sent together
+		CompletableFuture<User> loading = userDao.getUserAsync(username).toCompletableFuture();
+		CompletableFuture<List<Notification>> notifications = notDao.getUserNotificationListAsync(username, PAGE_SIZE)
+				.toCompletableFuture();
+		CompletableFuture<Balance> balance = balDao.getBalanceAsync(username).toCompletableFuture();
+
+		User user = loading.join();
 		log.debug("User returned: " + user);
 		
 		if (user != null) {
-			user.setNotifications(notDao.getUserNotificationList(username));
+			user.setNotifications(notifications.join());
+			user.applyBalance(balance.join());
 		}
 		
 		return user;
@@ -69,6 +89,18 @@ public class UserServiceImpl implements UserService {
 		return user;
 	}
 	
+	@Override
+	public Page<Notification> getNotifications(String username, Integer pageSize, String pagingState) {
+		if (!VERIFIER.verifyStrings(username)) {
+			return null;
+		}
+
+		if (pageSize == null || pageSize < 1) {
+			pageSize = PAGE_SIZE;
+		}
+		return notDao.getUserNotifications(username, Math.min(pageSize, MAX_PAGE_SIZE), pagingState);
+	}
+
 	@Override
 	public void deleteNotifications(String username) {
 		if (VERIFIER.verifyStrings(username)) {
@@ -0,0 +1,313 @@
+package com.revature.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps recently downloaded attachments on local disk so the same file isn't
+ * fetched from S3 every time it is opened. The least recently used files are
+ * deleted once the cache holds more than attachments.cache.maxBytes. Files
+ * larger than attachments.cache.maxFileBytes are downloaded for the one
+ * request and never kept.
+ *
+ * Attachments are stored under a new key every time they are uploaded, so a
+ * cached file only goes stale if the same key is uploaded again, and the
+ * controllers invalidate the key when they do that.
+ */
+public class AttachmentCache {
+	private static AttachmentCache instance = null;
+	private static final Logger log = LogManager.getLogger(AttachmentCache.class);
+
+	private static final String DIR = System.getProperty("attachments.cache.dir",
+			Paths.get(System.getProperty("java.io.tmpdir"), "project1-attachments").toString());
+	private static final Long MAX_BYTES = Long.getLong("attachments.cache.maxBytes", 512L * 1024 * 1024);
+	private static final Long MAX_FILE_BYTES = Long.getLong("attachments.cache.maxFileBytes", 64L * 1024 * 1024);
+
+	private final S3Util s3;
+	private final Path dir;
+	private final Long maxBytes;
+	private final Long maxFileBytes;
+
+	// Access order keeps the least recently used file first
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private Long size = 0L;
+	// Downloads in progress, so a popular file is only fetched once
+	private final Map<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param s3           Where the files are downloaded from
+	 * @param dir          Where the cache makes the directory its files are kept in
+	 * @param maxBytes     The most bytes kept before the least recently used file is deleted
+	 * @param maxFileBytes The largest file that is kept
+	 */
+	AttachmentCache(S3Util s3, Path dir, Long maxBytes, Long maxFileBytes) throws IOException {
+		this.s3 = s3;
+		// Every process gets its own directory, so other processes sharing the configured one keep their files
+		this.dir = Files.createTempDirectory(Files.createDirectories(dir), "cache-");
+		this.maxBytes = maxBytes;
+		this.maxFileBytes = maxFileBytes;
+	}
+
+	public static synchronized AttachmentCache getInstance() {
+		if (instance == null) {
+			try {
+				instance = new AttachmentCache(S3Util.getInstance(), Paths.get(DIR), MAX_BYTES, MAX_FILE_BYTES);
+			} catch (IOException e) {
+				throw new IllegalStateException("The attachment cache directory can't be used: " + DIR, e);
+			}
+			AttachmentCache cache = instance;
+			Runtime.getRuntime().addShutdownHook(new Thread(cache::shutdown, "attachment-cache-cleanup"));
+		}
+		return instance;
+	}
+
+	/**
+	 * Open the file, downloading it first if it isn't cached
+	 * @param key The key the file is stored under in S3
+	 * @return The open file, which the caller has to close
+	 */
+	public Attachment open(String key) throws IOException {
+		Attachment cached = openCached(key);
+		if (cached != null) {
+			hits.incrementAndGet();
+			return cached;
+		}
+		misses.incrementAndGet();
+
+		CompletableFuture<Void> download = new CompletableFuture<>();
+		CompletableFuture<Void> other = loading.putIfAbsent(key, download);
+		if (other != null) {
+			// Wait for the download already under way instead of starting another
+			other.handle((done, e) -> null).join();
+			cached = openCached(key);
+			if (cached != null) {
+				return cached;
+			}
+			// It failed, was too big to keep or was already evicted
+			return download(key);
+		}
+		try {
+			return download(key);
+		} finally {
+			loading.remove(key);
+			download.complete(null);
+		}
+	}
+
+	/**
+	 * Forget the file, for when the key has been uploaded again
+	 */
+	public synchronized void invalidate(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			size -= entry.length;
+			delete(entry.file);
+		}
+	}
+
+	/**
+	 * Delete this process's directory and everything in it. Nothing else in
+	 * the configured directory is touched.
+	 */
+	public synchronized void shutdown() {
+		entries.clear();
+		size = 0L;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files) {
+				delete(file);
+			}
+		} catch (IOException e) {
+			log.warn("Couldn't list the attachment cache " + dir + ": " + e);
+		}
+		delete(dir);
+	}
+
+	public synchronized Long getSize() {
+		return size;
+	}
+
+	public synchronized Integer getFiles() {
+		return entries.size();
+	}
+
+	public Long getHits() {
+		return hits.get();
+	}
+
+	public Long getMisses() {
+		return misses.get();
+	}
+
+	public Long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Opened while holding the lock so the file can't be evicted in between.
+	 * Once open it stays readable even if it is then deleted.
+	 */
+	private synchronized Attachment openCached(String key) throws IOException {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		return new Attachment(FileChannel.open(entry.file, StandardOpenOption.READ), entry.eTag, entry.length);
+	}
+
+	private Attachment download(String key) throws IOException {
+		Path file = dir.resolve(UUID.randomUUID().toString());
+		String eTag;
+		try {
+			eTag = s3.downloadToFile(key, file);
+		} catch (RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		Long length = Files.size(file);
+
+		if (length > maxFileBytes) {
+			log.debug("Not caching " + key + ", it is " + length + " bytes");
+			return new Attachment(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE),
+					eTag, length);
+		}
+
+		synchronized (this) {
+			Attachment attachment = new Attachment(FileChannel.open(file, StandardOpenOption.READ), eTag, length);
+			Entry replaced = entries.put(key, new Entry(file, eTag, length));
+			if (replaced != null) {
+				size -= replaced.length;
+				delete(replaced.file);
+			}
+			size += length;
+			evict();
+			return attachment;
+		}
+	}
+
+	private void evict() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (size > maxBytes && eldest.hasNext()) {
+			Entry entry = eldest.next();
+			eldest.remove();
+			size -= entry.length;
+			evictions.incrementAndGet();
+			delete(entry.file);
+		}
+	}
+
+	private void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Couldn't delete cached attachment " + file + ": " + e);
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "AttachmentCache [files=" + entries.size() + ", size=" + size + ", hits=" + hits + ", misses="
+				+ misses + ", evictions=" + evictions + "]";
+	}
+
+	private static class Entry {
+		private final Path file;
+		private final String eTag;
+		private final Long length;
+
+		Entry(Path file, String eTag, Long length) {
+			this.file = file;
+			this.eTag = eTag;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * An attachment opened for reading
+	 */
+	public static class Attachment implements Closeable {
+		private final FileChannel channel;
+		private final String eTag;
+		private final Long length;
+
+		Attachment(FileChannel channel, String eTag, Long length) {
+			this.channel = channel;
+			this.eTag = eTag;
+			this.length = length;
+		}
+
+		public String getETag() {
+			return eTag;
+		}
+
+		public Long getLength() {
+			return length;
+		}
+
+		/**
+		 * @param ifNoneMatch An If-None-Match header, or null
+		 * @return Whether the client already has this version of the file
+		 */
+		public Boolean matches(String ifNoneMatch) {
+			if (ifNoneMatch == null || eTag == null) {
+				return false;
+			}
+			for (String tag : ifNoneMatch.split(",")) {
+				tag = tag.trim();
+				// Weak comparison, as If-None-Match calls for
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if (tag.equals("*") || tag.equals(eTag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Send part of the file. Only a file or socket target lets the kernel
+		 * copy the bytes directly. Any other channel, such as one wrapped
+		 * around the servlet OutputStream, is sent the range in chunks of a
+		 * few KB, copied through a temporary buffer and then onto the heap
+		 * for the stream. Only a chunk is held in memory at a time, never
+		 * the whole file.
+		 */
+		public void transferTo(ByteRange range, WritableByteChannel target) throws IOException {
+			long position = range.getStart();
+			long end = range.getStart() + range.getLength();
+			while (position < end) {
+				long sent = channel.transferTo(position, end - position, target);
+				if (sent <= 0) {
+					throw new IOException("The file ended at " + position + " of " + end);
+				}
+				position += sent;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
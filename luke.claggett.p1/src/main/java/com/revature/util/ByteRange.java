@@ -0,0 +1,87 @@
+package com.revature.util;
+
+/**
+ * The part of a file asked for by an HTTP Range header. Only a single range
+ * is supported; a request for several is answered with the whole file, which
+ * the spec allows.
+ */
+public class ByteRange {
+	private final Long start;
+	private final Long length;
+
+	public ByteRange(Long start, Long length) {
+		this.start = start;
+		this.length = length;
+	}
+
+	/**
+	 * @param fileLength The length of the file
+	 * @return A range covering all of the file
+	 */
+	public static ByteRange all(Long fileLength) {
+		return new ByteRange(0L, fileLength);
+	}
+
+	/**
+	 * Read a Range header such as bytes=0-499, bytes=500- or bytes=-500
+	 * @param header     The Range header, or null
+	 * @param fileLength The length of the file
+	 * @return The range, or null if the whole file should be sent
+	 * @throws IllegalArgumentException If no part of the range is in the file
+	 */
+	public static ByteRange parse(String header, Long fileLength) {
+		if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+			return null;
+		}
+		String spec = header.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+		try {
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			if (first.isEmpty()) {
+				// The last so many bytes
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0 || fileLength == 0) {
+					throw new IllegalArgumentException("Range not satisfiable: " + header);
+				}
+				long length = Math.min(suffix, fileLength);
+				return new ByteRange(fileLength - length, length);
+			}
+			long start = Long.parseLong(first);
+			long end = last.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(last), fileLength - 1);
+			if (start >= fileLength) {
+				throw new IllegalArgumentException("Range not satisfiable: " + header);
+			}
+			if (end < start) {
+				return null;
+			}
+			return new ByteRange(start, end - start + 1);
+		} catch (NumberFormatException e) {
+			// A header that can't be read is ignored rather than refused
+			return null;
+		}
+	}
+
+	public Long getStart() {
+		return start;
+	}
+
+	public Long getLength() {
+		return length;
+	}
+
+	/**
+	 * @return The value of the Content-Range header for this range
+	 */
+	public String toContentRange(Long fileLength) {
+		return "bytes " + start + "-" + (start + length - 1) + "/" + fileLength;
+	}
+
+	@Override
+	public String toString() {
+		return "ByteRange [start=" + start + ", length=" + length + "]";
+	}
+}
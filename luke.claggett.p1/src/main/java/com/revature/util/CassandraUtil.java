@@ -5,6 +5,7 @@ import org.apache.logging.log4j.Logger;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.revature.codecs.RequestCodecs;
 
 public class CassandraUtil {
 	private static CassandraUtil instance = null;
@@ -12,7 +13,8 @@ public class CassandraUtil {
 	private static final String KEYSPACE = "luke_claggett_p1";
 	
 	private CqlSession session = null;
-	
+	private StatementRegistry statements = null;
+
 	private CassandraUtil() {
 		log.trace("Connecting to Cassandra...");
 		//Get the loader data from the application.conf file in resources
@@ -21,6 +23,15 @@ public class CassandraUtil {
 		try {
 			//Build the CqlSession
 			this.session = CqlSession.builder().withConfigLoader(loader).withKeyspace(KEYSPACE).build();
+			//Add the codecs that read and write requests as beans, now the schema has been read.
+			//The types aren't there yet when the database is being set up, which doesn't need them.
+			try {
+				RequestCodecs.register(session, KEYSPACE);
+			} catch (IllegalStateException e) {
+				log.warn("Request codecs not registered: " + e.getMessage());
+			}
+			//Every DAO shares the same prepared statements
+			this.statements = new StatementRegistry(session);
 		} catch(Exception e) {
 			//Log the error and the stack trace.
 			log.error("CassandraUtil constructor threw exception: " + e);
@@ -43,4 +54,8 @@ public class CassandraUtil {
 	public CqlSession getSession() {
 		return session;
 	}
+
+	public StatementRegistry getStatements() {
+		return statements;
+	}
 }
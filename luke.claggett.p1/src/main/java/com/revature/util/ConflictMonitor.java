@@ -0,0 +1,88 @@
+package com.revature.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Counts conditional updates per table, how many of them lost to a concurrent
+ * writer, and how many times the services retried.
+ */
+public class ConflictMonitor {
+	private static ConflictMonitor instance = null;
+	private static final Logger log = LogManager.getLogger(ConflictMonitor.class);
+
+	private final Map<String, AtomicLong> updates = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> conflicts = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> retries = new ConcurrentHashMap<>();
+
+	private ConflictMonitor() {
+		super();
+	}
+
+	public static synchronized ConflictMonitor getInstance() {
+		if (instance == null) {
+			instance = new ConflictMonitor();
+		}
+		return instance;
+	}
+
+	/**
+	 * Record the outcome of a conditional update
+	 * @param table The table that was updated
+	 * @param applied Whether the update was applied
+	 */
+	public void recordUpdate(String table, Boolean applied) {
+		count(updates, table);
+		if (!applied) {
+			count(conflicts, table);
+			log.debug("Update conflict on " + table);
+		}
+	}
+
+	/**
+	 * Record that an update was tried again after a conflict
+	 * @param table The table that was updated
+	 */
+	public void recordRetry(String table) {
+		count(retries, table);
+	}
+
+	public Long getUpdates(String table) {
+		return get(updates, table);
+	}
+
+	public Long getConflicts(String table) {
+		return get(conflicts, table);
+	}
+
+	public Long getRetries(String table) {
+		return get(retries, table);
+	}
+
+	/**
+	 * @param table The table that was updated
+	 * @return The fraction of updates on the table that hit a conflict
+	 */
+	public Double getConflictRate(String table) {
+		long total = getUpdates(table);
+		return (total == 0) ? 0.0 : (double) getConflicts(table) / total;
+	}
+
+	private void count(Map<String, AtomicLong> counters, String table) {
+		counters.computeIfAbsent(table, (key) -> new AtomicLong()).incrementAndGet();
+	}
+
+	private Long get(Map<String, AtomicLong> counters, String table) {
+		AtomicLong counter = counters.get(table);
+		return (counter == null) ? 0L : counter.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ConflictMonitor [updates=" + updates + ", conflicts=" + conflicts + ", retries=" + retries + "]";
+	}
+}
@@ -22,26 +22,61 @@ public class DatabaseCreator {
 		
 		query = new StringBuilder("DROP TABLE IF EXISTS Notification;");
 		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Notification_By_Request;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Request_Deadline;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Deadline_Bucket;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Requests_By_User;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Pending_By_Approver;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Balance_Ledger;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TABLE IF EXISTS Attachment_Reference;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// Types can only be dropped once no table uses them
+		query = new StringBuilder("DROP TYPE IF EXISTS Approval;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("DROP TYPE IF EXISTS Grading_Format;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
 	}
 
 	public static void createTables() {
 		StringBuilder query = new StringBuilder("CREATE TABLE IF NOT EXISTS User (")
 				.append("username text, firstName text, ")
 				.append("lastName text, type text, departmentName text, supervisorUsername text, ")
-				.append("pendingBalance double, awardedBalance double, requests list<UUID>, ")
+				.append("version bigint, ")
 				.append("primary key(username));");
 		CassandraUtil.getInstance().getSession().execute(query.toString());
 
+		// Read and written through ApprovalCodec and GradingFormatCodec
+		query = new StringBuilder("CREATE TYPE IF NOT EXISTS Approval (status text, username text);");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		query = new StringBuilder("CREATE TYPE IF NOT EXISTS Grading_Format (format text, passingGrade text);");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
 		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Request (").append(
 				"id uuid, username text, status text, isUrgent boolean, name text, firstName text, lastName text, ")
 				.append("deptName text, startDate date, startTime time, location text, ")
-				.append("description text, cost double, gradingFormat tuple<text, text>, ")
+				.append("description text, cost double, gradingFormat frozen<Grading_Format>, ")
 				.append("type text, fileURIs List<text>, approvalMsgURI text, workTimeMissed text, ")
-				.append("reimburseAmount double, supervisorApproval tuple<text, text>, ")
-				.append(", deptHeadApproval tuple<text, text>, ")
-				.append(", benCoApproval tuple<text, text>, reason text, deadline timestamp, ")
-				.append("finalGrade text, isPassing boolean, presFileName text, finalApproval tuple<text, text>, ")
-				.append("finalReimburseAmount double, finalReimburseAmountReason text, needsEmployeeReview boolean, employeeAgrees boolean, ")
+				.append("reimburseAmount double, supervisorApproval frozen<Approval>, ")
+				.append("deptHeadApproval frozen<Approval>, ")
+				.append("benCoApproval frozen<Approval>, reason text, deadline timestamp, ")
+				.append("finalGrade text, isPassing boolean, presFileName text, finalApproval frozen<Approval>, ")
+				.append("finalReimburseAmount double, finalReimburseAmountReason text, needsEmployeeReview boolean, employeeAgrees boolean, version bigint, ")
 				.append("primary key(id, username));");
 		CassandraUtil.getInstance().getSession().execute(query.toString());
 
@@ -49,9 +84,57 @@ public class DatabaseCreator {
 				.append("name text PRIMARY KEY, deptHeadUsername text").append(");");
 		CassandraUtil.getInstance().getSession().execute(query.toString());
 		
+		// A partition per user and month, so reading the newest notifications stays cheap for
+		// long-time users. Rows expire on their own.
 		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Notification (")
-				.append("username text, requestId uuid, notificationTime timestamp, message text, ")
-				.append("primary key(username, requestId, notificationTime));");
+				.append("username text, bucket int, notificationTime timestamp, requestId uuid, message text, ")
+				.append("primary key((username, bucket), notificationTime, requestId)) ")
+				.append("WITH CLUSTERING ORDER BY (notificationTime DESC, requestId ASC) ")
+				.append("AND default_time_to_live = 7776000;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// Where a request's notifications were written, so they can be deleted by request
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Notification_By_Request (")
+				.append("username text, requestId uuid, bucket int, notificationTime timestamp, ")
+				.append("primary key((username, requestId), bucket, notificationTime)) ")
+				.append("WITH default_time_to_live = 7776000;");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// Active requests by the hour their deadline falls in, read by the auto approval sweep
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Request_Deadline (")
+				.append("bucket timestamp, deadline timestamp, id uuid, username text, ")
+				.append("primary key(bucket, deadline, id));");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// The buckets of Request_Deadline that still have entries
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Deadline_Bucket (")
+				.append("shard int, bucket timestamp, ")
+				.append("primary key(shard, bucket));");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// The ids of each user's requests, newest first, so User doesn't have to carry them
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Requests_By_User (")
+				.append("username text, created timestamp, id uuid, ")
+				.append("primary key(username, created, id)) ")
+				.append("WITH CLUSTERING ORDER BY (created DESC, id ASC);");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// The requests waiting on each approver, so an inbox is one partition read
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Pending_By_Approver (")
+				.append("approver text, id uuid, username text, ")
+				.append("primary key(approver, id));");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// Every change to a user's balances, in cents. The balances are the sum of the user's partition.
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Balance_Ledger (")
+				.append("username text, id timeuuid, requestId uuid, pendingCents bigint, awardedCents bigint, ")
+				.append("primary key(username, id));");
+		CassandraUtil.getInstance().getSession().execute(query.toString());
+
+		// The requests each stored file is attached to. The reference count is the size of the partition.
+		query = new StringBuilder("CREATE TABLE IF NOT EXISTS Attachment_Reference (")
+				.append("key text, requestId uuid, ")
+				.append("primary key(key, requestId));");
 		CassandraUtil.getInstance().getSession().execute(query.toString());
 	}
 
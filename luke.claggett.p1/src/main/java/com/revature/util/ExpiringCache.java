@@ -0,0 +1,157 @@
+package com.revature.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A map whose entries are forgotten after a fixed amount of time, counting how
+ * often lookups were answered from it. When a maximum size is given the least
+ * recently used entry is evicted to make room.
+ *
+ * @param <K> The type of the key
+ * @param <V> The type of the cached value
+ */
+public class ExpiringCache<K, V> {
+	private final Map<K, Entry<V>> entries;
+	private final long ttlNanos;
+	private final Integer maxEntries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * @param ttlMillis How long an entry is kept, in milliseconds
+	 */
+	public ExpiringCache(Long ttlMillis) {
+		this(ttlMillis, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param ttlMillis How long an entry is kept, in milliseconds
+	 * @param maxEntries The most entries kept before the least recently used is evicted
+	 */
+	public ExpiringCache(Long ttlMillis, Integer maxEntries) {
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.maxEntries = maxEntries;
+		// Access order keeps the least recently used entry first
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > ExpiringCache.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Get the value for the key if it is cached and has not expired
+	 * @param key The key of the value
+	 * @return The cached value, or null on a miss
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null && entry.isExpired()) {
+			entries.remove(key);
+			expirations.incrementAndGet();
+			entry = null;
+		}
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Cache the value under the key, restarting its time to live
+	 * @param key The key of the value
+	 * @param value The value to cache
+	 */
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<V>(value, System.nanoTime() + ttlNanos));
+	}
+
+	/**
+	 * Forget the value under the key
+	 * @param key The key of the value
+	 */
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Forget every value
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized Integer size() {
+		return entries.size();
+	}
+
+	public Integer getMaxEntries() {
+		return maxEntries;
+	}
+
+	public Long getHits() {
+		return hits.get();
+	}
+
+	public Long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return How many entries were dropped to stay under the maximum size
+	 */
+	public Long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return How many entries were dropped because their time to live ran out
+	 */
+	public Long getExpirations() {
+		return expirations.get();
+	}
+
+	/**
+	 * @return The fraction of lookups that were answered from the cache
+	 */
+	public Double getHitRate() {
+		long total = hits.get() + misses.get();
+		return (total == 0) ? 0.0 : (double) hits.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return "ExpiringCache [size=" + size() + ", maxEntries=" + maxEntries + ", hits=" + hits + ", misses="
+				+ misses + ", hitRate=" + getHitRate() + ", evictions=" + evictions + ", expirations=" + expirations
+				+ "]";
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired() {
+			return System.nanoTime() - expiresAt >= 0;
+		}
+	}
+}
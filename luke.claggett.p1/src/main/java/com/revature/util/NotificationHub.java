@@ -0,0 +1,165 @@
+package com.revature.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.revature.beans.Notification;
+
+/**
+ * Hands new notifications to everyone listening for them on this node. A
+ * subscriber is only a reference in a map until something is sent to it, so
+ * idle subscribers cost no threads.
+ *
+ * Everything is sent from one thread, so publishers never wait on a slow
+ * client and each user gets their notifications in the order they were
+ * written. The same thread sends a heartbeat every
+ * notifications.stream.heartbeatMillis, which is how subscribers that went
+ * away without saying so are found and removed.
+ */
+public class NotificationHub {
+	private static NotificationHub instance = null;
+	private static final Logger log = LogManager.getLogger(NotificationHub.class);
+
+	private static final Long HEARTBEAT_MILLIS = Long.getLong("notifications.stream.heartbeatMillis", 30000L);
+
+	private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService sender;
+
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	/**
+	 * @param heartbeatMillis How often every subscriber is sent a heartbeat
+	 */
+	NotificationHub(Long heartbeatMillis) {
+		sender = Executors.newSingleThreadScheduledExecutor((task) -> {
+			Thread thread = new Thread(task, "notification-hub");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sender.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public static synchronized NotificationHub getInstance() {
+		if (instance == null) {
+			instance = new NotificationHub(HEARTBEAT_MILLIS);
+		}
+		return instance;
+	}
+
+	/**
+	 * Start sending the user's new notifications to the subscriber
+	 */
+	public void subscribe(String username, Subscriber subscriber) {
+		subscribers.computeIfAbsent(username, (key) -> ConcurrentHashMap.newKeySet()).add(subscriber);
+		log.debug("Subscribed to " + username + "'s notifications");
+	}
+
+	/**
+	 * Stop sending to the subscriber. Safe to call more than once.
+	 */
+	public void unsubscribe(String username, Subscriber subscriber) {
+		// Removing the user's set once it is empty keeps the map from growing with every user who ever listened
+		subscribers.computeIfPresent(username, (key, listening) -> {
+			listening.remove(subscriber);
+			return listening.isEmpty() ? null : listening;
+		});
+		log.debug("Unsubscribed from " + username + "'s notifications");
+	}
+
+	/**
+	 * Send the notification to everyone listening for its user. Returns without
+	 * waiting for it to be sent.
+	 */
+	public void publish(Notification notification) {
+		published.incrementAndGet();
+		if (!subscribers.containsKey(notification.getUsername())) {
+			return;
+		}
+		try {
+			sender.execute(() -> deliver(notification.getUsername(), (subscriber) -> subscriber.send(notification)));
+		} catch (RejectedExecutionException e) {
+			log.warn("Notification hub is shut down, not publishing: " + notification);
+		}
+	}
+
+	/**
+	 * @return How many subscribers are listening across every user
+	 */
+	public Integer getSubscribers() {
+		return subscribers.values().stream().mapToInt(Set::size).sum();
+	}
+
+	public Long getPublished() {
+		return published.get();
+	}
+
+	public Long getDelivered() {
+		return delivered.get();
+	}
+
+	public Long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Stop sending. Subscribers are left to be closed by the server.
+	 */
+	public void shutdown() {
+		sender.shutdownNow();
+	}
+
+	private void heartbeat() {
+		subscribers.keySet().forEach((username) -> deliver(username, Subscriber::heartbeat));
+	}
+
+	private void deliver(String username, Consumer<Subscriber> message) {
+		Set<Subscriber> listening = subscribers.get(username);
+		if (listening == null) {
+			return;
+		}
+		for (Subscriber subscriber : listening) {
+			try {
+				message.accept(subscriber);
+				delivered.incrementAndGet();
+			} catch (RuntimeException e) {
+				// One broken connection can't be allowed to stop the rest
+				failed.incrementAndGet();
+				log.warn("Dropping a subscriber to " + username + "'s notifications: " + e);
+				unsubscribe(username, subscriber);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "NotificationHub [subscribers=" + getSubscribers() + ", published=" + published + ", delivered="
+				+ delivered + ", failed=" + failed + "]";
+	}
+
+	/**
+	 * Something listening for a user's notifications, such as an open event stream
+	 */
+	public interface Subscriber {
+		/**
+		 * Send a new notification
+		 */
+		void send(Notification notification);
+
+		/**
+		 * Send something that lets both ends know the connection is still open
+		 */
+		void heartbeat();
+	}
+}
@@ -0,0 +1,93 @@
+package com.revature.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * The paging state handed to clients. A token is a comma separated list of
+ * parts, such as a bucket and the driver's paging state within it, encoded so
+ * it is safe to put in a URL. Clients send tokens back as they like, so
+ * anything that can't be read throws IllegalArgumentException, which the
+ * controllers answer with a 400.
+ */
+public class PagingToken {
+	private PagingToken() {
+	}
+
+	/**
+	 * @param parts The parts of the token; null parts are sent as empty
+	 * @return The token
+	 */
+	public static String encode(String... parts) {
+		StringBuilder cursor = new StringBuilder();
+		for (int i = 0; i < parts.length; i++) {
+			if (i > 0) {
+				cursor.append(',');
+			}
+			cursor.append((parts[i] == null) ? "" : parts[i]);
+		}
+		return Base64.getUrlEncoder().encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param token The token from the client
+	 * @param parts How many parts the token should have
+	 * @return The parts of the token
+	 * @throws IllegalArgumentException If the token isn't one with that many parts
+	 */
+	public static String[] decode(String token, Integer parts) {
+		String[] cursor = new String(decodeBase64(token), StandardCharsets.UTF_8).split(",", -1);
+		if (cursor.length != parts) {
+			throw new IllegalArgumentException("Malformed paging state: " + token);
+		}
+		return cursor;
+	}
+
+	/**
+	 * Read one part of a token
+	 * @param part   The part
+	 * @param parser Reads the part, throwing any RuntimeException if it can't
+	 * @return What the parser read
+	 * @throws IllegalArgumentException If the parser couldn't read the part
+	 */
+	public static <T> T parse(String part, Function<String, T> parser) {
+		try {
+			return parser.apply(part);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Malformed paging state: " + part, e);
+		}
+	}
+
+	/**
+	 * Turn the driver's paging state into a token, or a part of one
+	 * @param pagingState The driver's paging state, or null
+	 * @return The token, or null if there is no paging state
+	 */
+	public static String encodeState(ByteBuffer pagingState) {
+		if (pagingState == null) {
+			return null;
+		}
+		byte[] bytes = new byte[pagingState.remaining()];
+		pagingState.duplicate().get(bytes);
+		return Base64.getUrlEncoder().encodeToString(bytes);
+	}
+
+	/**
+	 * @param token A token from encodeState, or null or empty for the first page
+	 * @return The driver's paging state, or null for the first page
+	 * @throws IllegalArgumentException If the token can't be read
+	 */
+	public static ByteBuffer decodeState(String token) {
+		return (token == null || token.isEmpty()) ? null : ByteBuffer.wrap(decodeBase64(token));
+	}
+
+	private static byte[] decodeBase64(String token) {
+		try {
+			return Base64.getUrlDecoder().decode(token);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Malformed paging state: " + token, e);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.revature.util;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Hands out a lock per request so approvals on different requests don't wait
+ * on each other. Requests share a fixed set of locks by hash, so two requests
+ * only contend when they land on the same stripe.
+ */
+public class RequestLockManager {
+	private static RequestLockManager instance = null;
+	private static final Logger log = LogManager.getLogger(RequestLockManager.class);
+	private static final Integer STRIPES = Integer.getInteger("requestlocks.stripes", 256);
+
+	private final ReentrantLock[] locks;
+
+	// How often a lock was taken, how often it was already held, and how long callers waited
+	private final AtomicLong acquisitions = new AtomicLong();
+	private final AtomicLong contended = new AtomicLong();
+	private final AtomicLong waitNanos = new AtomicLong();
+
+	private RequestLockManager() {
+		locks = new ReentrantLock[STRIPES];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	public static synchronized RequestLockManager getInstance() {
+		if (instance == null) {
+			instance = new RequestLockManager();
+		}
+		return instance;
+	}
+
+	/**
+	 * Take the lock that guards the request, waiting if another thread holds it
+	 * @param id The UUID of the request
+	 * @return The lock that is now held. The caller must unlock it.
+	 */
+	public Lock lock(UUID id) {
+		ReentrantLock lock = locks[Math.floorMod(id.hashCode(), locks.length)];
+		acquisitions.incrementAndGet();
+
+		// Only time the callers that actually have to wait
+		if (!lock.tryLock()) {
+			contended.incrementAndGet();
+			long start = System.nanoTime();
+			lock.lock();
+			waitNanos.addAndGet(System.nanoTime() - start);
+			log.trace("Waited for the lock on request " + id);
+		}
+		return lock;
+	}
+
+	/**
+	 * @return How many locks the requests are spread over
+	 */
+	public Integer getStripes() {
+		return locks.length;
+	}
+
+	public Long getAcquisitions() {
+		return acquisitions.get();
+	}
+
+	public Long getContended() {
+		return contended.get();
+	}
+
+	public Long getWaitNanos() {
+		return waitNanos.get();
+	}
+
+	/**
+	 * @return The fraction of lock calls that had to wait for another thread
+	 */
+	public Double getContentionRate() {
+		long total = acquisitions.get();
+		return (total == 0) ? 0.0 : (double) contended.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestLockManager [stripes=" + locks.length + ", acquisitions=" + acquisitions + ", contended="
+				+ contended + ", waitNanos=" + waitNanos + ", contentionRate=" + getContentionRate() + "]";
+	}
+}
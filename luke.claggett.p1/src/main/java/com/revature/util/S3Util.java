@@ -1,28 +1,82 @@
 package com.revature.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.revature.beans.PresignedUrl;
+
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
 public class S3Util {
 	public static final Region REGION = Region.US_EAST_2;
 	public static final String BUCKET_NAME = "mtm-project1";
 
+	// S3 won't take a part smaller than 5 MiB unless it is the last one
+	public static final Integer MIN_PART_SIZE = 5 * 1024 * 1024;
+	private static final Integer PART_SIZE = Math.max(MIN_PART_SIZE,
+			Integer.getInteger("s3.partSize", 8 * 1024 * 1024));
+
+	// Set to point at a local stand-in for S3 instead of AWS
+	private static final String ENDPOINT = System.getProperty("s3.endpoint");
+
+	// How long a pre-signed URL can be used for
+	private static final Duration PRESIGN_DURATION = Duration.ofMinutes(Long.getLong("s3.presignMinutes", 15L));
+
 	private static Logger log = LogManager.getLogger(S3Util.class);
 
 	private static S3Util instance = null;
 
 	private S3Client client = null;
+	private S3Presigner presigner = null;
+	private final Integer partSize;
 
 	private S3Util() {
-		client = S3Client.builder().region(REGION).build();
+		S3ClientBuilder builder = S3Client.builder().region(REGION);
+		S3Presigner.Builder presignerBuilder = S3Presigner.builder().region(REGION);
+		if (ENDPOINT != null) {
+			// Local stand-ins don't have a DNS name per bucket
+			S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+			builder.endpointOverride(URI.create(ENDPOINT)).serviceConfiguration(pathStyle);
+			presignerBuilder.endpointOverride(URI.create(ENDPOINT)).serviceConfiguration(pathStyle);
+		}
+		client = builder.build();
+		presigner = presignerBuilder.build();
+		partSize = PART_SIZE;
+	}
+
+	S3Util(S3Client client, S3Presigner presigner, Integer partSize) {
+		this.client = client;
+		this.presigner = presigner;
+		this.partSize = partSize;
 	}
 
 	public static synchronized S3Util getInstance() {
@@ -38,10 +92,145 @@ public class S3Util {
 		log.trace("The upload is complete");
 	}
 
+	/**
+	 * Upload a file without holding all of it in memory. A file that fits in
+	 * one part is sent as a single put; anything bigger is sent as a multipart
+	 * upload, one part at a time through the same buffer.
+	 * @param key    The key to store the file under
+	 * @param file   The file's contents. Not closed.
+	 * @param length The file's length in bytes, or null or negative if unknown
+	 * @throws IOException If the file can't be read. Nothing is left behind in the bucket.
+	 */
+	public void uploadToBucket(String key, InputStream file, Long length) throws IOException {
+		log.trace("Streaming the file: " + key + " Length: " + length);
+		if (length != null && length >= 0 && length <= partSize) {
+			// Small enough to go straight through without a buffer
+			client.putObject(PutObjectRequest.builder().bucket(BUCKET_NAME).key(key).build(),
+					RequestBody.fromInputStream(file, length));
+			log.trace("The upload is complete");
+			return;
+		}
+
+		byte[] buffer = new byte[partSize];
+		Integer read = fill(file, buffer);
+		if (read < partSize) {
+			client.putObject(PutObjectRequest.builder().bucket(BUCKET_NAME).key(key).build(), body(buffer, read));
+			log.trace("The upload is complete");
+			return;
+		}
+
+		String uploadId = client
+				.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(BUCKET_NAME).key(key).build())
+				.uploadId();
+		List<CompletedPart> parts = new ArrayList<>();
+		try {
+			// Every part but the last is full, so a read that comes up short is the end of the file
+			while (read > 0) {
+				Integer partNumber = parts.size() + 1;
+				String eTag = client.uploadPart(UploadPartRequest.builder().bucket(BUCKET_NAME).key(key)
+						.uploadId(uploadId).partNumber(partNumber).contentLength((long) read).build(),
+						body(buffer, read)).eTag();
+				parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+				log.trace("Uploaded part " + partNumber + " of " + key);
+				read = (read < partSize) ? 0 : fill(file, buffer);
+			}
+			client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(BUCKET_NAME).key(key)
+					.uploadId(uploadId).multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+					.build());
+		} catch (IOException | RuntimeException e) {
+			// S3 keeps, and charges for, the parts of an upload until it is aborted
+			log.warn("Aborting the upload of " + key + " after " + parts.size() + " parts: " + e);
+			client.abortMultipartUpload(
+					AbortMultipartUploadRequest.builder().bucket(BUCKET_NAME).key(key).uploadId(uploadId).build());
+			throw e;
+		}
+		log.trace("The upload is complete in " + parts.size() + " parts");
+	}
+
 	public InputStream getObject(String key) {
 		log.trace("Retriving file: " + key);
 		InputStream object = client.getObject(GetObjectRequest.builder().bucket(BUCKET_NAME).key(key).build());
 		log.trace("Retrieval Complete");
 		return object;
 	}
+
+	/**
+	 * Download a file to disk
+	 * @param key  The key the file is stored under
+	 * @param file Where to write it. Must not exist yet.
+	 * @return The file's ETag
+	 */
+	public String downloadToFile(String key, Path file) {
+		log.trace("Downloading file: " + key + " to " + file);
+		String eTag = client.getObject(GetObjectRequest.builder().bucket(BUCKET_NAME).key(key).build(),
+				ResponseTransformer.toFile(file)).eTag();
+		log.trace("Download Complete");
+		return eTag;
+	}
+
+	/**
+	 * @param key The key the file is stored under
+	 * @return Whether there is a file under the key
+	 */
+	public Boolean exists(String key) {
+		try {
+			client.headObject(HeadObjectRequest.builder().bucket(BUCKET_NAME).key(key).build());
+			return true;
+		} catch (S3Exception e) {
+			if (e.statusCode() == 404) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Get a URL the client can upload the file to directly, without it passing
+	 * through this server
+	 * @param key The key to store the file under
+	 * @return A URL to PUT the file to, good for s3.presignMinutes
+	 */
+	public PresignedUrl presignUpload(String key) {
+		PresignedPutObjectRequest presigned = presigner.presignPutObject((request) -> request
+				.signatureDuration(PRESIGN_DURATION)
+				.putObjectRequest(PutObjectRequest.builder().bucket(BUCKET_NAME).key(key).build()));
+		log.trace("Pre-signed an upload of " + key + " until " + presigned.expiration());
+		return new PresignedUrl(key, presigned.url().toString(), presigned.httpRequest().method().name(),
+				LocalDateTime.ofInstant(presigned.expiration(), ZoneOffset.UTC));
+	}
+
+	/**
+	 * Get a URL the client can download the file from directly
+	 * @param key The key the file is stored under
+	 * @return A URL to GET the file from, good for s3.presignMinutes
+	 */
+	public PresignedUrl presignDownload(String key) {
+		PresignedGetObjectRequest presigned = presigner.presignGetObject((request) -> request
+				.signatureDuration(PRESIGN_DURATION)
+				.getObjectRequest(GetObjectRequest.builder().bucket(BUCKET_NAME).key(key).build()));
+		log.trace("Pre-signed a download of " + key + " until " + presigned.expiration());
+		return new PresignedUrl(key, presigned.url().toString(), presigned.httpRequest().method().name(),
+				LocalDateTime.ofInstant(presigned.expiration(), ZoneOffset.UTC));
+	}
+
+	/**
+	 * Read until the buffer is full or the file ends
+	 * @return How many bytes were read
+	 */
+	private Integer fill(InputStream file, byte[] buffer) throws IOException {
+		int total = 0;
+		while (total < buffer.length) {
+			int read = file.read(buffer, total, buffer.length - total);
+			if (read < 0) {
+				break;
+			}
+			total += read;
+		}
+		return total;
+	}
+
+	private RequestBody body(byte[] buffer, Integer length) {
+		// Wrapped rather than copied, so the buffer is the only copy of the part
+		return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length);
+	}
 }
@@ -0,0 +1,322 @@
+package com.revature.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+
+/**
+ * Holds the prepared version of every DAO query so each statement is only
+ * prepared once for the life of the session.
+ */
+public class StatementRegistry {
+	private static final Logger log = LogManager.getLogger(StatementRegistry.class);
+
+	// How the driver words the errors it gives up with when it can't re-prepare a statement by itself
+	private static final String ID_MISMATCH = "ID mismatch while trying to reprepare";
+	private static final String CANT_REPREPARE = "Tried to execute unprepared query";
+
+	private final CqlSession session;
+	// Keyed by the CQL text of the statement
+	private final Map<String, RegisteredStatement> statements = new ConcurrentHashMap<>();
+
+	public StatementRegistry(CqlSession session) {
+		this.session = session;
+	}
+
+	/**
+	 * Get the prepared version of the statement, preparing it if it has not been
+	 * seen before
+	 *
+	 * @param statement The statement to prepare
+	 * @return The prepared statement
+	 */
+	public PreparedStatement prepare(SimpleStatement statement) {
+		return await(lookup(statement).prepare(statement, false));
+	}
+
+	/**
+	 * Bind the values to the prepared version of the statement
+	 *
+	 * @param statement The statement to bind
+	 * @param values    The values for the statement's bind markers
+	 * @return The bound statement
+	 */
+	public BoundStatement bind(SimpleStatement statement, Object... values) {
+		RegisteredStatement registered = lookup(statement);
+		registered.hits.incrementAndGet();
+		return await(registered.prepare(statement, false)).bind(values);
+	}
+
+	/**
+	 * Bind the values to the prepared version of the statement without blocking
+	 * on the prepare
+	 *
+	 * @param statement The statement to bind
+	 * @param values    The values for the statement's bind markers
+	 * @return The bound statement
+	 */
+	public CompletionStage<BoundStatement> bindAsync(SimpleStatement statement, Object... values) {
+		RegisteredStatement registered = lookup(statement);
+		registered.hits.incrementAndGet();
+		return registered.prepare(statement, false).thenApply((prepared) -> prepared.bind(values));
+	}
+
+	/**
+	 * Execute a batch of statements bound by this registry
+	 *
+	 * @param batch The batch to execute
+	 * @return The result of the batch
+	 */
+	public ResultSet execute(BatchStatement batch) {
+		return session.execute(batch);
+	}
+
+	/**
+	 * Execute a batch of statements bound by this registry without blocking
+	 *
+	 * @param batch The batch to execute
+	 * @return The result of the batch
+	 */
+	public CompletionStage<AsyncResultSet> executeAsync(BatchStatement batch) {
+		return session.executeAsync(batch);
+	}
+
+	/**
+	 * Bind and execute the statement. If the driver reports that the statement
+	 * is no longer prepared on the server it is prepared again and executed one
+	 * more time.
+	 *
+	 * @param statement The statement to execute
+	 * @param values    The values for the statement's bind markers
+	 * @return The result of the query
+	 */
+	public ResultSet execute(SimpleStatement statement, Object... values) {
+		try {
+			return session.execute(bind(statement, values));
+		} catch (IllegalStateException e) {
+			// The driver re-prepares UNPREPARED responses on its own. It gives up when the
+			// statement id changed underneath it (i.e. the table was re-created), so
+			// prepare from scratch and try once more.
+			if (!needsPrepare(e)) {
+				throw e;
+			}
+			log.warn("Statement needs to be prepared again: " + statement.getQuery() + " Cause: " + e);
+			return session.execute(prepareAgain(statement).bind(values));
+		}
+	}
+
+	/**
+	 * Execute a single page of the statement. Only the rows returned by
+	 * getAvailableWithoutFetching belong to the page; the paging state of the
+	 * next page is in the execution info.
+	 *
+	 * @param statement   The statement to execute
+	 * @param pageSize    The most rows to return
+	 * @param pagingState Where the previous page ended, or null for the first page
+	 * @param values      The values for the statement's bind markers
+	 * @return The result of the query
+	 */
+	public ResultSet executePage(SimpleStatement statement, Integer pageSize, ByteBuffer pagingState,
+			Object... values) {
+		try {
+			return session.execute(bind(statement, values).setPageSize(pageSize).setPagingState(pagingState));
+		} catch (IllegalStateException e) {
+			if (!needsPrepare(e)) {
+				throw e;
+			}
+			log.warn("Statement needs to be prepared again: " + statement.getQuery() + " Cause: " + e);
+			return session.execute(
+					prepareAgain(statement).bind(values).setPageSize(pageSize).setPagingState(pagingState));
+		}
+	}
+
+	/**
+	 * Bind and execute the statement without blocking the calling thread. Safe
+	 * to call from a driver callback since nothing here waits on the network.
+	 *
+	 * @param statement The statement to execute
+	 * @param values    The values for the statement's bind markers
+	 * @return The first page of the result
+	 */
+	public CompletionStage<AsyncResultSet> executeAsync(SimpleStatement statement, Object... values) {
+		RegisteredStatement registered = lookup(statement);
+		registered.hits.incrementAndGet();
+		CompletableFuture<AsyncResultSet> result = new CompletableFuture<>();
+
+		registered.prepare(statement, false)
+				.thenCompose((prepared) -> session.executeAsync(prepared.bind(values)))
+				.whenComplete((rs, e) -> {
+					Throwable cause = (e instanceof CompletionException) ? e.getCause() : e;
+					if (cause == null) {
+						result.complete(rs);
+					} else if (needsPrepare(cause)) {
+						log.warn("Statement needs to be prepared again: " + statement.getQuery() + " Cause: " + cause);
+						registered.prepare(statement, true)
+								.thenCompose((prepared) -> session.executeAsync(prepared.bind(values)))
+								.whenComplete((retry, retryError) -> {
+									if (retryError == null) {
+										result.complete(retry);
+									} else {
+										result.completeExceptionally(retryError);
+									}
+								});
+					} else {
+						result.completeExceptionally(cause);
+					}
+				});
+		return result;
+	}
+
+	/**
+	 * Execute the statement asynchronously and map every row of every page
+	 *
+	 * @param statement The statement to execute
+	 * @param mapper    Turns a row into a bean
+	 * @param values    The values for the statement's bind markers
+	 * @return All of the mapped rows
+	 */
+	public <T> CompletionStage<List<T>> executeAsync(SimpleStatement statement, Function<Row, T> mapper,
+			Object... values) {
+		return executeAsync(statement, values).thenCompose((rs) -> collect(rs, mapper, new ArrayList<>()));
+	}
+
+	/**
+	 * @return The statistics for every statement prepared so far
+	 */
+	public Collection<RegisteredStatement> getStatements() {
+		return Collections.unmodifiableCollection(statements.values());
+	}
+
+	/**
+	 * Write the hit counts and prepare timings of every statement to the log
+	 */
+	public void logStatistics() {
+		if (!log.isDebugEnabled()) {
+			return;
+		}
+		for (RegisteredStatement registered : statements.values()) {
+			log.debug(registered);
+		}
+	}
+
+	private <T> CompletionStage<List<T>> collect(AsyncResultSet rs, Function<Row, T> mapper, List<T> results) {
+		for (Row row : rs.currentPage()) {
+			results.add(mapper.apply(row));
+		}
+		if (rs.hasMorePages()) {
+			return rs.fetchNextPage().thenCompose((next) -> collect(next, mapper, results));
+		}
+		return CompletableFuture.completedFuture(results);
+	}
+
+	/**
+	 * @return Whether the driver gave up because the statement has to be
+	 *         prepared from scratch. Anything else is a real error and is
+	 *         passed on as it is.
+	 */
+	static Boolean needsPrepare(Throwable e) {
+		return e instanceof IllegalStateException && e.getMessage() != null
+				&& (e.getMessage().startsWith(ID_MISMATCH) || e.getMessage().startsWith(CANT_REPREPARE));
+	}
+
+	/**
+	 * Prepare the statement from scratch for a retry. The retry is part of the
+	 * same execution, so it isn't counted as another hit.
+	 */
+	private PreparedStatement prepareAgain(SimpleStatement statement) {
+		return await(lookup(statement).prepare(statement, true));
+	}
+
+	private PreparedStatement await(CompletableFuture<PreparedStatement> prepared) {
+		try {
+			return prepared.join();
+		} catch (CompletionException e) {
+			// Rethrow what the driver threw so the synchronous callers see the same exceptions as before
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private RegisteredStatement lookup(SimpleStatement statement) {
+		return statements.computeIfAbsent(statement.getQuery(), (query) -> new RegisteredStatement(query));
+	}
+
+	/**
+	 * A prepared statement along with how often it has been used and how long
+	 * it took to prepare
+	 */
+	public class RegisteredStatement {
+		private final String query;
+		private CompletableFuture<PreparedStatement> prepared;
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong prepareCount = new AtomicLong();
+		private volatile long prepareNanos;
+
+		private RegisteredStatement(String query) {
+			this.query = query;
+		}
+
+		/**
+		 * Start preparing the statement unless it is already prepared or being
+		 * prepared. A failed prepare is started over on the next call.
+		 */
+		private synchronized CompletableFuture<PreparedStatement> prepare(SimpleStatement statement, boolean force) {
+			if (prepared != null && !force && !prepared.isCompletedExceptionally()) {
+				return prepared;
+			}
+			long start = System.nanoTime();
+			prepared = session.prepareAsync(statement).toCompletableFuture();
+			prepared.thenRun(() -> {
+				prepareNanos = System.nanoTime() - start;
+				prepareCount.incrementAndGet();
+				log.trace("Prepared in " + prepareNanos + "ns: " + query);
+			});
+			return prepared;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		public Long getHits() {
+			return hits.get();
+		}
+
+		public Long getPrepareCount() {
+			return prepareCount.get();
+		}
+
+		public Long getPrepareNanos() {
+			return prepareNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "RegisteredStatement [query=" + query + ", hits=" + hits + ", prepareCount=" + prepareCount
+					+ ", prepareNanos=" + prepareNanos + "]";
+		}
+	}
+}
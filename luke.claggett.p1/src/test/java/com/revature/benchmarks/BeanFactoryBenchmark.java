@@ -0,0 +1,127 @@
+package com.revature.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.revature.beans.Reimbursement;
+import com.revature.factory.BeanFactory;
+import com.revature.factory.TraceLog;
+import com.revature.factory.TraceLogProxy;
+import com.revature.util.RowHelper;
+
+/**
+ * The wrapper TraceLogProcessor writes for a bean against the proxy
+ * BeanFactory used to build, with TRACE off for the bean. The per call
+ * benchmarks time a call to a bean that is already made. The startup ones
+ * time making a bean no other bean of its class has been made before and
+ * calling it once, in a new JVM each time, which is the cost paid for each
+ * bean while the server starts.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.revature.benchmarks.BeanFactoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanFactoryBenchmark {
+	private Reimbursement request;
+	private Echo direct;
+	private Echo generated;
+	private Echo proxied;
+
+	@Setup
+	public void setup() {
+		Configurator.setLevel(EchoImpl.class.getCanonicalName(), Level.DEBUG);
+		Configurator.setLevel(StartupEchoImpl.class.getCanonicalName(), Level.DEBUG);
+		request = RowHelper.sampleRequest();
+		direct = new EchoImpl();
+		generated = (Echo) BeanFactory.getFactory().getObject(Echo.class, EchoImpl.class);
+		proxied = proxy(new EchoImpl());
+	}
+
+	@Benchmark
+	public Reimbursement callDirect() {
+		return direct.echo(request);
+	}
+
+	@Benchmark
+	public Reimbursement callGenerated() {
+		return generated.echo(request);
+	}
+
+	@Benchmark
+	public Reimbursement callProxy() {
+		return proxied.echo(request);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Reimbursement startGenerated() {
+		return ((Echo) BeanFactory.getFactory().getObject(Echo.class, StartupEchoImpl.class)).echo(request);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Reimbursement startProxy() {
+		return proxy(new StartupEchoImpl()).echo(request);
+	}
+
+	private Echo proxy(Echo bean) {
+		return (Echo) Proxy.newProxyInstance(Echo.class.getClassLoader(), new Class[] { Echo.class },
+				new TraceLogProxy(bean));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BeanFactoryBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	public interface Echo {
+		public Reimbursement echo(Reimbursement request);
+	}
+
+	@TraceLog
+	public static class EchoImpl implements Echo {
+		@Override
+		public Reimbursement echo(Reimbursement request) {
+			return request;
+		}
+	}
+
+	/**
+	 * Only made by the startup benchmarks, so setup hasn't made one already
+	 */
+	@TraceLog
+	public static class StartupEchoImpl implements Echo {
+		@Override
+		public Reimbursement echo(Reimbursement request) {
+			return request;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.revature.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.revature.beans.Approval;
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.EventType;
+import com.revature.beans.Format;
+import com.revature.beans.GradingFormat;
+import com.revature.beans.Reimbursement;
+import com.revature.beans.ReimbursementRequest;
+import com.revature.beans.ReimbursementStatus;
+import com.revature.data.ReimbursementRowMapper;
+import com.revature.util.RowHelper;
+
+/**
+ * Rows mapped per second by ReimbursementRowMapper against the old mapping,
+ * which looked every column up by name, decoded each approval twice and
+ * turned the stored strings back into enums.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.revature.benchmarks.ReimbursementRowMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReimbursementRowMapperBenchmark {
+	private Row row;
+	private ReimbursementRowMapper mapper;
+
+	@Setup
+	public void setup() {
+		row = RowHelper.toRow(RowHelper.sampleRequest());
+		mapper = new ReimbursementRowMapper();
+	}
+
+	@Benchmark
+	public Reimbursement byName() {
+		return mapByName(row);
+	}
+
+	@Benchmark
+	public Reimbursement byIndex() {
+		return mapper.map(row);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ReimbursementRowMapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/**
+	 * The mapping ReimbursementDaoImpl used before ReimbursementRowMapper
+	 */
+	private static Reimbursement mapByName(Row row) {
+		Reimbursement request = new ReimbursementRequest();
+		request.setId(row.getUuid("id"));
+		request.setUsername(row.getString("username"));
+		request.setStatus(ReimbursementStatus.valueOf(row.getString("status")));
+		request.setIsUrgent(row.getBoolean("isurgent"));
+		request.setName(row.getString("name"));
+		request.setFirstName(row.getString("firstname"));
+		request.setLastName(row.getString("lastname"));
+		request.setDeptName(row.getString("deptname"));
+		request.setStartDate(row.getLocalDate("startdate"));
+		request.setStartTime(row.getLocalTime("starttime"));
+		request.setLocation(row.getString("location"));
+		request.setDescription(row.getString("description"));
+		request.setCost(row.getDouble("cost"));
+		request.setGradingFormat(
+				new GradingFormat(Format.valueOf(row.getUdtValue("gradingformat").getString(0)),
+						row.getUdtValue("gradingformat").getString(1)));
+		request.setType(EventType.valueOf(row.getString("type")));
+		request.setFileURIs(row.getList("fileuris", String.class));
+		request.setApprovalMsgURI(row.getString("approvalmsguri"));
+		request.setWorkTimeMissed(row.getString("worktimemissed"));
+		request.setReimburseAmount(row.getDouble("reimburseamount"));
+		request.setSupervisorApproval(
+				new Approval(ApprovalStatus.valueOf(row.getUdtValue("supervisorapproval").getString(0)),
+						row.getUdtValue("supervisorapproval").getString(1)));
+		request.setDeptHeadApproval(
+				new Approval(ApprovalStatus.valueOf(row.getUdtValue("deptheadapproval").getString(0)),
+						row.getUdtValue("deptheadapproval").getString(1)));
+		request.setBenCoApproval(
+				new Approval(ApprovalStatus.valueOf(row.getUdtValue("bencoapproval").getString(0)),
+						row.getUdtValue("bencoapproval").getString(1)));
+
+		request.setReason(row.getString("reason"));
+		request.setDeadline(LocalDateTime.ofInstant(row.getInstant("deadline"), ZoneOffset.UTC));
+		request.setFinalGrade(row.getString("finalgrade"));
+		request.setIsPassing(row.getBoolean("ispassing"));
+		request.setPresFileName(row.getString("presfilename"));
+		request.setFinalApproval(
+				new Approval(ApprovalStatus.valueOf(row.getUdtValue("finalapproval").getString(0)),
+						row.getUdtValue("finalapproval").getString(1)));
+		request.setFinalReimburseAmount(row.getDouble("finalreimburseamount"));
+		request.setFinalReimburseAmountReason(row.getString("finalreimburseamountreason"));
+		request.setNeedsEmployeeReview(row.getBoolean("needsemployeereview"));
+		request.setEmployeeAgrees(row.getBoolean("employeeagrees"));
+		request.setVersion(row.get("version", Long.class));
+		return request;
+	}
+}
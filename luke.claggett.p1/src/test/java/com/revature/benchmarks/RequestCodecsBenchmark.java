@@ -0,0 +1,130 @@
+package com.revature.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.data.UdtValue;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.revature.beans.Approval;
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.EventType;
+import com.revature.beans.Format;
+import com.revature.beans.GradingFormat;
+import com.revature.beans.Reimbursement;
+import com.revature.beans.ReimbursementStatus;
+import com.revature.codecs.ApprovalCodec;
+import com.revature.codecs.GradingFormatCodec;
+import com.revature.codecs.RequestCodecs;
+import com.revature.util.RowHelper;
+
+/**
+ * Cost of encoding and decoding the enums, approvals and grading format of
+ * one request with RequestCodecs, against building UdtValues out of the
+ * enums' names and reading them back with valueOf.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.revature.benchmarks.RequestCodecsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestCodecsBenchmark {
+	private static final ProtocolVersion VERSION = ProtocolVersion.DEFAULT;
+
+	private Reimbursement request;
+	private ApprovalCodec approvalCodec;
+	private GradingFormatCodec gradingFormatCodec;
+	private UserDefinedType approvalType;
+	private UserDefinedType gradingFormatType;
+	private TypeCodec<UdtValue> approvalUdtCodec;
+	private TypeCodec<UdtValue> gradingFormatUdtCodec;
+	private ByteBuffer[] encoded;
+
+	@Setup
+	public void setup() {
+		request = RowHelper.sampleRequest();
+		request.setFinalApproval(new Approval(ApprovalStatus.AWAITING, null));
+		approvalType = RowHelper.APPROVAL;
+		gradingFormatType = RowHelper.GRADING_FORMAT;
+		approvalCodec = new ApprovalCodec(approvalType);
+		gradingFormatCodec = new GradingFormatCodec(gradingFormatType);
+		approvalUdtCodec = TypeCodecs.udtOf(approvalType);
+		gradingFormatUdtCodec = TypeCodecs.udtOf(gradingFormatType);
+		encoded = encodeWithCodecs();
+	}
+
+	@Benchmark
+	public ByteBuffer[] encodeWithCodecs() {
+		return new ByteBuffer[] { RequestCodecs.REIMBURSEMENT_STATUS.encode(request.getStatus(), VERSION),
+				RequestCodecs.EVENT_TYPE.encode(request.getType(), VERSION),
+				gradingFormatCodec.encode(request.getGradingFormat(), VERSION),
+				approvalCodec.encode(request.getSupervisorApproval(), VERSION),
+				approvalCodec.encode(request.getDeptHeadApproval(), VERSION),
+				approvalCodec.encode(request.getBenCoApproval(), VERSION),
+				approvalCodec.encode(request.getFinalApproval(), VERSION) };
+	}
+
+	@Benchmark
+	public ByteBuffer[] encodeWithUdtValues() {
+		return new ByteBuffer[] { TypeCodecs.TEXT.encode(request.getStatus().name(), VERSION),
+				TypeCodecs.TEXT.encode(request.getType().name(), VERSION),
+				gradingFormatUdtCodec.encode(gradingFormatType.newValue(
+						request.getGradingFormat().getFormat().name(), request.getGradingFormat().getPassingGrade()),
+						VERSION),
+				approvalUdtCodec.encode(toUdt(request.getSupervisorApproval()), VERSION),
+				approvalUdtCodec.encode(toUdt(request.getDeptHeadApproval()), VERSION),
+				approvalUdtCodec.encode(toUdt(request.getBenCoApproval()), VERSION),
+				approvalUdtCodec.encode(toUdt(request.getFinalApproval()), VERSION) };
+	}
+
+	@Benchmark
+	public void decodeWithCodecs(Blackhole hole) {
+		hole.consume(RequestCodecs.REIMBURSEMENT_STATUS.decode(encoded[0].duplicate(), VERSION));
+		hole.consume(RequestCodecs.EVENT_TYPE.decode(encoded[1].duplicate(), VERSION));
+		hole.consume(gradingFormatCodec.decode(encoded[2].duplicate(), VERSION));
+		for (int i = 3; i < encoded.length; i++) {
+			hole.consume(approvalCodec.decode(encoded[i].duplicate(), VERSION));
+		}
+	}
+
+	@Benchmark
+	public void decodeWithUdtValues(Blackhole hole) {
+		hole.consume(ReimbursementStatus.valueOf(TypeCodecs.TEXT.decode(encoded[0].duplicate(), VERSION)));
+		hole.consume(EventType.valueOf(TypeCodecs.TEXT.decode(encoded[1].duplicate(), VERSION)));
+		UdtValue format = gradingFormatUdtCodec.decode(encoded[2].duplicate(), VERSION);
+		hole.consume(new GradingFormat(Format.valueOf(format.getString(0)), format.getString(1)));
+		for (int i = 3; i < encoded.length; i++) {
+			UdtValue approval = approvalUdtCodec.decode(encoded[i].duplicate(), VERSION);
+			hole.consume(new Approval(ApprovalStatus.valueOf(approval.getString(0)), approval.getString(1)));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RequestCodecsBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private UdtValue toUdt(Approval approval) {
+		return approvalType.newValue(approval.getStatus().name(), approval.getUsername());
+	}
+}
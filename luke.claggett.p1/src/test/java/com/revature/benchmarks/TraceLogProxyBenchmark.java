@@ -0,0 +1,127 @@
+package com.revature.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.revature.beans.Reimbursement;
+import com.revature.factory.TraceLog;
+import com.revature.factory.TraceLogProxy;
+import com.revature.util.RowHelper;
+
+/**
+ * Time per call through TraceLogProxy against calling the bean directly and
+ * against the old proxy, which built its trace messages, including the
+ * toString of every argument and return value, whether or not TRACE was on.
+ * TRACE is turned off for the bean, since that is the cost being measured.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.revature.benchmarks.TraceLogProxyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceLogProxyBenchmark {
+	private Reimbursement request;
+	private RequestEcho direct;
+	private RequestEcho proxied;
+	private RequestEcho oldProxied;
+
+	@Setup
+	public void setup() {
+		Configurator.setLevel(RequestEchoImpl.class.getCanonicalName(), Level.DEBUG);
+		request = RowHelper.sampleRequest();
+		direct = new RequestEchoImpl();
+		// Built by hand, since BeanFactory hands out the generated wrapper instead
+		proxied = (RequestEcho) Proxy.newProxyInstance(RequestEcho.class.getClassLoader(),
+				new Class[] { RequestEcho.class }, new TraceLogProxy(new RequestEchoImpl()));
+		oldProxied = (RequestEcho) Proxy.newProxyInstance(RequestEcho.class.getClassLoader(),
+				new Class[] { RequestEcho.class }, new OldTraceLogProxy(new RequestEchoImpl()));
+	}
+
+	@Benchmark
+	public Reimbursement direct() {
+		return direct.echo(request);
+	}
+
+	@Benchmark
+	public Reimbursement proxied() {
+		return proxied.echo(request);
+	}
+
+	@Benchmark
+	public Reimbursement oldProxied() {
+		return oldProxied.echo(request);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TraceLogProxyBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	public interface RequestEcho {
+		public Reimbursement echo(Reimbursement request);
+	}
+
+	@TraceLog
+	public static class RequestEchoImpl implements RequestEcho {
+		@Override
+		public Reimbursement echo(Reimbursement request) {
+			return request;
+		}
+	}
+
+	/**
+	 * TraceLogProxy before its logging was guarded
+	 */
+	private static class OldTraceLogProxy implements InvocationHandler {
+		private Logger log;
+		private Object object;
+
+		OldTraceLogProxy(Object object) {
+			this.object = object;
+			log = LogManager.getLogger(object.getClass());
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object retObject = null;
+			try {
+				if (args == null) {
+					log.trace(method + " has been called. Parameters: None");
+					retObject = method.invoke(object);
+				} else {
+					log.trace(method + " has been called. Parameters: " + Arrays.toString(args));
+					retObject = method.invoke(object, args);
+				}
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			log.trace(method + " is returning with Object: " + retObject);
+			return retObject;
+		}
+	}
+}
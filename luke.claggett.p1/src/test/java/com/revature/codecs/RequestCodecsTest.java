@@ -0,0 +1,106 @@
+package com.revature.codecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.data.UdtValue;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
+import com.revature.beans.Approval;
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.Format;
+import com.revature.beans.GradingFormat;
+import com.revature.beans.ReimbursementStatus;
+import com.revature.util.RowHelper;
+
+public class RequestCodecsTest {
+	private static final ProtocolVersion VERSION = ProtocolVersion.DEFAULT;
+
+	@Test
+	public void testEnumNameCodec() {
+		EnumNameCodec<ReimbursementStatus> codec = RequestCodecs.REIMBURSEMENT_STATUS;
+		ByteBuffer bytes = codec.encode(ReimbursementStatus.ACTIVE, VERSION);
+
+		assertEquals("ACTIVE", TypeCodecs.TEXT.decode(bytes, VERSION), "Assert that the enum is stored by name.");
+		assertEquals(ReimbursementStatus.ACTIVE, codec.decode(bytes, VERSION),
+				"Assert that the name decodes to the enum.");
+		assertNull(codec.encode(null, VERSION), "Assert that null encodes to null.");
+		assertThrows(IllegalArgumentException.class,
+				() -> codec.decode(TypeCodecs.TEXT.encode("NOT_A_STATUS", VERSION), VERSION),
+				"Assert that an unknown name is refused.");
+	}
+
+	@Test
+	public void testApprovalCodec() {
+		UserDefinedType type = RowHelper.APPROVAL;
+		ApprovalCodec codec = new ApprovalCodec(type);
+		TypeCodec<UdtValue> udtCodec = TypeCodecs.udtOf(type);
+		Approval approval = new Approval(ApprovalStatus.APPROVED, "TestSuper");
+
+		ByteBuffer bytes = codec.encode(approval, VERSION);
+		assertEquals(udtCodec.encode(type.newValue("APPROVED", "TestSuper"), VERSION), bytes,
+				"Assert that the approval is written in the UDT's wire format.");
+		assertEquals(approval, codec.decode(bytes, VERSION), "Assert that the approval is read back.");
+
+		Approval awaiting = new Approval(ApprovalStatus.AWAITING, null);
+		assertEquals(awaiting, codec.decode(codec.encode(awaiting, VERSION), VERSION),
+				"Assert that a missing username is read back as null.");
+		assertEquals(awaiting, codec.parse(codec.format(awaiting)), "Assert that the literal is parsed back.");
+	}
+
+	@Test
+	public void testGradingFormatCodec() {
+		GradingFormatCodec codec = new GradingFormatCodec(RowHelper.GRADING_FORMAT);
+		GradingFormat format = new GradingFormat(Format.LETTER);
+
+		assertEquals(format, codec.decode(codec.encode(format, VERSION), VERSION),
+				"Assert that the grading format is read back.");
+		assertEquals(true, codec.accepts(RowHelper.GRADING_FORMAT.copy(false)),
+				"Assert that the codec accepts its type.");
+		assertEquals(false, codec.accepts(RowHelper.APPROVAL),
+				"Assert that the codec refuses other types.");
+	}
+
+	@Test
+	public void testRegisterReadsTypesFromSchema() {
+		Session session = Mockito.mock(Session.class, Mockito.RETURNS_DEEP_STUBS);
+		KeyspaceMetadata keyspace = Mockito.mock(KeyspaceMetadata.class);
+		DefaultCodecRegistry registry = new DefaultCodecRegistry("test");
+		Mockito.when(session.getContext().getCodecRegistry()).thenReturn(registry);
+		Mockito.when(session.getMetadata().getKeyspace(RowHelper.KEYSPACE)).thenReturn(Optional.of(keyspace));
+		Mockito.when(keyspace.getUserDefinedType(ApprovalCodec.TYPE))
+				.thenReturn(Optional.of(RowHelper.APPROVAL.copy(false)));
+		Mockito.when(keyspace.getUserDefinedType(GradingFormatCodec.TYPE))
+				.thenReturn(Optional.of(RowHelper.GRADING_FORMAT.copy(false)));
+
+		RequestCodecs.register(session, RowHelper.KEYSPACE);
+
+		assertEquals(ApprovalCodec.class, registry.codecFor(RowHelper.APPROVAL).getClass(),
+				"Assert that the approval codec is registered for the schema's type.");
+		assertEquals(GradingFormatCodec.class, registry.codecFor(GradingFormat.class).getClass(),
+				"Assert that the grading format codec is registered for its bean.");
+		assertEquals(true, ((UserDefinedType) registry.codecFor(GradingFormat.class).getCqlType()).isFrozen(),
+				"Assert that the codec's type is frozen like the columns.");
+	}
+
+	@Test
+	public void testRegisterNeedsTypesInSchema() {
+		Session session = Mockito.mock(Session.class, Mockito.RETURNS_DEEP_STUBS);
+		Mockito.when(session.getMetadata().getKeyspace(RowHelper.KEYSPACE)).thenReturn(Optional.empty());
+
+		assertThrows(IllegalStateException.class, () -> RequestCodecs.register(session, RowHelper.KEYSPACE),
+				"Assert that a keyspace without the types is refused.");
+	}
+}
@@ -0,0 +1,91 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.beans.Balance;
+
+public class BalanceDaoTest {
+	private static final Integer THREADS = 8;
+	private static final Integer ENTRIES_PER_THREAD = 50;
+
+	private BalanceDao balDao = null;
+	private ExecutorService pool = null;
+	private String username = null;
+	private UUID requestId = null;
+
+	@BeforeEach
+	public void beforeEach() {
+		balDao = new BalanceDaoImpl();
+		pool = Executors.newFixedThreadPool(THREADS);
+
+		// A new user every run so the ledger starts out empty
+		username = "BalanceTester-" + UUID.randomUUID();
+		requestId = UUID.fromString("ddd9e879-52d3-47ad-a1b6-87a94cbb321d");
+	}
+
+	@AfterEach
+	public void afterEach() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testGetBalanceEmpty() {
+		assertEquals(new Balance(), balDao.getBalance(username), "Assert that a user with no entries has no balance.");
+	}
+
+	@Test
+	public void testAddEntry() {
+		balDao.addEntry(username, requestId, Balance.toCents(150.25), 0L);
+		balDao.addEntry(username, requestId, Balance.toCents(-150.25), Balance.toCents(150.25));
+
+		Balance balance = balDao.getBalance(username);
+		assertEquals(0.0, balance.getPending(), "Assert that the pending amount was moved out.");
+		assertEquals(150.25, balance.getAwarded(), "Assert that the awarded amount is exact.");
+	}
+
+	@Test
+	public void testConcurrentEntriesAreNotLost() throws Exception {
+		// Every thread adds to the same user at once. With a read-modify-write of the
+		// balance most of these would overwrite each other.
+		List<Future<?>> writers = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			writers.add(pool.submit(() -> {
+				for (int entry = 0; entry < ENTRIES_PER_THREAD; entry++) {
+					balDao.addEntry(username, requestId, 1001L, 7L);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> writer : writers) {
+			writer.get();
+		}
+
+		Long entries = (long) THREADS * ENTRIES_PER_THREAD;
+		assertEquals(new Balance(entries * 1001L, entries * 7L), balDao.getBalance(username),
+				"Assert that every entry is counted in the balance.");
+	}
+
+	@Test
+	public void testAddEntryInUnitOfWork() {
+		UnitOfWork work = new UnitOfWork();
+		balDao.addEntry(username, requestId, 2500L, 0L, work);
+		balDao.addEntry(username, requestId, -2500L, 2500L, work);
+
+		assertEquals(new Balance(), balDao.getBalance(username), "Assert that nothing is written before the commit.");
+
+		work.commit();
+		assertEquals(new Balance(0L, 2500L), balDao.getBalance(username),
+				"Assert that both entries are written by the commit.");
+	}
+}
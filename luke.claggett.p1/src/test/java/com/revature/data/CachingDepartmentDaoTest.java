@@ -0,0 +1,66 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.revature.beans.Department;
+import com.revature.util.ExpiringCache;
+
+public class CachingDepartmentDaoTest {
+	private DepartmentDao dao = null;
+	private DepartmentDao cachingDao = null;
+	private ExpiringCache<String, Department> cache = null;
+	private Department dept = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		dao = Mockito.mock(DepartmentDao.class);
+		cache = new ExpiringCache<>(60000L);
+		cachingDao = new CachingDepartmentDao(dao, cache);
+		dept = new Department("Test", "TestHead");
+
+		Mockito.when(dao.getDepartment(dept.getName())).thenReturn(dept);
+	}
+
+	@Test
+	public void testGetDepartmentCached() {
+		assertEquals(dept, cachingDao.getDepartment(dept.getName()), "Assert that the department is returned.");
+		assertEquals(dept, cachingDao.getDepartment(dept.getName()), "Assert that the department is returned again.");
+
+		// Only the first lookup should reach the database
+		Mockito.verify(dao, Mockito.times(1)).getDepartment(dept.getName());
+		assertEquals(1L, cache.getHits(), "Assert that the second lookup was a hit.");
+		assertEquals(1L, cache.getMisses(), "Assert that the first lookup was a miss.");
+	}
+
+	@Test
+	public void testGetDepartmentExpired() throws InterruptedException {
+		cachingDao = new CachingDepartmentDao(dao, new ExpiringCache<>(1L));
+
+		cachingDao.getDepartment(dept.getName());
+		Thread.sleep(5);
+		cachingDao.getDepartment(dept.getName());
+
+		Mockito.verify(dao, Mockito.times(2)).getDepartment(dept.getName());
+	}
+
+	@Test
+	public void testCreateDepartmentInvalidates() {
+		cachingDao.getDepartment(dept.getName());
+		cachingDao.createDepartment(dept);
+		cachingDao.getDepartment(dept.getName());
+
+		Mockito.verify(dao).createDepartment(dept);
+		Mockito.verify(dao, Mockito.times(2)).getDepartment(dept.getName());
+	}
+
+	@Test
+	public void testGetDepartmentInvalid() {
+		assertNull(cachingDao.getDepartment(null), "Assert that a null name returns a null.");
+		assertNull(cachingDao.getDepartment("Nothing"), "Assert that a missing department returns a null.");
+	}
+}
@@ -0,0 +1,85 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.revature.beans.User;
+import com.revature.beans.UserType;
+import com.revature.exceptions.ConcurrentUpdateException;
+import com.revature.util.ExpiringCache;
+
+public class CachingUserDaoTest {
+	private UserDao dao = null;
+	private UserDao cachingDao = null;
+	private ExpiringCache<String, User> cache = null;
+	private User user = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		dao = Mockito.mock(UserDao.class);
+		cache = new ExpiringCache<>(60000L, 2);
+		cachingDao = new CachingUserDao(dao, cache);
+		user = new User("Tester", "Test", "User", UserType.EMPLOYEE, "Test", "TestSuper");
+
+		Mockito.when(dao.getUser(user.getUsername())).thenReturn(user);
+	}
+
+	@Test
+	public void testGetUserCached() {
+		User first = cachingDao.getUser(user.getUsername());
+		User second = cachingDao.getUser(user.getUsername());
+
+		assertEquals(user, second, "Assert that the cached user is the same user.");
+		assertNotSame(first, second, "Assert that every caller gets its own copy.");
+		Mockito.verify(dao, Mockito.times(1)).getUser(user.getUsername());
+		assertEquals(0.5, cache.getHitRate(), "Assert that one of the two lookups was a hit.");
+	}
+
+	@Test
+	public void testUpdateUserWritesThrough() {
+		cachingDao.getUser(user.getUsername());
+
+		User changed = new User(user);
+		changed.setSupervisorUsername("NewSuper");
+		cachingDao.updateUser(changed);
+
+		assertEquals(changed.getSupervisorUsername(), cachingDao.getUser(user.getUsername()).getSupervisorUsername(),
+				"Assert that the cache has the updated user.");
+		Mockito.verify(dao, Mockito.times(1)).getUser(user.getUsername());
+	}
+
+	@Test
+	public void testUpdateUserConflictInvalidates() {
+		cachingDao.getUser(user.getUsername());
+		Mockito.doThrow(new ConcurrentUpdateException("conflict")).when(dao).updateUser(Mockito.any());
+
+		assertThrows(ConcurrentUpdateException.class, () -> cachingDao.updateUser(user),
+				"Assert that the conflict reaches the caller.");
+		cachingDao.getUser(user.getUsername());
+
+		// The retry has to see what the other writer saved
+		Mockito.verify(dao, Mockito.times(2)).getUser(user.getUsername());
+	}
+
+	@Test
+	public void testCacheEvictsLeastRecentlyUsed() {
+		cachingDao.createUser(new User("a", "A", "A", UserType.EMPLOYEE, "Test", "TestSuper"));
+		cachingDao.createUser(new User("b", "B", "B", UserType.EMPLOYEE, "Test", "TestSuper"));
+		cachingDao.getUser("a");
+		cachingDao.createUser(new User("c", "C", "C", UserType.EMPLOYEE, "Test", "TestSuper"));
+
+		assertEquals(2, cache.size(), "Assert that the cache stays at its maximum size.");
+		assertEquals(1L, cache.getEvictions(), "Assert that one user was evicted.");
+
+		// b was used least recently so it is the one that was evicted
+		cachingDao.getUser("a");
+		cachingDao.getUser("b");
+		Mockito.verify(dao, Mockito.never()).getUser("a");
+		Mockito.verify(dao).getUser("b");
+	}
+}
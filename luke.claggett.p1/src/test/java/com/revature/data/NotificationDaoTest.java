@@ -1,9 +1,11 @@
 package com.revature.data;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.revature.beans.Notification;
+import com.revature.beans.Page;
 
 public class NotificationDaoTest {
 	NotificationDao notDao = null;
@@ -26,11 +29,11 @@ public class NotificationDaoTest {
 
 	@Test
 	public void testGetNotificationUserList() {
-		List<Notification> notifications = notDao.getUserNotificationList(notification.getUsername());
+		List<Notification> notifications = notDao.getUserNotificationList(notification.getUsername(), 20);
 
 		assertTrue(notifications != null, "Assert that the returned list is not null.");
 
-		assertThrows(Exception.class, () -> notDao.getUserNotificationList(null),
+		assertThrows(Exception.class, () -> notDao.getUserNotificationList(null, 20),
 				"Assert that a null username throws an exception.");
 	}
 
@@ -55,6 +58,37 @@ public class NotificationDaoTest {
 				"Assert that a null requestId throws an exception.");
 	}
 	
+	@Test
+	public void testGetUserNotificationsPaged() {
+		String username = "PagedTester-" + UUID.randomUUID();
+		LocalDateTime now = LocalDateTime.now();
+
+		// Two this month and one last month, so the pages cross a bucket
+		for (int minutes : new int[] { 1, 2 }) {
+			Notification newer = new Notification(username, UUID.randomUUID(), "Newer " + minutes);
+			newer.setNotificationTime(now.minusMinutes(minutes));
+			notDao.createNotification(newer);
+		}
+		Notification older = new Notification(username, UUID.randomUUID(), "Older");
+		older.setNotificationTime(now.minusMonths(1));
+		notDao.createNotification(older);
+
+		Page<Notification> first = notDao.getUserNotifications(username, 2, null);
+		assertEquals(2, first.getItems().size(), "Assert that the page is full.");
+		assertTrue(first.getItems().get(0).getNotificationTime().isAfter(first.getItems().get(1).getNotificationTime()),
+				"Assert that the newest notification comes first.");
+		assertTrue(first.hasMore(), "Assert that there is another page.");
+
+		Page<Notification> second = notDao.getUserNotifications(username, 2, first.getPagingState());
+		assertEquals(1, second.getItems().size(), "Assert that the last page has the older notification.");
+		assertEquals("Older", second.getItems().get(0).getMessage(), "Assert that last month is read last.");
+
+		// Deleting by request finds the notification in its bucket
+		notDao.deleteNotification(username, older.getRequestId());
+		assertEquals(2, notDao.getUserNotificationList(username, 20).size(),
+				"Assert that the deleted notification is gone.");
+	}
+
 	@Test
 	public void testCreateNotification() {
 		
@@ -0,0 +1,145 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.revature.beans.Notification;
+
+public class NotificationOutboxTest {
+	private NotificationDao dao = null;
+	private NotificationOutbox outbox = null;
+	private UUID requestId = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		dao = Mockito.mock(NotificationDao.class);
+		// Not started, so everything stays queued until the outbox is shut down
+		outbox = new NotificationOutbox(dao, 10, 25, 0L);
+		requestId = UUID.fromString("ddd9e879-52d3-47ad-a1b6-87a94cbb321d");
+	}
+
+	@Test
+	public void testShutdownDrainsQueue() {
+		Notification first = new Notification("Tester", requestId, "First");
+		Notification second = new Notification("OtherTester", requestId, "Second");
+		outbox.create(first);
+		outbox.create(second);
+
+		Mockito.verifyZeroInteractions(dao);
+		assertEquals(2, outbox.getQueued(), "Assert that both notifications are waiting.");
+
+		outbox.shutdown(0L);
+
+		Mockito.verify(dao).createNotification(Mockito.eq(first), Mockito.any(UnitOfWork.class));
+		Mockito.verify(dao).createNotification(Mockito.eq(second), Mockito.any(UnitOfWork.class));
+		assertEquals(0, outbox.getQueued(), "Assert that nothing is left in the queue.");
+		assertEquals(2L, outbox.getWritten(), "Assert that both notifications were written.");
+		assertEquals(1L, outbox.getBatches(), "Assert that they were written in one batch.");
+	}
+
+	@Test
+	public void testDeleteCoalescesEarlierChanges() {
+		outbox.create(new Notification("Tester", requestId, "Dropped"));
+		outbox.delete("Tester", requestId);
+		outbox.delete("Tester", requestId);
+
+		outbox.shutdown(0L);
+
+		Mockito.verify(dao, Mockito.never()).createNotification(Mockito.any(Notification.class),
+				Mockito.any(UnitOfWork.class));
+		Mockito.verify(dao, Mockito.times(1)).deleteNotification(Mockito.eq("Tester"), Mockito.eq(requestId),
+				Mockito.any(UnitOfWork.class));
+		assertEquals(2L, outbox.getCoalesced(), "Assert that the create and the repeated delete were skipped.");
+	}
+
+	@Test
+	public void testCreateAfterDeleteIsKept() {
+		Notification created = new Notification("Tester", requestId, "Kept");
+		outbox.delete("Tester", requestId);
+		outbox.create(created);
+
+		outbox.shutdown(0L);
+
+		Mockito.verify(dao).deleteNotification(Mockito.eq("Tester"), Mockito.eq(requestId),
+				Mockito.any(UnitOfWork.class));
+		Mockito.verify(dao).createNotification(Mockito.eq(created), Mockito.any(UnitOfWork.class));
+		assertEquals(0L, outbox.getCoalesced(), "Assert that nothing was skipped.");
+	}
+
+	@Test
+	public void testFullQueueWritesOnCaller() {
+		outbox = new NotificationOutbox(dao, 1, 25, 0L);
+		Notification queued = new Notification("Tester", requestId, "Queued");
+		outbox.create(queued);
+		outbox.delete("Tester", requestId);
+
+		// The queued create goes first, or it would bring the notification back after the delete
+		InOrder inOrder = Mockito.inOrder(dao);
+		inOrder.verify(dao).createNotification(Mockito.eq(queued), Mockito.any(UnitOfWork.class));
+		inOrder.verify(dao).deleteNotification("Tester", requestId);
+		assertEquals(1L, outbox.getCallerWrites(), "Assert that the caller wrote the change that didn't fit.");
+		assertEquals(0, outbox.getQueued(), "Assert that the caller wrote what was queued ahead of it.");
+	}
+
+	@Test
+	public void testCallerWaitsForWritersBatch() throws InterruptedException {
+		outbox = new NotificationOutbox(dao, 1, 25, 0L);
+		Notification writing = new Notification("Tester", requestId, "Writing");
+		Notification queued = new Notification("Tester", requestId, "Queued");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.doAnswer((invocation) -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(dao).createNotification(Mockito.eq(writing), Mockito.any(UnitOfWork.class));
+		outbox.start();
+
+		outbox.create(writing);
+		assertTrue(started.await(5, TimeUnit.SECONDS), "Assert that the writer took the first notification.");
+		outbox.create(queued);
+		Thread caller = new Thread(() -> outbox.delete("Tester", requestId));
+		caller.start();
+
+		// The queue is full, but the delete can't go ahead of the writer's batch
+		caller.join(200);
+		Mockito.verify(dao, Mockito.never()).deleteNotification("Tester", requestId);
+		release.countDown();
+		caller.join(5000);
+		outbox.shutdown(5000L);
+
+		InOrder inOrder = Mockito.inOrder(dao);
+		inOrder.verify(dao).createNotification(Mockito.eq(writing), Mockito.any(UnitOfWork.class));
+		inOrder.verify(dao).createNotification(Mockito.eq(queued), Mockito.any(UnitOfWork.class));
+		inOrder.verify(dao).deleteNotification("Tester", requestId);
+	}
+
+	@Test
+	public void testFailedWriteIsCounted() {
+		outbox = new NotificationOutbox(dao, 1, 25, 0L);
+		Mockito.doThrow(new RuntimeException("down")).when(dao).createNotification(Mockito.any(Notification.class));
+		outbox.create(new Notification("Tester", requestId, "Queued"));
+		outbox.create(new Notification("Tester", requestId, "Lost"));
+
+		assertEquals(1L, outbox.getFailed(), "Assert that the failed write is counted.");
+		assertEquals(1L, outbox.getWritten(), "Assert that only the queued notification was written.");
+	}
+
+	@Test
+	public void testSubmitAfterShutdownWritesOnCaller() {
+		outbox.shutdown(0L);
+		outbox.delete("Tester", requestId);
+
+		Mockito.verify(dao).deleteNotification("Tester", requestId);
+		assertEquals(1L, outbox.getCallerWrites(), "Assert that the caller wrote the change itself.");
+	}
+}
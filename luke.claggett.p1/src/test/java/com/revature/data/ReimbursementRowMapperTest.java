@@ -0,0 +1,70 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.Reimbursement;
+import com.revature.beans.RequestField;
+import com.revature.util.RowHelper;
+
+public class ReimbursementRowMapperTest {
+	private ReimbursementRowMapper mapper = null;
+	private Reimbursement request = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		mapper = new ReimbursementRowMapper();
+		request = RowHelper.sampleRequest();
+	}
+
+	@Test
+	public void testMap() {
+		Reimbursement mapped = mapper.map(RowHelper.toRow(request));
+
+		assertEquals(request, mapped, "Assert that every column is mapped to the request.");
+		assertEquals(request.getVersion(), mapped.getVersion(), "Assert that the version is mapped.");
+
+		// The second row reuses the column indexes found for the first
+		request.setUsername("Tester2");
+		assertEquals(request, mapper.map(RowHelper.toRow(request)), "Assert that the next row is mapped too.");
+	}
+
+	@Test
+	public void testMapTracksChanges() {
+		assertEquals(EnumSet.allOf(RequestField.class), request.changedFields(),
+				"Assert that a request that was never read or saved changes every field.");
+
+		Reimbursement mapped = mapper.map(RowHelper.toRow(request));
+		assertTrue(mapped.changedFields().isEmpty(), "Assert that a mapped request starts with no changes.");
+
+		mapped.setFinalGrade("A");
+		mapped.setIsPassing(true);
+		mapped.getSupervisorApproval().setStatus(ApprovalStatus.DENIED);
+		mapped.getFileURIs().add("Tester/extra.pdf");
+		assertEquals(EnumSet.of(RequestField.FINAL_GRADE, RequestField.IS_PASSING, RequestField.SUPERVISOR_APPROVAL),
+				mapped.changedFields(), "Assert that only the changed fields are reported.");
+		assertEquals(Arrays.asList("Tester/extra.pdf"), mapped.addedFileURIs(),
+				"Assert that the added file is appended.");
+
+		mapped.getFileURIs().remove(0);
+		assertNull(mapped.addedFileURIs(), "Assert that a removed file isn't an append.");
+		assertTrue(mapped.changedFields().contains(RequestField.FILE_URIS),
+				"Assert that the whole list is written once a file is removed.");
+
+		mapped.clearChanges();
+		assertTrue(mapped.changedFields().isEmpty(), "Assert that saving clears the changes.");
+	}
+
+	@Test
+	public void testMapNull() {
+		assertNull(mapper.map(null), "Assert that no row maps to null.");
+	}
+}
@@ -3,6 +3,7 @@ package com.revature.data;
 import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -11,6 +12,7 @@ import java.time.LocalTime;
 import java.time.Period;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,7 @@ import com.revature.beans.Approval;
 import com.revature.beans.EventType;
 import com.revature.beans.Format;
 import com.revature.beans.GradingFormat;
+import com.revature.beans.Page;
 import com.revature.beans.ReimbursementRequest;
 import com.revature.beans.Reimbursement;
 import com.revature.beans.ReimbursementStatus;
@@ -74,6 +77,22 @@ public class RequestDaoTest {
 				"Assert that an exception is thrown for the creation of a null department.");
 	}
 
+	@Test
+	public void testUpdateRequestChanges() {
+		requestDao.createRequest(request);
+		Reimbursement saved = requestDao.getRequest(request.getId());
+
+		saved.setFinalGrade("A");
+		saved.setIsPassing(true);
+		saved.getFileURIs().add("Tester/extra.pdf");
+		requestDao.updateRequest(saved);
+		assertTrue(saved.changedFields().isEmpty(), "Assert that the update clears the changes.");
+
+		Reimbursement updated = requestDao.getRequest(request.getId());
+		assertEquals(saved, updated, "Assert that the changed fields and the added file were written.");
+		assertEquals(saved.getVersion(), updated.getVersion(), "Assert that the version was bumped.");
+	}
+
 	@Test
 	public void testGetRequestValid() {
 		Reimbursement getRequest = requestDao.getRequest(request.getId());
@@ -102,6 +121,51 @@ public class RequestDaoTest {
 				"Assert that the request list is not null.");
 	}
 	
+	@Test
+	public void testGetRequestsPaged() {
+		Page<Reimbursement> page = requestDao.getRequests(1, null);
+
+		assertTrue(page.getItems().size() <= 1, "Assert that the page is no bigger than the page size.");
+
+		if (page.hasMore()) {
+			Page<Reimbursement> next = requestDao.getRequests(1, page.getPagingState());
+			assertFalse(page.getItems().equals(next.getItems()), "Assert that the next page has different requests.");
+		}
+	}
+
+	@Test
+	public void testGetRequestsByUser() {
+		requestDao.createRequest(request);
+
+		Page<Reimbursement> page = requestDao.getRequestsByUser(request.getUsername(), 10, null);
+
+		assertTrue(page.getItems().contains(request), "Assert that the user's new request is listed.");
+		assertTrue(page.getItems().stream().allMatch((r) -> r.getUsername().equals(request.getUsername())),
+				"Assert that only the user's requests are listed.");
+	}
+
+	@Test
+	public void testPendingRequests() {
+		requestDao.createRequest(request);
+		requestDao.addPending("TestSuper", request);
+
+		assertTrue(requestDao.getPendingRequests("TestSuper", 100, null).getItems().contains(request),
+				"Assert that the request is waiting on the approver.");
+
+		requestDao.removePending("TestSuper", request.getId());
+
+		assertFalse(requestDao.getPendingRequests("TestSuper", 100, null).getItems().contains(request),
+				"Assert that the request is no longer waiting on the approver.");
+	}
+
+	@Test
+	public void testStreamRequests() {
+		try (Stream<Reimbursement> stream = requestDao.streamRequests()) {
+			assertEquals(requestDao.getRequests().size(), stream.count(),
+					"Assert that the stream has every request.");
+		}
+	}
+
 	@Test
 	public void testGetExpiredRequests() {
 		List<Reimbursement> requests = requestDao.getExpiredRequests();
@@ -0,0 +1,51 @@
+package com.revature.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+
+public class UnitOfWorkTest {
+	private static final SimpleStatement DELETE_NOTIFICATION = SimpleStatement
+			.newInstance("DELETE FROM notification WHERE username = ? AND requestid = ?;");
+	private static final SimpleStatement DELETE_PENDING = SimpleStatement
+			.newInstance("DELETE FROM pending_by_approver WHERE approver = ? AND id = ?;");
+
+	private UnitOfWork work = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		work = new UnitOfWork();
+	}
+
+	@Test
+	public void testBatchType() {
+		work.add(DELETE_NOTIFICATION, "notification:Tester", "Tester", UUID.randomUUID());
+		work.add(DELETE_NOTIFICATION, "notification:Tester", "Tester", UUID.randomUUID());
+		assertEquals(DefaultBatchType.UNLOGGED, work.batchType(),
+				"Assert that writes to one partition skip the batch log.");
+
+		work.add(DELETE_PENDING, "pending_by_approver:TestSuper", "TestSuper", UUID.randomUUID());
+		assertEquals(DefaultBatchType.LOGGED, work.batchType(),
+				"Assert that writes to several partitions are logged.");
+		assertEquals(3, work.size(), "Assert that every write is collected.");
+	}
+
+	@Test
+	public void testCommitEmpty() {
+		AtomicBoolean committed = new AtomicBoolean(false);
+		work.onCommit(() -> committed.set(true));
+
+		// Nothing to write, so nothing is sent to the database
+		work.commit();
+		assertTrue(committed.get(), "Assert that the commit actions run.");
+		assertEquals(0, work.size(), "Assert that the unit of work is empty after the commit.");
+	}
+}
@@ -0,0 +1,142 @@
+package com.revature.factory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BeanFactoryTest {
+	private BeanFactory factory = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		factory = BeanFactory.getFactory();
+	}
+
+	@Test
+	public void testUsesGeneratedWrapper() throws IOException {
+		Greeter greeter = (Greeter) factory.getObject(Greeter.class, GreeterImpl.class);
+
+		assertFalse(Proxy.isProxyClass(greeter.getClass()), "Assert that the bean isn't a proxy.");
+		assertEquals("BeanFactoryTest_GreeterImpl" + TraceLog.WRAPPER_SUFFIX, greeter.getClass().getSimpleName(),
+				"Assert that the bean is the generated wrapper.");
+		assertEquals("Hello, Emily", greeter.greet("Emily"), "Assert that calls reach the bean.");
+		assertEquals(Arrays.asList("Hello, Emily", "Hello, Kevin"), greeter.greetAll("Emily", "Kevin"),
+				"Assert that varargs reach the bean.");
+		assertEquals("b", greeter.max("a", "b"), "Assert that default methods reach the bean.");
+		assertEquals("GreeterImpl", greeter.toString(), "Assert that Object methods reach the bean.");
+	}
+
+	@Test
+	public void testFallsBackToProxy() throws IOException {
+		Greeter greeter = (Greeter) factory.getObject(Greeter.class, GenericGreeterImpl.class);
+
+		assertTrue(Proxy.isProxyClass(greeter.getClass()), "Assert that a class without a wrapper gets a proxy.");
+		assertEquals("Hello, Emily", greeter.greet("Emily"), "Assert that calls reach the bean.");
+	}
+
+	@Test
+	public void testExceptionsArentWrapped() {
+		Greeter generated = (Greeter) factory.getObject(Greeter.class, GreeterImpl.class);
+		Greeter proxied = (Greeter) factory.getObject(Greeter.class, GenericGreeterImpl.class);
+
+		assertThrows(IOException.class, () -> generated.greet(null));
+		assertThrows(IOException.class, () -> proxied.greet(null));
+		assertThrows(IllegalArgumentException.class, () -> generated.count(null));
+	}
+
+	@Test
+	public void testWrapperLogsMethodsLikeTheProxy() throws IllegalAccessException {
+		Greeter greeter = (Greeter) factory.getObject(Greeter.class, GreeterImpl.class);
+		Set<String> signatures = new HashSet<>();
+		for (Field field : greeter.getClass().getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers()) && field.getName().startsWith("SIGNATURE_")) {
+				field.setAccessible(true);
+				signatures.add((String) field.get(null));
+			}
+		}
+
+		// The Methods a proxy's handler is called with
+		Set<String> expected = new HashSet<>();
+		for (Method method : Greeter.class.getMethods()) {
+			expected.add(method.toString());
+		}
+		for (String name : new String[] { "equals", "hashCode", "toString" }) {
+			for (Method method : Object.class.getMethods()) {
+				if (method.getName().equals(name)) {
+					expected.add(method.toString());
+				}
+			}
+		}
+		assertEquals(expected, signatures, "Assert that the wrapper logs each method the way the proxy would.");
+	}
+
+	public interface Greeter {
+		public String greet(String name) throws IOException;
+
+		public List<String> greetAll(String... names);
+
+		public int[] count(Map<String, Tally> tallies);
+
+		public default <T extends Comparable<T>> T max(T first, T second) {
+			return first.compareTo(second) > 0 ? first : second;
+		}
+	}
+
+	public static class Tally {
+	}
+
+	@TraceLog
+	public static class GreeterImpl implements Greeter {
+		@Override
+		public String greet(String name) throws IOException {
+			if (name == null) {
+				throw new IOException("No one to greet");
+			}
+			return "Hello, " + name;
+		}
+
+		@Override
+		public List<String> greetAll(String... names) {
+			String[] greetings = new String[names.length];
+			for (int i = 0; i < names.length; i++) {
+				greetings[i] = "Hello, " + names[i];
+			}
+			return Arrays.asList(greetings);
+		}
+
+		@Override
+		public int[] count(Map<String, Tally> tallies) {
+			if (tallies == null) {
+				throw new IllegalArgumentException("Nothing to count");
+			}
+			return new int[] { tallies.size() };
+		}
+
+		@Override
+		public String toString() {
+			return "GreeterImpl";
+		}
+	}
+
+	/**
+	 * TraceLogProcessor doesn't write wrappers for classes with type parameters
+	 */
+	@TraceLog
+	public static class GenericGreeterImpl<T> extends GreeterImpl implements Greeter {
+	}
+}
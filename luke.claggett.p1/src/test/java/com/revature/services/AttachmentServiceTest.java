@@ -0,0 +1,157 @@
+package com.revature.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.revature.data.AttachmentDao;
+import com.revature.util.MockitoHelper;
+import com.revature.util.S3Util;
+
+public class AttachmentServiceTest {
+	// The SHA-256 of "syllabus"
+	private static final String HASH = "6ebc43fc2af6a87f5ac6608ff0b9ce7025b03dbb345b43efe57038a63771b3ad";
+	private static final byte[] FILE = "syllabus".getBytes(StandardCharsets.UTF_8);
+
+	private AttachmentService service = null;
+	private AttachmentDao attDao = null;
+	private S3Util s3 = null;
+	private UUID requestId = null;
+	private String key = null;
+
+	private static MockitoHelper mock = null;
+
+	@BeforeAll
+	public static void beforeAll() {
+		mock = new MockitoHelper();
+	}
+
+	@BeforeEach
+	public void beforeTest() {
+		service = new AttachmentServiceImpl();
+		attDao = (AttachmentDao) mock.setPrivateMock(service, "attDao", AttachmentDao.class);
+		s3 = (S3Util) mock.setPrivateMock(service, "s3", S3Util.class);
+		requestId = UUID.fromString("ddd9e879-52d3-47ad-a1b6-87a94cbb321d");
+		key = "files/" + HASH + ".pdf";
+	}
+
+	@Test
+	public void testStoreNewFile() throws IOException {
+		ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+		Mockito.doAnswer((invocation) -> {
+			InputStream in = invocation.getArgument(1);
+			byte[] buffer = new byte[64];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				uploaded.write(buffer, 0, read);
+			}
+			return null;
+		}).when(s3).uploadToBucket(Mockito.anyString(), Mockito.any(InputStream.class), Mockito.anyLong());
+		Mockito.when(attDao.getReferences(key)).thenReturn(0L);
+
+		assertEquals(key, service.storeFile(new ByteArrayInputStream(FILE), -1L, "pdf", null),
+				"Assert that the file is stored under its hash.");
+		assertArrayEquals(FILE, uploaded.toByteArray(), "Assert that the whole file was uploaded.");
+		Mockito.verify(s3).uploadToBucket(Mockito.eq(key), Mockito.any(InputStream.class),
+				Mockito.eq((long) FILE.length));
+		// The reference waits until the request is saved with the key
+		Mockito.verify(attDao, Mockito.never()).addReference(Mockito.anyString(), Mockito.any());
+	}
+
+	@Test
+	public void testStoreDuplicateSkipsUpload() throws IOException {
+		Mockito.when(attDao.getReferences(key)).thenReturn(2L);
+
+		assertEquals(key, service.storeFile(new ByteArrayInputStream(FILE), -1L, "pdf", null),
+				"Assert that the stored file's key is returned.");
+		Mockito.verify(s3, Mockito.never()).uploadToBucket(Mockito.anyString(), Mockito.any(InputStream.class),
+				Mockito.anyLong());
+		Mockito.verify(attDao, Mockito.never()).addReference(Mockito.anyString(), Mockito.any());
+	}
+
+	@Test
+	public void testDeclaredDuplicateIsStillRead() throws IOException {
+		Mockito.when(attDao.getReferences(key)).thenReturn(1L);
+		byte[] other = "someone else's syllabus".getBytes(StandardCharsets.UTF_8);
+
+		// Knowing the hash of a stored file isn't enough to attach it
+		assertThrows(IllegalArgumentException.class,
+				() -> service.storeFile(new ByteArrayInputStream(other), (long) other.length, "pdf",
+						HASH.toUpperCase()),
+				"Assert that the declared hash has to match the bytes sent.");
+
+		ByteArrayInputStream body = new ByteArrayInputStream(FILE);
+		assertEquals(key, service.storeFile(body, 8L, "pdf", HASH.toUpperCase()),
+				"Assert that the file sent is stored under its hash.");
+		assertEquals(0, body.available(), "Assert that the whole file was read.");
+		Mockito.verify(s3, Mockito.never()).uploadToBucket(Mockito.anyString(), Mockito.any(InputStream.class),
+				Mockito.anyLong());
+		Mockito.verify(attDao, Mockito.never()).addReference(Mockito.anyString(), Mockito.any());
+	}
+
+	@Test
+	public void testStoreKnownLength() throws IOException {
+		ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+		Mockito.doAnswer((invocation) -> {
+			InputStream in = invocation.getArgument(1);
+			byte[] buffer = new byte[64];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				uploaded.write(buffer, 0, read);
+			}
+			return null;
+		}).when(s3).uploadToBucket(Mockito.anyString(), Mockito.any(InputStream.class), Mockito.anyLong());
+		Mockito.when(attDao.getReferences(key)).thenReturn(0L);
+
+		assertEquals(key, service.storeFile(new ByteArrayInputStream(FILE), (long) FILE.length, "pdf", HASH),
+				"Assert that the file is stored under its hash.");
+		assertArrayEquals(FILE, uploaded.toByteArray(), "Assert that the whole file was uploaded.");
+		Mockito.verify(s3).uploadToBucket(Mockito.eq(key), Mockito.any(InputStream.class),
+				Mockito.eq((long) FILE.length));
+	}
+
+	@Test
+	public void testWrongLengthIsRefused() throws IOException {
+		Mockito.when(attDao.getReferences(Mockito.anyString())).thenReturn(0L);
+
+		assertThrows(IOException.class,
+				() -> service.storeFile(new ByteArrayInputStream(FILE), FILE.length + 1L, "pdf", null),
+				"Assert that a file shorter than its length is refused.");
+		assertThrows(IOException.class,
+				() -> service.storeFile(new ByteArrayInputStream(FILE), FILE.length - 1L, "pdf", null),
+				"Assert that a file longer than its length is refused.");
+		Mockito.verify(s3, Mockito.never()).uploadToBucket(Mockito.anyString(), Mockito.any(InputStream.class),
+				Mockito.anyLong());
+	}
+
+	@Test
+	public void testAddReference() {
+		service.addReference(key, requestId);
+
+		Mockito.verify(attDao).addReference(key, requestId);
+	}
+
+	@Test
+	public void testDeclaredHashMismatch() {
+		Mockito.when(attDao.getReferences(Mockito.anyString())).thenReturn(0L);
+		String wrong = HASH.replace('a', 'b');
+
+		assertThrows(IllegalArgumentException.class,
+				() -> service.storeFile(new ByteArrayInputStream(FILE), -1L, "pdf", wrong));
+		assertThrows(IllegalArgumentException.class,
+				() -> service.storeFile(new ByteArrayInputStream(FILE), -1L, "pdf", "not a hash"));
+		Mockito.verify(attDao, Mockito.never()).addReference(Mockito.anyString(), Mockito.any());
+	}
+}
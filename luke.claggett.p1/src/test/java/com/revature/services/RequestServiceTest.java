@@ -2,17 +2,22 @@ package com.revature.services;
 
 import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,20 +27,26 @@ import org.mockito.Mockito;
 
 import com.revature.beans.Approval;
 import com.revature.beans.ApprovalStatus;
+import com.revature.beans.AutoApprovalReport;
+import com.revature.beans.Balance;
 import com.revature.beans.Department;
 import com.revature.beans.EventType;
 import com.revature.beans.Format;
 import com.revature.beans.GradingFormat;
 import com.revature.beans.Notification;
+import com.revature.beans.Page;
 import com.revature.beans.ReimbursementRequest;
 import com.revature.beans.Reimbursement;
 import com.revature.beans.ReimbursementStatus;
 import com.revature.beans.User;
 import com.revature.beans.UserType;
+import com.revature.data.BalanceDao;
 import com.revature.data.DepartmentDao;
 import com.revature.data.NotificationDao;
 import com.revature.data.ReimbursementDao;
+import com.revature.data.UnitOfWork;
 import com.revature.data.UserDao;
+import com.revature.exceptions.ConcurrentUpdateException;
 import com.revature.exceptions.IllegalApprovalAttemptException;
 import com.revature.util.MockitoHelper;
 
@@ -46,6 +57,8 @@ public class RequestServiceTest {
 	private UserDao userDao = null;
 	private DepartmentDao deptDao = null;
 	private NotificationDao notDao = null;
+	private BalanceDao balDao = null;
+	private Balance balance = null;
 
 	private User user = null;
 	private User supervisor = null;
@@ -100,11 +113,17 @@ public class RequestServiceTest {
 		userDao = (UserDao) mock.setPrivateMock(service, "userDao", UserDao.class);
 		deptDao = (DepartmentDao) mock.setPrivateMock(service, "deptDao", DepartmentDao.class);
 		notDao = (NotificationDao) mock.setPrivateMock(service, "notDao", NotificationDao.class);
+		balDao = (BalanceDao) mock.setPrivateMock(service, "balDao", BalanceDao.class);
+
+		balance = new Balance();
+		Mockito.when(balDao.getBalance(user.getUsername())).thenReturn(balance);
+		Mockito.when(balDao.getBalanceAsync(user.getUsername())).thenReturn(CompletableFuture.completedFuture(balance));
 
 		Mockito.when(userDao.getUser(user.getUsername())).thenReturn(user);
 		Mockito.when(userDao.getUser(supervisor.getUsername())).thenReturn(supervisor);
 		Mockito.when(userDao.getUser(deptHead.getUsername())).thenReturn(deptHead);
 		Mockito.when(userDao.getUser(benCo.getUsername())).thenReturn(benCo);
+		Mockito.when(userDao.getUserAsync(user.getUsername())).thenReturn(CompletableFuture.completedFuture(user));
 		Mockito.when(reqDao.getRequest(request.getId())).thenReturn(request);
 		Mockito.when(deptDao.getDepartment(dept.getName())).thenReturn(dept);
 		Mockito.when(deptDao.getDepartment(benCoDept.getName())).thenReturn(benCoDept);
@@ -156,7 +175,7 @@ public class RequestServiceTest {
 				"Assert that the supervisor that needs to do the approval is the same as the User's supervisor");
 
 		// Make sure the method was called and passed in the correct argument
-		Mockito.verify(reqDao).createRequest(captor.capture());
+		Mockito.verify(reqDao).createRequest(captor.capture(), Mockito.any(UnitOfWork.class));
 		assertEquals(newRequest, captor.getValue(),
 				"Assert that the arguments passed to the dao are the same returned.");
 
@@ -169,12 +188,17 @@ public class RequestServiceTest {
 		assertEquals(message, notCaptor.getValue().getMessage(),
 				"Assert that the notification has the correct message");
 
+		// Verify the reimburse amount was added to the user's pending balance in the same batch
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(newRequest.getId()),
+				Mockito.eq(Balance.toCents(newRequest.getReimburseAmount())), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
+
 		// If the user has a pending and awarded balance that is less than the max
 		// amount alloted but less than the cost,
 		// it should still create the request, but with a different cost.
-		user.setAwardedBalance(800.00);
-		user.setPendingBalance(150.00);
-		Double expectedCost = Reimbursement.MAX_REIMBURSEMENT - user.getPendingBalance() - user.getAwardedBalance();
+		balance.setAwardedCents(80000L);
+		balance.setPendingCents(15000L);
+		Double expectedCost = Reimbursement.MAX_REIMBURSEMENT - balance.getPending() - balance.getAwarded();
 
 		newRequest = service.createRequest(request.getUsername(), request.getFirstName(), request.getLastName(),
 				request.getDeptName(), request.getName(), request.getStartDate(), request.getStartTime(),
@@ -336,7 +360,6 @@ public class RequestServiceTest {
 		request.getSupervisorApproval().setUsername(user.getSupervisorUsername());
 		request.getSupervisorApproval().setStatus(ApprovalStatus.AWAITING);
 		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
-		user.setPendingBalance(request.getReimburseAmount());
 		String message = "A new request needs your approval";
 
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
@@ -386,12 +409,9 @@ public class RequestServiceTest {
 		request.getSupervisorApproval().setUsername(user.getSupervisorUsername());
 		request.getSupervisorApproval().setStatus(ApprovalStatus.AWAITING);
 		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
-		user.setPendingBalance(request.getReimburseAmount());
 		String reason = "This is a test";
 		String message = "Your request has been denied. Reason: " + reason;
 
-		ArgumentCaptor<String> getUserCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<User> updateUserCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
@@ -403,10 +423,10 @@ public class RequestServiceTest {
 		assertEquals(ApprovalStatus.DENIED, request.getSupervisorApproval().getStatus(),
 				"Assert that the supervisor approved the request.");
 		assertEquals(ReimbursementStatus.DENIED, request.getStatus(), "Assert that the request was denied.");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the pending balance was set back to zero.");
-
-		Mockito.verify(userDao).getUser(getUserCaptor.capture());
-		Mockito.verify(userDao).updateUser(updateUserCaptor.capture());
+		// The pending amount is taken back out of the user's ledger in the same batch
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(request.getReimburseAmount())), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 		Mockito.verify(notDao).deleteNotification(usernameCaptor.capture(), idCaptor.capture());
@@ -414,9 +434,6 @@ public class RequestServiceTest {
 		assertEquals(request, reqCaptor.getValue(),
 				"Assert that the request passed into updateRequest is the same request");
 
-		assertEquals(user.getUsername(), getUserCaptor.getValue(),
-				"Assert that the user's username is passed in to get user");
-		assertEquals(user, updateUserCaptor.getValue(), "Assert that the the user is updated.");
 
 		assertEquals(request.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
@@ -475,12 +492,9 @@ public class RequestServiceTest {
 		request.getDeptHeadApproval().setUsername(dept.getDeptHeadUsername());
 		request.getDeptHeadApproval().setStatus(ApprovalStatus.AWAITING);
 		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
-		user.setPendingBalance(request.getReimburseAmount());
 		String reason = "This is a test";
 		String message = "Your request has been denied. Reason: " + reason;
 
-		ArgumentCaptor<String> getUserCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<User> updateUserCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
@@ -492,19 +506,16 @@ public class RequestServiceTest {
 		assertEquals(ApprovalStatus.DENIED, request.getDeptHeadApproval().getStatus(),
 				"Assert that the supervisor approved the request.");
 		assertEquals(ReimbursementStatus.DENIED, request.getStatus(), "Assert that the request was denied.");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the pending balance was set back to zero.");
-
-		Mockito.verify(userDao).getUser(getUserCaptor.capture());
-		Mockito.verify(userDao).updateUser(updateUserCaptor.capture());
+		// The pending amount is taken back out of the user's ledger in the same batch
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(request.getReimburseAmount())), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 		Mockito.verify(notDao).deleteNotification(usernameCaptor.capture(), idCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(),
 				"Assert that the request passed into updateRequest is the same request");
-		assertEquals(user.getUsername(), getUserCaptor.getValue(),
-				"Assert that the user's username is passed in to get user");
-		assertEquals(user, updateUserCaptor.getValue(), "Assert that the the user is updated.");
 
 		assertEquals(request.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
@@ -622,12 +633,9 @@ public class RequestServiceTest {
 		request.getBenCoApproval().setUsername(benCo.getUsername());
 		request.getBenCoApproval().setStatus(ApprovalStatus.AWAITING);
 		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
-		user.setPendingBalance(request.getReimburseAmount());
 		String reason = "This is a test";
 		String message = "Your request has been denied. Reason: " + reason;
 
-		ArgumentCaptor<String> getUserCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<User> updateUserCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
@@ -639,19 +647,16 @@ public class RequestServiceTest {
 		assertEquals(ApprovalStatus.DENIED, request.getBenCoApproval().getStatus(),
 				"Assert that the supervisor approved the request.");
 		assertEquals(ReimbursementStatus.DENIED, request.getStatus(), "Assert that the request was denied.");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the pending balance was set back to zero.");
-
-		Mockito.verify(userDao).getUser(getUserCaptor.capture());
-		Mockito.verify(userDao).updateUser(updateUserCaptor.capture());
+		// The pending amount is taken back out of the user's ledger in the same batch
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(request.getReimburseAmount())), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 		Mockito.verify(notDao).deleteNotification(usernameCaptor.capture(), idCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(),
 				"Assert that the request passed into updateRequest is the same request");
-		assertEquals(user.getUsername(), getUserCaptor.getValue(),
-				"Assert that the user's username is passed in to get user");
-		assertEquals(user, updateUserCaptor.getValue(), "Assert that the the user is updated.");
 
 		assertEquals(request.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
@@ -668,7 +673,6 @@ public class RequestServiceTest {
 	@Test
 	public void testChangeApprovalStatusFinalApproved() {
 		// Set the pending balance to the request cost
-		user.setPendingBalance(request.getCost());
 		request.getSupervisorApproval().setStatus(ApprovalStatus.APPROVED);
 		request.getDeptHeadApproval().setStatus(ApprovalStatus.APPROVED);
 		request.getBenCoApproval().setStatus(ApprovalStatus.APPROVED);
@@ -679,8 +683,6 @@ public class RequestServiceTest {
 		String message = "Your request has been finalized and the amount will be awarded.";
 
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
-		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		ArgumentCaptor<String> usernameNotCaptor = ArgumentCaptor.forClass(String.class);
 		ArgumentCaptor<UUID> idCaptor = ArgumentCaptor.forClass(UUID.class);
@@ -691,22 +693,17 @@ public class RequestServiceTest {
 		assertEquals(ApprovalStatus.APPROVED, request.getFinalApproval().getStatus(),
 				"Assert that the supervisor approved the request.");
 		assertEquals(ReimbursementStatus.AWARDED, request.getStatus(), "Assert that the request was approved.");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the pending balance was set back to zero.");
-		assertEquals(request.getReimburseAmount(), user.getAwardedBalance(),
-				"Assert that the awarded balance is equal to the reimbursement amount.");
 
+		// The amount moves from pending to awarded in one entry
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
-		Mockito.verify(userDao).getUser(usernameCaptor.capture());
-		Mockito.verify(userDao).updateUser(userCaptor.capture());
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(request.getReimburseAmount())),
+				Mockito.eq(Balance.toCents(request.getReimburseAmount())), Mockito.any(UnitOfWork.class));
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 		Mockito.verify(notDao).deleteNotification(usernameNotCaptor.capture(), idCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(),
 				"Assert that the request passed into updateRequest is the same request");
-		assertEquals(user.getUsername(), usernameCaptor.getValue(),
-				"Assert that the user's username is passed in to get user");
-		assertEquals(user, userCaptor.getValue(), "Assert that the the user is updated.");
-
 		assertEquals(user.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
 		assertEquals(request.getId(), notCaptor.getValue().getRequestId(),
@@ -729,12 +726,9 @@ public class RequestServiceTest {
 		request.getFinalApproval().setStatus(ApprovalStatus.AWAITING);
 		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
 		request.setStatus(ReimbursementStatus.APPROVED);
-		user.setPendingBalance(request.getReimburseAmount());
 		String reason = "This is a test";
 		String message = "Your request has been denied. Reason: " + reason;
 
-		ArgumentCaptor<String> getUserCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<User> updateUserCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
@@ -746,19 +740,16 @@ public class RequestServiceTest {
 		assertEquals(ApprovalStatus.DENIED, request.getFinalApproval().getStatus(),
 				"Assert that the supervisor approved the request.");
 		assertEquals(ReimbursementStatus.DENIED, request.getStatus(), "Assert that the request was denied.");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the pending balance was set back to zero.");
-
-		Mockito.verify(userDao).getUser(getUserCaptor.capture());
-		Mockito.verify(userDao).updateUser(updateUserCaptor.capture());
+		// The pending amount is taken back out of the user's ledger in the same batch
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(request.getReimburseAmount())), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 		Mockito.verify(notDao).deleteNotification(usernameCaptor.capture(), idCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(),
 				"Assert that the request passed into updateRequest is the same request");
-		assertEquals(user.getUsername(), getUserCaptor.getValue(),
-				"Assert that the user's username is passed in to get user");
-		assertEquals(user, updateUserCaptor.getValue(), "Assert that the the user is updated.");
 
 		assertEquals(user.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
@@ -834,6 +825,82 @@ public class RequestServiceTest {
 		assertNull("Assert that a null was returned from a null id", nullRequest);
 	}
 
+	@Test
+	public void testGetRequestsByUser() {
+		Page<Reimbursement> page = new Page<Reimbursement>(Arrays.asList(request), null);
+		Mockito.when(reqDao.getRequestsByUser(request.getUsername(), 20, null)).thenReturn(page);
+
+		// No page size uses the default
+		assertEquals(page, service.getRequests(request.getUsername(), null, null),
+				"Assert that the page from the DAO is returned.");
+
+		// Page sizes are capped
+		service.getRequests(request.getUsername(), 1000, "token");
+		Mockito.verify(reqDao).getRequestsByUser(request.getUsername(), 100, "token");
+
+		// A null username returns null
+		assertNull("Assert that a null username returns a null", service.getRequests(null, 10, null));
+	}
+
+	@Test
+	public void testChangeApprovalStatusMovesPending() {
+		request.getSupervisorApproval().setUsername(user.getSupervisorUsername());
+		request.getSupervisorApproval().setStatus(ApprovalStatus.AWAITING);
+		request.setReimburseAmount(request.getCost() * request.getType().getPercent());
+
+		service.changeApprovalStatus(request, ApprovalStatus.APPROVED, null);
+
+		// The request leaves the supervisor's queue for the dept head's
+		Mockito.verify(reqDao).removePending(Mockito.eq(supervisor.getUsername()), Mockito.eq(request.getId()),
+				Mockito.any(UnitOfWork.class));
+		Mockito.verify(reqDao).addPending(Mockito.eq(deptHead.getUsername()), Mockito.eq(request),
+				Mockito.any(UnitOfWork.class));
+	}
+
+	@Test
+	public void testGetPendingRequestsBenCo() {
+		Reimbursement assigned = new ReimbursementRequest();
+		Reimbursement shared = new ReimbursementRequest();
+		Mockito.when(reqDao.getPendingRequests(benCo.getUsername(), 2, null))
+				.thenReturn(new Page<Reimbursement>(new ArrayList<>(Arrays.asList(assigned)), null));
+		Mockito.when(reqDao.getPendingRequests(Mockito.argThat((queue) -> !benCo.getUsername().equals(queue)),
+				Mockito.anyInt(), Mockito.any()))
+				.thenReturn(new Page<Reimbursement>(new ArrayList<>(Arrays.asList(shared)), "next"));
+
+		// The BenCo's own queue comes first, then the shared BenCo queue
+		Page<Reimbursement> page = service.getPendingRequests(benCo, 2, null);
+		assertEquals(Arrays.asList(assigned, shared), page.getItems(),
+				"Assert that both queues are on the page in order.");
+		assertTrue(page.hasMore(), "Assert that there is another page.");
+
+		// The next page picks up the shared queue where it left off
+		service.getPendingRequests(benCo, 2, page.getPagingState());
+		Mockito.verify(reqDao).getPendingRequests(Mockito.argThat((queue) -> !benCo.getUsername().equals(queue)),
+				Mockito.eq(2), Mockito.eq("next"));
+		Mockito.verify(reqDao, Mockito.times(1)).getPendingRequests(Mockito.eq(benCo.getUsername()),
+				Mockito.anyInt(), Mockito.any());
+
+		// Anyone else only has their own queue
+		Mockito.when(reqDao.getPendingRequests(supervisor.getUsername(), 20, null))
+				.thenReturn(new Page<Reimbursement>(new ArrayList<>(), null));
+		assertFalse(service.getPendingRequests(supervisor, null, null).hasMore(),
+				"Assert that a supervisor's queue is the only one read.");
+	}
+
+	@Test
+	public void testGetPendingRequestsMalformedPagingState() {
+		String noState = Base64.getUrlEncoder().encodeToString("1".getBytes(StandardCharsets.UTF_8));
+		String noQueue = Base64.getUrlEncoder().encodeToString("5,".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IllegalArgumentException.class, () -> service.getPendingRequests(benCo, 2, "not base64!"),
+				"Assert that a token that isn't Base64 is rejected.");
+		assertThrows(IllegalArgumentException.class, () -> service.getPendingRequests(benCo, 2, noState),
+				"Assert that a token without a paging state is rejected.");
+		assertThrows(IllegalArgumentException.class, () -> service.getPendingRequests(benCo, 2, noQueue),
+				"Assert that a token for a queue the user doesn't have is rejected.");
+		Mockito.verify(reqDao, Mockito.never()).getPendingRequests(Mockito.any(), Mockito.anyInt(), Mockito.any());
+	}
+
 	@Test
 	public void testUpdateRequestValid() {
 		// Capture the Request
@@ -863,53 +930,45 @@ public class RequestServiceTest {
 
 	@Test
 	public void testCancelRequestValidReimburse() {
-		ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 		Double reimburse = 200.00;
-		Double zero = 0.0;
 
 		request.setReimburseAmount(reimburse);
-		user.setPendingBalance(reimburse);
 
 		service.cancelRequest(request);
 
 		assertEquals(ReimbursementStatus.CANCELLED, request.getStatus(), "Assert that the request was cancelled");
-		assertEquals(zero, user.getPendingBalance(), "Assert that pending balance is empty");
 
-		Mockito.verify(userDao).updateUser(userCaptor.capture());
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(reimburse)), Mockito.eq(0L), Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(), "Assert that the Request was passed into updateRequest");
-		assertEquals(user, userCaptor.getValue(), "Assert that the User was passed into updateUser");
 	}
 
 	@Test
 	public void testCancelRequestValidFinalReimburse() {
 		// Set up the ArgumentCaptors
-		ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
 
 		// Values to be used for the test
 		Double reimburse = 200.00;
 		Double finalReimburse = 100.00;
-		Double zero = 0.0;
 
 		// Set reimburse and finalreimburse. Finalreimburse should be the one used
 		// though
 		request.setReimburseAmount(reimburse);
 		request.setFinalReimburseAmount(finalReimburse);
-		user.setPendingBalance(finalReimburse);
 
 		service.cancelRequest(request);
 
 		assertEquals(ReimbursementStatus.CANCELLED, request.getStatus(), "Assert that the request was cancelled");
-		assertEquals(zero, user.getPendingBalance(), "Assert that pending balance is empty");
 
-		Mockito.verify(userDao).updateUser(userCaptor.capture());
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(finalReimburse)), Mockito.eq(0L), Mockito.any(UnitOfWork.class));
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(), "Assert that the Request was passed into updateRequest");
-		assertEquals(user, userCaptor.getValue(), "Assert that the User was passed into updateUser");
 	}
 
 	@Test
@@ -918,12 +977,60 @@ public class RequestServiceTest {
 
 		Mockito.verifyZeroInteractions(reqDao);
 		Mockito.verifyZeroInteractions(userDao);
+		Mockito.verifyZeroInteractions(balDao);
+	}
+
+	@Test
+	public void testCancelRequestConflictWithAward() {
+		request.setReimburseAmount(200.00);
+
+		// The request was awarded while it was being cancelled
+		Reimbursement awarded = new ReimbursementRequest();
+		awarded.setId(request.getId());
+		awarded.setUsername(request.getUsername());
+		awarded.setReimburseAmount(200.00);
+		awarded.setStatus(ReimbursementStatus.AWARDED);
+		Mockito.when(reqDao.getRequest(request.getId())).thenReturn(awarded);
+		Mockito.doThrow(new ConcurrentUpdateException("conflict")).when(reqDao).updateRequest(request);
+
+		service.cancelRequest(request);
+
+		assertEquals(ReimbursementStatus.AWARDED, awarded.getStatus(), "Assert that the award stands");
+		Mockito.verify(reqDao, Mockito.never()).updateRequest(awarded);
+		Mockito.verify(reqDao, Mockito.never()).removePending(Mockito.any(), Mockito.any());
+		Mockito.verifyZeroInteractions(balDao);
+	}
+
+	@Test
+	public void testAddFinalGradeConflictGivesUp() {
+		// Every save of the request loses to another update
+		Mockito.doThrow(new ConcurrentUpdateException("conflict")).when(reqDao).updateRequest(Mockito.any());
+
+		assertThrows(ConcurrentUpdateException.class, () -> service.addFinalGrade(request, "A"),
+				"Assert that the conflict is thrown once the retries run out.");
+
+		Mockito.verify(reqDao, Mockito.times(3)).updateRequest(request);
+		Mockito.verifyZeroInteractions(notDao);
+	}
+
+	@Test
+	public void testChangeReimburseAmountConflictGivesUp() {
+		request.setReimburseAmount(200.00);
+
+		// Every save of the request loses to another update
+		Mockito.doThrow(new ConcurrentUpdateException("conflict")).when(reqDao).updateRequest(Mockito.any());
+
+		assertThrows(ConcurrentUpdateException.class, () -> service.changeReimburseAmount(request, 100.00, "reason"),
+				"Assert that the conflict is thrown once the retries run out.");
+
+		// The balance only moves for an amount that was saved
+		Mockito.verifyZeroInteractions(balDao);
+		Mockito.verifyZeroInteractions(notDao);
 	}
 
 	@Test
 	public void testChangeReimburseAmountValid() {
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
-		ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<Notification> notCaptor = ArgumentCaptor.forClass(Notification.class);
 		Double reimburse = 200.00;
 		Double finalReimburse = 100.00;
@@ -931,7 +1038,6 @@ public class RequestServiceTest {
 		String message = "Your request reimburse amount has changed and needs your approval.";
 
 		request.setReimburseAmount(reimburse);
-		user.setPendingBalance(reimburse);
 
 		Reimbursement retRequest = service.changeReimburseAmount(request, finalReimburse, reason);
 
@@ -942,15 +1048,15 @@ public class RequestServiceTest {
 				"Assert that the finalReimburseAmountReason is set");
 		assertEquals(true, request.getNeedsEmployeeReview(), "Assert that needsEmployeeReview is true");
 		assertEquals(false, request.getEmployeeAgrees(), "Assert that employeeAgrees is set to false");
-		assertEquals(finalReimburse, user.getPendingBalance(), "Assert that the user's pending balance was changed");
 
 		// Verify updateRequest was called and the request was set in
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
-		Mockito.verify(userDao).updateUser(userCaptor.capture());
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(Balance.toCents(finalReimburse - reimburse)), Mockito.eq(0L),
+				Mockito.any(UnitOfWork.class));
 		Mockito.verify(notDao).createNotification(notCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(), "Assert that the request passed in is the same request");
-		assertEquals(user, userCaptor.getValue(), "Assert that the user passed in is the same user");
 
 		assertEquals(request.getUsername(), notCaptor.getValue().getUsername(),
 				"Assert that the notification has the correct username");
@@ -1025,14 +1131,12 @@ public class RequestServiceTest {
 	@Test
 	public void testChangEmployeeAgreesValidFalse() {
 		ArgumentCaptor<Reimbursement> reqCaptor = ArgumentCaptor.forClass(Reimbursement.class);
-		ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
 		ArgumentCaptor<UUID> idCaptor = ArgumentCaptor.forClass(UUID.class);
 
 		request.getBenCoApproval().setStatus(ApprovalStatus.AWAITING);
 		Double finalReimburse = 200.00;
 		request.setFinalReimburseAmount(finalReimburse);
-		user.setPendingBalance(finalReimburse);
 		Boolean employeeAgrees = false;
 
 		service.changeEmployeeAgrees(request, employeeAgrees);
@@ -1043,14 +1147,13 @@ public class RequestServiceTest {
 		assertEquals(ReimbursementStatus.CANCELLED, request.getStatus(), "Assert that the request status was sent.");
 		assertEquals(ApprovalStatus.UNASSIGNED, request.getBenCoApproval().getStatus(),
 				"Assert that the benCoApproval status was set");
-		assertEquals(0.0, user.getPendingBalance(), "Assert that the user's pending balance was reset");
 
 		Mockito.verify(reqDao).updateRequest(reqCaptor.capture());
-		Mockito.verify(userDao).updateUser(userCaptor.capture());
+		Mockito.verify(balDao).addEntry(Mockito.eq(user.getUsername()), Mockito.eq(request.getId()),
+				Mockito.eq(-Balance.toCents(finalReimburse)), Mockito.eq(0L), Mockito.any(UnitOfWork.class));
 		Mockito.verify(notDao).deleteNotification(usernameCaptor.capture(), idCaptor.capture());
 
 		assertEquals(request, reqCaptor.getValue(), "Assert that the request passed in is the same request");
-		assertEquals(user, userCaptor.getValue(), "Assert that the user passed in is the same user");
 		assertEquals(request.getBenCoApproval().getUsername(), usernameCaptor.getValue(),
 				"Assert that the username passed in is the benCo's username.");
 		assertEquals(request.getId(), idCaptor.getValue(), "Assert that the requestId passed in is the request's id");
@@ -1219,4 +1322,69 @@ public class RequestServiceTest {
 		assertThrows(IllegalApprovalAttemptException.class, () -> service.autoApprove(),
 				"Assert that an active request with no awaiting approvals throws an exception.");
 	}
+
+	@Test
+	public void testSweepExpiredRequests() {
+		// Set approval status to awaiting and the deadline to expired
+		request.setSupervisorApproval(new Approval(ApprovalStatus.AWAITING, supervisor.getUsername()));
+		request.setDeadline(Reimbursement.PLACEHOLDER);
+
+		// Create the page and add the request to it
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+		requests.add(request);
+
+		Mockito.when(reqDao.getExpiredRequests(Mockito.anyInt(), Mockito.isNull()))
+				.thenReturn(new Page<Reimbursement>(requests, null));
+
+		AutoApprovalReport report = service.sweepExpiredRequests();
+
+		assertEquals(ApprovalStatus.AUTO_APPROVED, request.getSupervisorApproval().getStatus(),
+				"Assert that the supervisor approval was auto-approved");
+		assertEquals(1, report.getBacklog(), "Assert that the backlog has the expired request");
+		assertEquals(1, report.getProcessed(), "Assert that the request was processed");
+		assertEquals(0, report.getFailed(), "Assert that nothing failed");
+
+		Mockito.verify(reqDao).updateRequest(request);
+	}
+
+	@Test
+	public void testSweepExpiredRequestsNoLongerDue() {
+		// The page has an older copy of the request than the database
+		Reimbursement expired = new ReimbursementRequest();
+		expired.setId(request.getId());
+		expired.setDeadline(Reimbursement.PLACEHOLDER);
+		request.startDeadline();
+
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+		requests.add(expired);
+
+		Mockito.when(reqDao.getExpiredRequests(Mockito.anyInt(), Mockito.isNull()))
+				.thenReturn(new Page<Reimbursement>(requests, null));
+
+		AutoApprovalReport report = service.sweepExpiredRequests();
+
+		assertEquals(1, report.getSkipped(), "Assert that the request was skipped");
+		Mockito.verify(reqDao, Mockito.never()).updateRequest(Mockito.any());
+	}
+
+	@Test
+	public void testSweepExpiredRequestsInvalid() {
+		// Set all the approval statuses to approved and the deadline to expired
+		request.setSupervisorApproval(new Approval(ApprovalStatus.APPROVED, supervisor.getUsername()));
+		request.setDeptHeadApproval(new Approval(ApprovalStatus.APPROVED, deptHead.getUsername()));
+		request.setBenCoApproval(new Approval(ApprovalStatus.APPROVED, benCo.getUsername()));
+		request.setFinalApproval(new Approval(ApprovalStatus.APPROVED, benCo.getUsername()));
+		request.setDeadline(Reimbursement.PLACEHOLDER);
+
+		List<Reimbursement> requests = new ArrayList<Reimbursement>();
+		requests.add(request);
+
+		Mockito.when(reqDao.getExpiredRequests(Mockito.anyInt(), Mockito.isNull()))
+				.thenReturn(new Page<Reimbursement>(requests, null));
+
+		AutoApprovalReport report = service.sweepExpiredRequests();
+
+		assertEquals(1, report.getFailed(),
+				"Assert that an active request with no awaiting approvals is counted as failed.");
+	}
 }
@@ -5,14 +5,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.revature.beans.Balance;
 import com.revature.beans.User;
 import com.revature.beans.UserType;
+import com.revature.data.BalanceDao;
 import com.revature.data.NotificationDao;
 import com.revature.data.UserDao;
 import com.revature.util.MockitoHelper;
@@ -22,6 +27,7 @@ public class UserServiceTest {
 	private User user = null;
 	private UserDao dao = null;
 	private NotificationDao notDao = null;
+	private BalanceDao balDao = null;
 
 	private static MockitoHelper mock = null;
 
@@ -39,17 +45,26 @@ public class UserServiceTest {
 		dao = (UserDao) mock.setPrivateMock(service, "userDao", UserDao.class);
 		
 		notDao = (NotificationDao) mock.setPrivateMock(service, "notDao", NotificationDao.class);
+		balDao = (BalanceDao) mock.setPrivateMock(service, "balDao", BalanceDao.class);
+
+		// Login reads the user, their notifications and their balance together
+		Mockito.when(dao.getUserAsync(Mockito.anyString())).thenReturn(CompletableFuture.completedFuture(null));
+		Mockito.when(notDao.getUserNotificationListAsync(Mockito.anyString(), Mockito.anyInt()))
+				.thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
+		Mockito.when(balDao.getBalanceAsync(Mockito.anyString()))
+				.thenReturn(CompletableFuture.completedFuture(new Balance()));
 	}
 
 	@Test
 	public void testLoginValid() {
 		// Set up mockito so that when dao.getUser is called, it will return the user as
 		// it should.
-		Mockito.when(dao.getUser(user.getUsername())).thenReturn(user);
+		Mockito.when(dao.getUserAsync(user.getUsername())).thenReturn(CompletableFuture.completedFuture(user));
+		Mockito.when(balDao.getBalanceAsync(user.getUsername()))
+				.thenReturn(CompletableFuture.completedFuture(new Balance(15000L, 80000L)));
 
 		// Use ArgumentCaptor to get arguments
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
-		ArgumentCaptor<String> passwordCaptor = ArgumentCaptor.forClass(String.class);
 		ArgumentCaptor<String> notUserCaptor = ArgumentCaptor.forClass(String.class);
 		
 		// Get the user using the user credentials
@@ -59,15 +74,19 @@ public class UserServiceTest {
 		assertEquals(user, loginUser, "Assert that the user returned is the same user.");
 
 		// Verify getUser was called and get the arguments used
-		Mockito.verify(dao).getUser(usernameCaptor.capture(), passwordCaptor.capture());
+		Mockito.verify(dao).getUserAsync(usernameCaptor.capture());
 		
-		Mockito.verify(notDao).getUserNotificationList(notUserCaptor.capture());
+		Mockito.verify(notDao).getUserNotificationListAsync(notUserCaptor.capture(), Mockito.anyInt());
 
 		// Make sure the arguments are correct
 		assertEquals(user.getUsername(), usernameCaptor.getValue(),
 				"Assert that the username used is the user's username.");
 		assertEquals(user.getUsername(), notUserCaptor.getValue(),
 				"Assert that the username used for getting notifications is the user's username.");
+
+		// Make sure the balances come from the user's ledger
+		assertEquals(150.00, loginUser.getPendingBalance(), "Assert that the pending balance is read from the ledger.");
+		assertEquals(800.00, loginUser.getAwardedBalance(), "Assert that the awarded balance is read from the ledger.");
 	}
 
 	@Test
@@ -179,6 +198,29 @@ public class UserServiceTest {
 		
 	}
 	
+	@Test
+	public void testGetNotificationsValid() {
+		ArgumentCaptor<Integer> sizeCaptor = ArgumentCaptor.forClass(Integer.class);
+
+		service.getNotifications(user.getUsername(), null, null);
+		service.getNotifications(user.getUsername(), 5000, "token");
+
+		Mockito.verify(notDao, Mockito.times(2)).getUserNotifications(Mockito.eq(user.getUsername()),
+				sizeCaptor.capture(), Mockito.any());
+
+		// A missing page size gets the default, and a large one is capped
+		assertEquals(20, sizeCaptor.getAllValues().get(0), "Assert that the default page size is used.");
+		assertEquals(100, sizeCaptor.getAllValues().get(1), "Assert that the page size is capped.");
+	}
+
+	@Test
+	public void testGetNotificationsInvalid() {
+		assertNull("Assert that a null username returns null", service.getNotifications(null, null, null));
+		assertNull("Assert that a blank username returns null", service.getNotifications(" ", null, null));
+
+		Mockito.verifyZeroInteractions(notDao);
+	}
+
 	@Test
 	public void testDeleteNotificationsValid() {
 		ArgumentCaptor<String> usernameCaptor = ArgumentCaptor.forClass(String.class);
@@ -0,0 +1,136 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+public class AttachmentCacheTest {
+	@TempDir
+	Path dir;
+
+	private S3Util s3 = null;
+	private AttachmentCache cache = null;
+
+	@BeforeEach
+	public void beforeTest() throws IOException {
+		s3 = Mockito.mock(S3Util.class);
+		// Each key's file is as many bytes long as the digits in its name say
+		Mockito.when(s3.downloadToFile(Mockito.anyString(), Mockito.any(Path.class))).thenAnswer((invocation) -> {
+			String key = invocation.getArgument(0);
+			Files.write(invocation.getArgument(1), bytes(Integer.parseInt(key.replaceAll("\\D", ""))));
+			return "\"" + key + "\"";
+		});
+		cache = new AttachmentCache(s3, dir, 100L, 60L);
+	}
+
+	@Test
+	public void testOpenCachesFile() throws IOException {
+		assertArrayEquals(bytes(10), read("file10", ByteRange.all(10L)), "Assert that the file is downloaded.");
+		assertArrayEquals(bytes(10), read("file10", ByteRange.all(10L)), "Assert that the cached file is the same.");
+
+		Mockito.verify(s3, Mockito.times(1)).downloadToFile(Mockito.eq("file10"), Mockito.any(Path.class));
+		assertEquals(1L, cache.getHits(), "Assert that the second open was a hit.");
+		assertEquals(10L, cache.getSize(), "Assert that the cache counts the file's bytes.");
+	}
+
+	@Test
+	public void testTransferRange() throws IOException {
+		byte[] part = read("file50", new ByteRange(10L, 5L));
+
+		byte[] expected = new byte[5];
+		System.arraycopy(bytes(50), 10, expected, 0, 5);
+		assertArrayEquals(expected, part, "Assert that only the range was sent.");
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws IOException {
+		read("a40", ByteRange.all(40L));
+		read("b40", ByteRange.all(40L));
+		// Using a40 again leaves b40 as the least recently used
+		read("a40", ByteRange.all(40L));
+		read("c30", ByteRange.all(30L));
+
+		assertEquals(1L, cache.getEvictions(), "Assert that one file was evicted.");
+		assertEquals(70L, cache.getSize(), "Assert that the cache is back under its limit.");
+		read("a40", ByteRange.all(40L));
+		read("b40", ByteRange.all(40L));
+		Mockito.verify(s3, Mockito.times(1)).downloadToFile(Mockito.eq("a40"), Mockito.any(Path.class));
+		Mockito.verify(s3, Mockito.times(2)).downloadToFile(Mockito.eq("b40"), Mockito.any(Path.class));
+	}
+
+	@Test
+	public void testLargeFileIsNotKept() throws IOException {
+		assertArrayEquals(bytes(80), read("file80", ByteRange.all(80L)), "Assert that the large file is sent.");
+
+		assertEquals(0, cache.getFiles(), "Assert that the large file wasn't cached.");
+		try (Stream<Path> files = Files.walk(dir)) {
+			assertEquals(0L, files.filter(Files::isRegularFile).count(),
+					"Assert that the large file was deleted once it was sent.");
+		}
+	}
+
+	@Test
+	public void testOnlyOwnFilesAreDeleted() throws IOException {
+		Path other = Files.write(dir.resolve("other"), bytes(5));
+		AttachmentCache second = new AttachmentCache(s3, dir, 100L, 60L);
+		read("file10", ByteRange.all(10L));
+
+		assertTrue(Files.exists(other), "Assert that starting a cache leaves other files alone.");
+		cache.shutdown();
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(2L, files.count(), "Assert that only the cache's own directory was deleted.");
+		}
+		assertTrue(Files.exists(other), "Assert that shutting down leaves other files alone.");
+		second.shutdown();
+	}
+
+	@Test
+	public void testInvalidateDeletesFile() throws IOException {
+		read("file10", ByteRange.all(10L));
+		cache.invalidate("file10");
+
+		assertEquals(0L, cache.getSize(), "Assert that the file's bytes are no longer counted.");
+		read("file10", ByteRange.all(10L));
+		Mockito.verify(s3, Mockito.times(2)).downloadToFile(Mockito.eq("file10"), Mockito.any(Path.class));
+	}
+
+	@Test
+	public void testMatchesETag() throws IOException {
+		try (AttachmentCache.Attachment file = cache.open("file10")) {
+			assertTrue(file.matches("\"file10\""), "Assert that the same ETag matches.");
+			assertTrue(file.matches("\"other\", W/\"file10\""), "Assert that a weak ETag in a list matches.");
+			assertTrue(file.matches("*"), "Assert that any ETag matches a wildcard.");
+			assertFalse(file.matches("\"other\""), "Assert that a different ETag doesn't match.");
+			assertFalse(file.matches(null), "Assert that no header doesn't match.");
+		}
+	}
+
+	private byte[] read(String key, ByteRange range) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (AttachmentCache.Attachment file = cache.open(key)) {
+			file.transferTo(range, Channels.newChannel(out));
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] bytes(Integer length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+}
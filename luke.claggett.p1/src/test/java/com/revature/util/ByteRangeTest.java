@@ -0,0 +1,45 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class ByteRangeTest {
+	private static final Long LENGTH = 1000L;
+
+	@Test
+	public void testParseValid() {
+		ByteRange range = ByteRange.parse("bytes=0-499", LENGTH);
+		assertEquals(0L, range.getStart(), "Assert that the range starts at the first byte.");
+		assertEquals(500L, range.getLength(), "Assert that both ends are included.");
+		assertEquals("bytes 0-499/1000", range.toContentRange(LENGTH), "Assert that the Content-Range is correct.");
+
+		range = ByteRange.parse("bytes=900-", LENGTH);
+		assertEquals(100L, range.getLength(), "Assert that an open range runs to the end of the file.");
+
+		range = ByteRange.parse("bytes=-200", LENGTH);
+		assertEquals(800L, range.getStart(), "Assert that a suffix range counts back from the end.");
+		assertEquals(200L, range.getLength(), "Assert that a suffix range has the requested length.");
+
+		range = ByteRange.parse("bytes=500-5000", LENGTH);
+		assertEquals(500L, range.getLength(), "Assert that a range past the end is cut off at the end.");
+	}
+
+	@Test
+	public void testParseIgnored() {
+		assertNull(ByteRange.parse(null, LENGTH), "Assert that no header means the whole file.");
+		assertNull(ByteRange.parse("items=0-10", LENGTH), "Assert that other units are ignored.");
+		assertNull(ByteRange.parse("bytes=0-10,20-30", LENGTH), "Assert that several ranges are ignored.");
+		assertNull(ByteRange.parse("bytes=abc-", LENGTH), "Assert that a header that can't be read is ignored.");
+		assertNull(ByteRange.parse("bytes=20-10", LENGTH), "Assert that a backwards range is ignored.");
+	}
+
+	@Test
+	public void testParseUnsatisfiable() {
+		assertThrows(IllegalArgumentException.class, () -> ByteRange.parse("bytes=1000-", LENGTH));
+		assertThrows(IllegalArgumentException.class, () -> ByteRange.parse("bytes=-0", LENGTH));
+		assertThrows(IllegalArgumentException.class, () -> ByteRange.parse("bytes=-10", 0L));
+	}
+}
@@ -0,0 +1,128 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.beans.Notification;
+
+public class NotificationHubTest {
+	private NotificationHub hub = null;
+	private UUID requestId = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		// Long enough that no heartbeat is sent unless the test asks for one
+		hub = new NotificationHub(60000L);
+		requestId = UUID.fromString("ddd9e879-52d3-47ad-a1b6-87a94cbb321d");
+	}
+
+	@AfterEach
+	public void afterTest() {
+		hub.shutdown();
+	}
+
+	@Test
+	public void testPublishReachesOnlyThatUser() throws InterruptedException {
+		BlockingQueue<Notification> tester = new LinkedBlockingQueue<>();
+		BlockingQueue<Notification> other = new LinkedBlockingQueue<>();
+		hub.subscribe("Tester", new Listener(tester));
+		hub.subscribe("OtherTester", new Listener(other));
+
+		Notification notification = new Notification("Tester", requestId, "Hello");
+		hub.publish(notification);
+
+		assertEquals(notification, tester.poll(5, TimeUnit.SECONDS), "Assert that the user got the notification.");
+		// Everything goes through one thread, so once this arrives the first one would have too
+		hub.publish(new Notification("OtherTester", requestId, "Marker"));
+		assertEquals("Marker", other.poll(5, TimeUnit.SECONDS).getMessage(),
+				"Assert that the other user only got their own notification.");
+	}
+
+	@Test
+	public void testUnsubscribeStopsDelivery() throws InterruptedException {
+		BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+		Listener listener = new Listener(received);
+		hub.subscribe("Tester", listener);
+		hub.unsubscribe("Tester", listener);
+		hub.unsubscribe("Tester", listener);
+
+		hub.publish(new Notification("Tester", requestId, "Hello"));
+
+		assertEquals(0, hub.getSubscribers(), "Assert that nobody is listening.");
+		assertEquals(null, received.poll(200, TimeUnit.MILLISECONDS), "Assert that nothing was sent.");
+	}
+
+	@Test
+	public void testFailedSubscriberIsDropped() throws InterruptedException {
+		BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+		hub.subscribe("Tester", new Listener(received));
+		hub.subscribe("Tester", new NotificationHub.Subscriber() {
+			@Override
+			public void send(Notification notification) {
+				throw new RuntimeException("closed");
+			}
+
+			@Override
+			public void heartbeat() {
+			}
+		});
+
+		hub.publish(new Notification("Tester", requestId, "Hello"));
+
+		assertEquals("Hello", received.poll(5, TimeUnit.SECONDS).getMessage(),
+				"Assert that the working subscriber still got the notification.");
+		assertEquals(1L, hub.getFailed(), "Assert that the failed send is counted.");
+		assertEquals(1, hub.getSubscribers(), "Assert that the failed subscriber was removed.");
+	}
+
+	@Test
+	public void testHeartbeatReachesIdleSubscribers() throws InterruptedException {
+		hub.shutdown();
+		hub = new NotificationHub(10L);
+		CountDownLatch beats = new CountDownLatch(2);
+		List<Notification> received = new CopyOnWriteArrayList<>();
+		hub.subscribe("Tester", new NotificationHub.Subscriber() {
+			@Override
+			public void send(Notification notification) {
+				received.add(notification);
+			}
+
+			@Override
+			public void heartbeat() {
+				beats.countDown();
+			}
+		});
+
+		assertTrue(beats.await(5, TimeUnit.SECONDS), "Assert that heartbeats keep being sent.");
+		assertTrue(received.isEmpty(), "Assert that a heartbeat isn't a notification.");
+	}
+
+	private static class Listener implements NotificationHub.Subscriber {
+		private final BlockingQueue<Notification> received;
+
+		Listener(BlockingQueue<Notification> received) {
+			this.received = received;
+		}
+
+		@Override
+		public void send(Notification notification) {
+			received.add(notification);
+		}
+
+		@Override
+		public void heartbeat() {
+		}
+	}
+}
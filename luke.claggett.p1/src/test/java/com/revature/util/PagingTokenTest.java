@@ -0,0 +1,49 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class PagingTokenTest {
+
+	@Test
+	public void testTokenRoundTrip() {
+		ByteBuffer state = ByteBuffer.wrap(new byte[] { 0, 1, (byte) 0xfe, (byte) 0xff });
+		String token = PagingToken.encode("2021-03", PagingToken.encodeState(state));
+
+		String[] cursor = PagingToken.decode(token, 2);
+		assertEquals(YearMonth.of(2021, 3), PagingToken.parse(cursor[0], YearMonth::parse),
+				"Assert that the bucket is read back.");
+		assertEquals(state, PagingToken.decodeState(cursor[1]), "Assert that the driver's paging state is read back.");
+		assertArrayEquals(new String[] { "1", "" }, PagingToken.decode(PagingToken.encode("1", null), 2),
+				"Assert that a missing part is sent as empty.");
+		assertNull(PagingToken.decodeState(""), "Assert that an empty paging state is the first page.");
+		assertNull(PagingToken.encodeState(null), "Assert that there is no token without a paging state.");
+	}
+
+	@Test
+	public void testMalformedTokensAreIllegalArguments() {
+		String oneQueue = Base64.getUrlEncoder().encodeToString("1".getBytes(StandardCharsets.UTF_8));
+		String notAMonth = PagingToken.encode("March", "");
+
+		assertThrows(IllegalArgumentException.class, () -> PagingToken.decode("not base64!", 2),
+				"Assert that a token that isn't Base64 is rejected.");
+		assertThrows(IllegalArgumentException.class, () -> PagingToken.decode(oneQueue, 2),
+				"Assert that a token with too few parts is rejected.");
+		assertThrows(IllegalArgumentException.class, () -> PagingToken.decode(PagingToken.encode("1", "2", "3"), 2),
+				"Assert that a token with too many parts is rejected.");
+		assertThrows(IllegalArgumentException.class,
+				() -> PagingToken.parse(PagingToken.decode(notAMonth, 2)[0], YearMonth::parse),
+				"Assert that a part that can't be read is rejected.");
+		assertThrows(IllegalArgumentException.class, () -> PagingToken.decodeState("%%%"),
+				"Assert that a paging state that isn't Base64 is rejected.");
+	}
+}
@@ -0,0 +1,67 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestLockManagerTest {
+	private RequestLockManager locks = RequestLockManager.getInstance();
+
+	@Test
+	public void testLockIsPerRequest() throws InterruptedException {
+		UUID held = UUID.randomUUID();
+		Lock lock = locks.lock(held);
+		CountDownLatch done = new CountDownLatch(1);
+
+		try {
+			// Find a request that lands on a different lock
+			int stripes = locks.getStripes();
+			UUID other = UUID.randomUUID();
+			while (Math.floorMod(other.hashCode(), stripes) == Math.floorMod(held.hashCode(), stripes)) {
+				other = UUID.randomUUID();
+			}
+			UUID otherId = other;
+
+			new Thread(() -> {
+				locks.lock(otherId).unlock();
+				done.countDown();
+			}).start();
+
+			assertTrue(done.await(5, TimeUnit.SECONDS),
+					"Assert that a different request is not held up by the lock");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Test
+	public void testContentionIsCounted() throws InterruptedException {
+		UUID id = UUID.randomUUID();
+		Long contended = locks.getContended();
+		Lock lock = locks.lock(id);
+		CountDownLatch waiting = new CountDownLatch(1);
+
+		Thread thread = new Thread(() -> {
+			waiting.countDown();
+			locks.lock(id).unlock();
+		});
+		thread.start();
+		waiting.await();
+
+		// Give the thread time to block on the lock before releasing it
+		while (thread.getState() != Thread.State.WAITING && thread.isAlive()) {
+			Thread.sleep(1);
+		}
+		lock.unlock();
+		thread.join();
+
+		assertEquals(contended + 1, locks.getContended(), "Assert that the second lock call was counted as contended");
+		assertTrue(locks.getContentionRate() > 0.0, "Assert that the contention rate is above zero");
+	}
+}
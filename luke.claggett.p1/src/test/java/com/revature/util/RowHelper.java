@@ -0,0 +1,200 @@
+package com.revature.util;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.driver.internal.core.type.UserDefinedTypeBuilder;
+import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.revature.beans.Approval;
+import com.revature.beans.ApprovalStatus;
+import com.revature.beans.EventType;
+import com.revature.beans.Format;
+import com.revature.beans.GradingFormat;
+import com.revature.beans.Reimbursement;
+import com.revature.beans.ReimbursementRequest;
+import com.revature.codecs.ApprovalCodec;
+import com.revature.codecs.GradingFormatCodec;
+import com.revature.codecs.RequestCodecs;
+
+/**
+ * Builds request rows the way the driver decodes them off the wire, so the
+ * row mapping can be tested and measured without a database.
+ */
+public class RowHelper {
+	private static final RawType RAW_TEXT = RawType.PRIMITIVES.get(ProtocolConstants.DataType.VARCHAR);
+	private static final RawType RAW_UUID = RawType.PRIMITIVES.get(ProtocolConstants.DataType.UUID);
+	private static final RawType RAW_BOOLEAN = RawType.PRIMITIVES.get(ProtocolConstants.DataType.BOOLEAN);
+	private static final RawType RAW_DOUBLE = RawType.PRIMITIVES.get(ProtocolConstants.DataType.DOUBLE);
+	private static final RawType RAW_DATE = RawType.PRIMITIVES.get(ProtocolConstants.DataType.DATE);
+	private static final RawType RAW_TIME = RawType.PRIMITIVES.get(ProtocolConstants.DataType.TIME);
+	private static final RawType RAW_TIMESTAMP = RawType.PRIMITIVES.get(ProtocolConstants.DataType.TIMESTAMP);
+	private static final RawType RAW_BIGINT = RawType.PRIMITIVES.get(ProtocolConstants.DataType.BIGINT);
+	private static final RawType RAW_LIST = new RawType.RawList(RAW_TEXT);
+	private static final RawType RAW_APPROVAL = udt("approval", "status", "username");
+	private static final RawType RAW_GRADING_FORMAT = udt("grading_format", "format", "passinggrade");
+
+	public static final String KEYSPACE = "luke_claggett_p1";
+
+	/**
+	 * The types as the session reads them from the schema
+	 */
+	public static final UserDefinedType APPROVAL = new UserDefinedTypeBuilder(KEYSPACE, ApprovalCodec.TYPE)
+			.withField("status", DataTypes.TEXT).withField("username", DataTypes.TEXT).frozen().build();
+	public static final UserDefinedType GRADING_FORMAT = new UserDefinedTypeBuilder(KEYSPACE, GradingFormatCodec.TYPE)
+			.withField("format", DataTypes.TEXT).withField("passinggrade", DataTypes.TEXT).frozen().build();
+
+	/**
+	 * Rows decode with the same codecs the session registers
+	 */
+	public static final CodecRegistry CODECS = registry();
+
+	private static final AttachmentPoint ROWS = new AttachmentPoint() {
+		@Override
+		public ProtocolVersion getProtocolVersion() {
+			return ProtocolVersion.DEFAULT;
+		}
+
+		@Override
+		public CodecRegistry getCodecRegistry() {
+			return CODECS;
+		}
+	};
+
+	// Same columns in the same order as the request selects
+	private static final ColumnDefinitions COLUMNS = columns(new Object[][] {
+			{ "id", RAW_UUID }, { "username", RAW_TEXT }, { "status", RAW_TEXT }, { "isurgent", RAW_BOOLEAN },
+			{ "name", RAW_TEXT }, { "firstname", RAW_TEXT }, { "lastname", RAW_TEXT }, { "deptname", RAW_TEXT },
+			{ "startdate", RAW_DATE }, { "starttime", RAW_TIME }, { "location", RAW_TEXT },
+			{ "description", RAW_TEXT }, { "cost", RAW_DOUBLE }, { "gradingformat", RAW_GRADING_FORMAT },
+			{ "type", RAW_TEXT }, { "fileuris", RAW_LIST }, { "approvalmsguri", RAW_TEXT },
+			{ "worktimemissed", RAW_TEXT }, { "reimburseamount", RAW_DOUBLE },
+			{ "supervisorapproval", RAW_APPROVAL }, { "deptheadapproval", RAW_APPROVAL },
+			{ "bencoapproval", RAW_APPROVAL }, { "reason", RAW_TEXT }, { "deadline", RAW_TIMESTAMP },
+			{ "finalgrade", RAW_TEXT }, { "ispassing", RAW_BOOLEAN }, { "presfilename", RAW_TEXT },
+			{ "finalapproval", RAW_APPROVAL }, { "finalreimburseamount", RAW_DOUBLE },
+			{ "finalreimburseamountreason", RAW_TEXT }, { "needsemployeereview", RAW_BOOLEAN },
+			{ "employeeagrees", RAW_BOOLEAN }, { "version", RAW_BIGINT } });
+
+	/**
+	 * @return A request part way through approval with every column set
+	 */
+	public static Reimbursement sampleRequest() {
+		Reimbursement request = new ReimbursementRequest("Tester", "Test", "User", "Test", "Service Certification",
+				LocalDate.of(2021, 9, 1), LocalTime.of(9, 30), "101 Test Dr. Test, VA 99999", "A Service course",
+				200.00, new GradingFormat(Format.LETTER), EventType.CERTIFICATION);
+		request.setId(UUID.fromString("ddd9e879-52d3-47ad-a1b6-87a94cbb321d"));
+		request.setFileURIs(new ArrayList<>(Arrays.asList("Tester/file.pdf", "Tester/file.png")));
+		request.setApprovalMsgURI("Tester/approval.txt");
+		request.setWorkTimeMissed("2 days");
+		request.setReimburseAmount(160.00);
+		request.setSupervisorApproval(new Approval(ApprovalStatus.APPROVED, "TestSuper"));
+		request.setDeptHeadApproval(new Approval(ApprovalStatus.AUTO_APPROVED, "TestHead"));
+		request.setBenCoApproval(new Approval(ApprovalStatus.AWAITING, null));
+		request.setReason("");
+		request.setDeadline(LocalDateTime.of(2021, 8, 1, 12, 0));
+		request.setFinalGrade("B");
+		request.setIsPassing(true);
+		request.setPresFileName("Tester/presentation.pdf");
+		request.setFinalReimburseAmount(150.00);
+		request.setFinalReimburseAmountReason("Over the limit");
+		request.setVersion(3L);
+		return request;
+	}
+
+	/**
+	 * @param request The request to encode
+	 * @return A row of the request table holding the request
+	 */
+	public static Row toRow(Reimbursement request) {
+		List<ByteBuffer> values = new ArrayList<>();
+		values.add(encode(DataTypes.UUID, request.getId()));
+		values.add(encode(DataTypes.TEXT, request.getUsername()));
+		values.add(encode(DataTypes.TEXT, request.getStatus()));
+		values.add(encode(DataTypes.BOOLEAN, request.getIsUrgent()));
+		values.add(encode(DataTypes.TEXT, request.getName()));
+		values.add(encode(DataTypes.TEXT, request.getFirstName()));
+		values.add(encode(DataTypes.TEXT, request.getLastName()));
+		values.add(encode(DataTypes.TEXT, request.getDeptName()));
+		values.add(encode(DataTypes.DATE, request.getStartDate()));
+		values.add(encode(DataTypes.TIME, request.getStartTime()));
+		values.add(encode(DataTypes.TEXT, request.getLocation()));
+		values.add(encode(DataTypes.TEXT, request.getDescription()));
+		values.add(encode(DataTypes.DOUBLE, request.getCost()));
+		values.add(encode(GRADING_FORMAT, request.getGradingFormat()));
+		values.add(encode(DataTypes.TEXT, request.getType()));
+		values.add(encode(DataTypes.listOf(DataTypes.TEXT), request.getFileURIs()));
+		values.add(encode(DataTypes.TEXT, request.getApprovalMsgURI()));
+		values.add(encode(DataTypes.TEXT, request.getWorkTimeMissed()));
+		values.add(encode(DataTypes.DOUBLE, request.getReimburseAmount()));
+		values.add(encode(APPROVAL, request.getSupervisorApproval()));
+		values.add(encode(APPROVAL, request.getDeptHeadApproval()));
+		values.add(encode(APPROVAL, request.getBenCoApproval()));
+		values.add(encode(DataTypes.TEXT, request.getReason()));
+		values.add(encode(DataTypes.TIMESTAMP, request.getDeadline().toInstant(ZoneOffset.UTC)));
+		values.add(encode(DataTypes.TEXT, request.getFinalGrade()));
+		values.add(encode(DataTypes.BOOLEAN, request.getIsPassing()));
+		values.add(encode(DataTypes.TEXT, request.getPresFileName()));
+		values.add(encode(APPROVAL, request.getFinalApproval()));
+		values.add(encode(DataTypes.DOUBLE, request.getFinalReimburseAmount()));
+		values.add(encode(DataTypes.TEXT, request.getFinalReimburseAmountReason()));
+		values.add(encode(DataTypes.BOOLEAN, request.getNeedsEmployeeReview()));
+		values.add(encode(DataTypes.BOOLEAN, request.getEmployeeAgrees()));
+		values.add(encode(DataTypes.BIGINT, request.getVersion()));
+		return new DefaultRow(COLUMNS, values, ROWS);
+	}
+
+	private static ByteBuffer encode(DataType type, Object value) {
+		return (value == null) ? null : CODECS.codecFor(type, value).encode(value, ProtocolVersion.DEFAULT);
+	}
+
+	private static CodecRegistry registry() {
+		DefaultCodecRegistry registry = new DefaultCodecRegistry("rows");
+		for (TypeCodec<?> codec : RequestCodecs.forTypes(APPROVAL, GRADING_FORMAT)) {
+			registry.register(codec);
+		}
+		return registry;
+	}
+
+	private static RawType udt(String name, String... fields) {
+		Map<String, RawType> types = new LinkedHashMap<>();
+		for (String field : fields) {
+			types.put(field, RAW_TEXT);
+		}
+		return new RawType.RawUdt(KEYSPACE, name, types);
+	}
+
+	private static ColumnDefinitions columns(Object[][] columns) {
+		List<ColumnDefinition> definitions = new ArrayList<>();
+		for (int i = 0; i < columns.length; i++) {
+			ColumnSpec spec = new ColumnSpec("project1", "request", (String) columns[i][0], i,
+					(RawType) columns[i][1]);
+			definitions.add(new DefaultColumnDefinition(spec, ROWS));
+		}
+		return DefaultColumnDefinitions.valueOf(definitions);
+	}
+}
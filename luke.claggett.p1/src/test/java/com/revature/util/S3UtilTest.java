@@ -0,0 +1,209 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.revature.beans.PresignedUrl;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+public class S3UtilTest {
+	private static final Integer PART_SIZE = 8;
+
+	private S3Client client = null;
+	private S3Presigner presigner = null;
+	private S3Util s3 = null;
+	// What each part held when it was sent, since the buffer is reused for the next one
+	private List<byte[]> parts = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		client = Mockito.mock(S3Client.class);
+		// Signing happens offline, so a real presigner pointed at a local stand-in works without one running
+		presigner = S3Presigner.builder().region(S3Util.REGION)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+				.endpointOverride(URI.create("http://localhost:9000"))
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build()).build();
+		s3 = new S3Util(client, presigner, PART_SIZE);
+		parts = new ArrayList<>();
+
+		Mockito.when(client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+				.thenAnswer((invocation) -> {
+					parts.add(read(invocation.getArgument(1)));
+					return PutObjectResponse.builder().build();
+				});
+		Mockito.when(client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+				.thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+		Mockito.when(client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+				.thenAnswer((invocation) -> {
+					parts.add(read(invocation.getArgument(1)));
+					return UploadPartResponse.builder().eTag("etag" + parts.size()).build();
+				});
+	}
+
+	@Test
+	public void testSmallFileIsOnePut() throws IOException {
+		byte[] file = bytes(5);
+		s3.uploadToBucket("small", new ByteArrayInputStream(file), (long) file.length);
+
+		Mockito.verify(client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+		assertEquals(1, parts.size(), "Assert that the file was sent in one put.");
+		assertArrayEquals(file, parts.get(0), "Assert that the whole file was sent.");
+	}
+
+	@Test
+	public void testUnknownLengthSmallFileIsOnePut() throws IOException {
+		byte[] file = bytes(PART_SIZE - 1);
+		s3.uploadToBucket("small", new ByteArrayInputStream(file), null);
+
+		Mockito.verify(client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+		assertArrayEquals(file, parts.get(0), "Assert that the whole file was sent in one put.");
+	}
+
+	@Test
+	public void testLargeFileIsSentInParts() throws IOException {
+		byte[] file = bytes(PART_SIZE * 2 + 3);
+		s3.uploadToBucket("large", new TrickleInputStream(file), -1L);
+
+		assertEquals(3, parts.size(), "Assert that the file was split into full parts and a remainder.");
+		assertArrayEquals(file, join(parts), "Assert that the parts add up to the file.");
+
+		ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor
+				.forClass(CompleteMultipartUploadRequest.class);
+		Mockito.verify(client).completeMultipartUpload(captor.capture());
+		assertEquals(3, captor.getValue().multipartUpload().parts().size(), "Assert that every part was completed.");
+		assertEquals("etag3", captor.getValue().multipartUpload().parts().get(2).eTag(),
+				"Assert that the parts are completed in order.");
+	}
+
+	@Test
+	public void testExactMultipleHasNoEmptyPart() throws IOException {
+		byte[] file = bytes(PART_SIZE * 2);
+		s3.uploadToBucket("exact", new ByteArrayInputStream(file), null);
+
+		assertEquals(2, parts.size(), "Assert that no empty part was sent.");
+		assertArrayEquals(file, join(parts), "Assert that the parts add up to the file.");
+	}
+
+	@Test
+	public void testFailedPartAbortsUpload() {
+		Mockito.when(client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+				.thenThrow(S3Exception.builder().message("failed").build());
+
+		assertThrows(S3Exception.class,
+				() -> s3.uploadToBucket("failed", new ByteArrayInputStream(bytes(PART_SIZE * 3)), null));
+		Mockito.verify(client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+		Mockito.verify(client, Mockito.never()).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testPresignUpload() {
+		LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+		PresignedUrl upload = s3.presignUpload("request/files/0.pdf");
+
+		assertEquals("request/files/0.pdf", upload.getKey(), "Assert that the key is returned.");
+		assertEquals("PUT", upload.getMethod(), "Assert that the URL is for an upload.");
+		assertTrue(upload.getUrl().startsWith("http://localhost:9000/" + S3Util.BUCKET_NAME + "/request/files/0.pdf?"),
+				"Assert that the URL points at the stand-in with the bucket in the path.");
+		// X-Amz-Expires is counted from when signing finished, so it can be a second short on a slow run
+		assertTrue(upload.getUrl().contains("X-Amz-Expires="), "Assert that the URL expires.");
+		assertTrue(!upload.getExpiration().isBefore(before.plusMinutes(15).withNano(0)),
+				"Assert that the URL is good for 15 minutes.");
+		assertTrue(upload.getExpiration().isBefore(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(15).plusSeconds(1)),
+				"Assert that the URL is good for no longer than 15 minutes.");
+	}
+
+	@Test
+	public void testPresignDownload() {
+		PresignedUrl download = s3.presignDownload("request/files/0.pdf");
+
+		assertEquals("GET", download.getMethod(), "Assert that the URL is for a download.");
+		assertTrue(download.getUrl().contains("X-Amz-Signature="), "Assert that the URL is signed.");
+	}
+
+	@Test
+	public void testExists() {
+		Mockito.when(client.headObject(Mockito.any(HeadObjectRequest.class)))
+				.thenReturn(HeadObjectResponse.builder().build())
+				.thenThrow(S3Exception.builder().statusCode(404).build())
+				.thenThrow(S3Exception.builder().statusCode(403).build());
+
+		assertTrue(s3.exists("there"), "Assert that a file that is there exists.");
+		assertFalse(s3.exists("missing"), "Assert that a missing file doesn't exist.");
+		assertThrows(S3Exception.class, () -> s3.exists("forbidden"));
+	}
+
+	private byte[] bytes(Integer length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+
+	private byte[] read(RequestBody body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = body.contentStreamProvider().newStream()) {
+			byte[] buffer = new byte[64];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private byte[] join(List<byte[]> chunks) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		chunks.forEach((chunk) -> out.write(chunk, 0, chunk.length));
+		return out.toByteArray();
+	}
+
+	/**
+	 * Hands out a few bytes per read, the way a network stream does
+	 */
+	private static class TrickleInputStream extends ByteArrayInputStream {
+		TrickleInputStream(byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, 3));
+		}
+	}
+}
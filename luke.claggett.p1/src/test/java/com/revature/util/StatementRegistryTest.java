@@ -0,0 +1,109 @@
+package com.revature.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+
+public class StatementRegistryTest {
+	private static final SimpleStatement QUERY = SimpleStatement.newInstance("SELECT * FROM user WHERE username = ?");
+	private static final IllegalStateException ID_MISMATCH = new IllegalStateException(
+			"ID mismatch while trying to reprepare (expected 0x01, got 0x02). This prepared statement won't work anymore.");
+
+	private CqlSession session = null;
+	private StatementRegistry statements = null;
+
+	@BeforeEach
+	public void beforeTest() {
+		session = Mockito.mock(CqlSession.class);
+		PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+		Mockito.when(prepared.bind(Mockito.any())).thenReturn(Mockito.mock(BoundStatement.class, Mockito.RETURNS_SELF));
+		Mockito.when(session.prepareAsync(Mockito.any(SimpleStatement.class)))
+				.thenAnswer((invocation) -> CompletableFuture.completedFuture(prepared));
+		statements = new StatementRegistry(session);
+	}
+
+	@Test
+	public void testStatementIsPreparedAgainAfterIdMismatch() {
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		Mockito.when(session.execute(Mockito.any(Statement.class))).thenThrow(ID_MISMATCH).thenReturn(rs);
+
+		assertSame(rs, statements.execute(QUERY, "Emily"), "Assert that the second try's result is returned.");
+		Mockito.verify(session, Mockito.times(2)).prepareAsync(QUERY);
+		assertEquals(1L, hitsOf(QUERY), "Assert that the retry isn't counted as another hit.");
+	}
+
+	@Test
+	public void testPageIsPreparedAgainAfterIdMismatch() {
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		Mockito.when(session.execute(Mockito.any(Statement.class))).thenThrow(ID_MISMATCH).thenReturn(rs);
+
+		assertSame(rs, statements.executePage(QUERY, 10, null, "Emily"),
+				"Assert that the second try's result is returned.");
+		Mockito.verify(session, Mockito.times(2)).prepareAsync(QUERY);
+		assertEquals(1L, hitsOf(QUERY), "Assert that the retry isn't counted as another hit.");
+	}
+
+	@Test
+	public void testQueryErrorsAreNotRetried() {
+		InvalidQueryException invalid = new InvalidQueryException(null, "Invalid STRING constant for username");
+		Mockito.when(session.execute(Mockito.any(Statement.class))).thenThrow(invalid);
+
+		assertSame(invalid, assertThrows(InvalidQueryException.class, () -> statements.execute(QUERY, 1)),
+				"Assert that the driver's exception is passed on as it is.");
+		Mockito.verify(session, Mockito.times(1)).execute(Mockito.any(Statement.class));
+		Mockito.verify(session, Mockito.times(1)).prepareAsync(QUERY);
+	}
+
+	@Test
+	public void testOtherIllegalStatesAreNotRetried() {
+		IllegalStateException driverThread = new IllegalStateException(
+				"Detected a synchronous API call on a driver thread, failing because this can cause deadlocks.");
+		Mockito.when(session.execute(Mockito.any(Statement.class))).thenThrow(driverThread);
+
+		assertSame(driverThread, assertThrows(IllegalStateException.class, () -> statements.execute(QUERY, "Emily")),
+				"Assert that the driver's exception is passed on as it is.");
+		Mockito.verify(session, Mockito.times(1)).execute(Mockito.any(Statement.class));
+	}
+
+	@Test
+	public void testAsyncOnlyRetriesIdMismatch() {
+		AsyncResultSet rs = Mockito.mock(AsyncResultSet.class);
+		InvalidQueryException invalid = new InvalidQueryException(null, "Invalid STRING constant for username");
+		Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+				.thenReturn(failed(ID_MISMATCH), CompletableFuture.completedFuture(rs), failed(invalid));
+
+		assertSame(rs, statements.executeAsync(QUERY, "Emily").toCompletableFuture().join(),
+				"Assert that the second try's result is returned.");
+		CompletionException thrown = assertThrows(CompletionException.class,
+				() -> statements.executeAsync(QUERY, 1).toCompletableFuture().join());
+		assertSame(invalid, thrown.getCause(), "Assert that the driver's exception is passed on as it is.");
+		Mockito.verify(session, Mockito.times(3)).executeAsync(Mockito.any(Statement.class));
+	}
+
+	private Long hitsOf(SimpleStatement statement) {
+		return statements.getStatements().stream()
+				.filter((registered) -> registered.getQuery().equals(statement.getQuery())).findFirst().get().getHits();
+	}
+
+	private CompletableFuture<AsyncResultSet> failed(Throwable e) {
+		CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+		failed.completeExceptionally(e);
+		return failed;
+	}
+}